@@ -1,9 +1,166 @@
 package com.wellness.repository;
+import java.util.Collection;
+import java.util.List;
+
+import org.hibernate.jpa.AvailableHints;
+import org.springframework.data.domain.Limit;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Lock;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
+import org.springframework.data.repository.query.Param;
+import org.springframework.transaction.annotation.Transactional;
+
+import jakarta.persistence.LockModeType;
+import jakarta.persistence.QueryHint;
 
+import com.wellness.data.BulkChange;
+import com.wellness.data.DirectoryCount;
+import com.wellness.data.LoginView;
+import com.wellness.data.ManagerLink;
+import com.wellness.data.Role;
+import com.wellness.data.RowVersion;
+import com.wellness.data.SearchEntry;
+import com.wellness.data.Status;
+import com.wellness.data.UserState;
 import com.wellness.data.Users;
+import com.wellness.dto.MyResponse;
 
 public interface IUserRepository extends JpaRepository<Users, Long>{
+	// public columns only, the password hash never leaves the database on read paths
+	String RESPONSE = "select new com.wellness.dto.MyResponse(u.userId, u.name, u.email, u.department,"
+			+ " u.managerId, u.role, u.status, u.createdAt, u.version) from Users u";
+	
+	// hibernate invalidates these cached results whenever the users table is written through JPA
+	@QueryHints(@QueryHint(name=AvailableHints.HINT_CACHEABLE, value="true"))
 	Users findByEmail(String email);
 	boolean existsByEmail(String email);
+	@QueryHints(@QueryHint(name=AvailableHints.HINT_CACHEABLE, value="true"))
+	LoginView findLoginViewByEmail(String email);
+	
+	// read past the query cache, it describes the row an update just wrote
+	@Query("select new com.wellness.data.UserState(u.userId, u.version, u.name, u.department, u.role, u.status,"
+			+ " u.managerId) from Users u where u.email = :email")
+	UserState findStateByEmail(@Param("email") String email);
+	
+	// one round trip per import batch instead of an exists check per row
+	@Query("select u.email from Users u where u.email in :emails")
+	List<String> findExistingEmails(@Param("emails") Collection<String> emails);
+	
+	@QueryHints(@QueryHint(name=AvailableHints.HINT_CACHEABLE, value="true"))
+	@Query(RESPONSE + " where u.userId = :id")
+	MyResponse findResponseById(@Param("id") Long id);
+	
+	// conditional reads compare versions before loading anything else, never from the query cache
+	@Query("select u.version from Users u where u.userId = :id")
+	Long findVersionById(@Param("id") Long id);
+	
+	@Query(RESPONSE + " where u.userId in :ids")
+	List<MyResponse> findResponsesByIds(@Param("ids") Collection<Long> ids);
+	
+	// two columns of every row, the source of OrgHierarchyService
+	@Query("select new com.wellness.data.ManagerLink(u.userId, u.managerId) from Users u")
+	List<ManagerLink> findManagerLinks();
+	
+	// one row per department, role and status combination, the source of DirectoryStatsService
+	@Query("select new com.wellness.data.DirectoryCount(u.department, u.role, u.status, count(u)) from Users u"
+			+ " group by u.department, u.role, u.status")
+	List<DirectoryCount> countByDepartmentRoleStatus();
+	
+	// id, name and email of every row, the source of UserSearchService
+	@Query("select new com.wellness.data.SearchEntry(u.userId, u.name, u.email) from Users u")
+	List<SearchEntry> findSearchEntries();
+	
+	// rehash after a login: only replaces the hash that was verified, so a password changed in the
+	// meantime is kept, and leaves the version alone since nothing a client sees has changed
+	@Modifying
+	@Transactional
+	@Query("update Users u set u.password = :password where u.userId = :id and u.password = :current")
+	int updatePassword(@Param("id") Long id, @Param("current") String current, @Param("password") String password);
+	
+	// compare-and-set: applies only while the row is still at the version the caller read,
+	// a null version applies to whatever is current
+	@Modifying(clearAutomatically = true)
+	@Transactional
+	@Query("update Users u set u.name = :name, u.department = :department, u.password = :password,"
+			+ " u.version = u.version + 1 where u.email = :email and (:version is null or u.version = :version)")
+	int updateProfileIfVersion(@Param("email") String email, @Param("version") Long version, @Param("name") String name,
+			@Param("department") String department, @Param("password") String password);
+	
+	@Modifying(clearAutomatically = true)
+	@Transactional
+	@Query("update Users u set u.department = :department, u.role = :role, u.status = :status,"
+			+ " u.version = u.version + 1 where u.email = :email and (:version is null or u.version = :version)")
+	int updateAdminIfVersion(@Param("email") String email, @Param("version") Long version,
+			@Param("department") String department, @Param("role") Role role, @Param("status") Status status);
+	
+	// the row as the update left it, re-read under its row lock only when the update applied
+	@Transactional
+	default UserState updateProfile(String email, Long version, String name, String department, String password) {
+		return updateProfileIfVersion(email, version, name, department, password)==0 ? null : findStateByEmail(email);
+	}
+	
+	@Transactional
+	default UserState updateAdmin(String email, Long version, String department, Role role, Status status) {
+		return updateAdminIfVersion(email, version, department, role, status)==0 ? null : findStateByEmail(email);
+	}
+	
+	// set-based admin updates: one statement however many rows match, rows already
+	// at the target value are skipped so the count is the number actually changed
+	@Modifying(clearAutomatically = true)
+	@Transactional
+	@Query("update Users u set u.status = :status, u.version = u.version + 1 where u.department = :department and u.status <> :status")
+	int updateStatusByDepartment(@Param("department") String department, @Param("status") Status status);
+	
+	@Modifying(clearAutomatically = true)
+	@Transactional
+	@Query("update Users u set u.role = :role, u.version = u.version + 1 where u.userId in :ids and u.role <> :role")
+	int updateRoleByIds(@Param("ids") Collection<Long> ids, @Param("role") Role role);
+	
+	// the users the updates above are about to change, locked until the transaction ends so
+	// no other write can move a row into or out of the filter in between
+	@Lock(LockModeType.PESSIMISTIC_WRITE)
+	@Query("select u.email from Users u where u.department = :department and u.status <> :status")
+	List<String> lockEmailsForStatusUpdate(@Param("department") String department, @Param("status") Status status);
+	
+	@Lock(LockModeType.PESSIMISTIC_WRITE)
+	@Query("select u.email from Users u where u.userId in :ids and u.role <> :role")
+	List<String> lockEmailsForRoleUpdate(@Param("ids") Collection<Long> ids, @Param("role") Role role);
+	
+	// the update and the emails of the users it changed, so their tokens alone can be revoked
+	@Transactional
+	default BulkChange changeStatusByDepartment(String department, Status status) {
+		List<String> emails = lockEmailsForStatusUpdate(department, status);
+		return new BulkChange(emails.isEmpty() ? 0 : updateStatusByDepartment(department, status), emails);
+	}
+	
+	@Transactional
+	default BulkChange changeRoleByIds(Collection<Long> ids, Role role) {
+		List<String> emails = lockEmailsForRoleUpdate(ids, role);
+		return new BulkChange(emails.isEmpty() ? 0 : updateRoleByIds(ids, role), emails);
+	}
+	
+	@Modifying(clearAutomatically = true)
+	@Transactional
+	@Query("update Users u set u.managerId = :to, u.version = u.version + 1 where u.managerId = :from")
+	int reassignManager(@Param("from") Integer fromManagerId, @Param("to") Integer toManagerId);
+	
+	// keyset page: seeks past the last seen id on the primary key instead of using OFFSET
+	@Query(RESPONSE + " where u.userId > :after"
+			+ " and (:department is null or u.department = :department)"
+			+ " and (:role is null or u.role = :role)"
+			+ " and (:status is null or u.status = :status)"
+			+ " order by u.userId")
+	List<MyResponse> findPageAfter(@Param("after") long after, @Param("department") String department,
+			@Param("role") Role role, @Param("status") Status status, Limit limit);
+	
+	// the same page as findPageAfter, ids and versions only
+	@Query("select new com.wellness.data.RowVersion(u.userId, u.version) from Users u where u.userId > :after"
+			+ " and (:department is null or u.department = :department)"
+			+ " and (:role is null or u.role = :role)"
+			+ " and (:status is null or u.status = :status)"
+			+ " order by u.userId")
+	List<RowVersion> findVersionsAfter(@Param("after") long after, @Param("department") String department,
+			@Param("role") Role role, @Param("status") Status status, Limit limit);
 }
@@ -0,0 +1,185 @@
+package com.wellness.service;
+
+import java.util.EnumMap;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.TreeMap;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import com.wellness.data.DirectoryCount;
+import com.wellness.data.Role;
+import com.wellness.data.Status;
+import com.wellness.dto.DirectoryStats;
+import com.wellness.event.UserChangedEvent;
+import com.wellness.event.UserChangedEvent.Snapshot;
+import com.wellness.repository.IUserRepository;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+
+/**
+ * Headcount by department, role and status, kept as one counter per combination.
+ * Loaded with a GROUP BY at startup, moved by UserChangedEvents, and rebuilt after bulk
+ * writes and on a schedule that reports drift. Single-user updates do not read the row they
+ * replace, so they mark the counters stale and a scheduled refresh recounts them shortly
+ * after, off the request thread. Reads return the last published totals.
+ */
+@Service
+public class DirectoryStatsService implements MeterBinder {
+
+	private static final Logger log = LoggerFactory.getLogger(DirectoryStatsService.class);
+
+	private record Key(String department, Role role, Status status) {
+	}
+
+	private final IUserRepository userRepository;
+
+	//guarded by this
+	private Map<Key, Long> counts = new HashMap<>();
+	private long changes;
+	private boolean loaded;
+	private boolean stale;
+
+	private volatile DirectoryStats stats = totals(Map.of());
+	private volatile Counter drift;
+
+	public DirectoryStatsService(IUserRepository userRepository) {
+		this.userRepository = userRepository;
+	}
+
+	public DirectoryStats getStats() {
+		return stats;
+	}
+
+	//only the scheduled run counts differences as drift, bulk writes are expected to cause them
+	@EventListener(ApplicationReadyEvent.class)
+	@Scheduled(initialDelayString = "${directory.stats.resync:PT5M}", fixedDelayString = "${directory.stats.resync:PT5M}")
+	public void resync() {
+		reload(true);
+	}
+
+	//any number of stale updates in between cost one recount
+	@Scheduled(initialDelayString = "${directory.stats.refresh:PT1S}", fixedDelayString = "${directory.stats.refresh:PT1S}")
+	public void refreshIfStale() {
+		synchronized(this) {
+			if(!stale) {
+				return;
+			}
+			stale = false;
+		}
+		reload(false);
+	}
+
+	//a rebuild that raced an incremental change runs again, after a few tries the next one catches up
+	private void reload(boolean reportDrift) {
+		for(int attempt = 1; ; attempt++) {
+			long before;
+			synchronized(this) {
+				before = changes;
+			}
+			Map<Key, Long> fresh = new HashMap<>();
+			for(DirectoryCount row : userRepository.countByDepartmentRoleStatus()) {
+				fresh.put(new Key(row.department(), row.role(), row.status()), row.count());
+			}
+			synchronized(this) {
+				if(changes==before || attempt==3) {
+					if(reportDrift && loaded && !fresh.equals(counts)) {
+						log.warn("directory counters drifted from the database, reloaded");
+						Counter counter = drift;
+						if(counter!=null) {
+							counter.increment();
+						}
+					}
+					counts = fresh;
+					loaded = true;
+					stats = totals(counts);
+					return;
+				}
+			}
+		}
+	}
+
+	@EventListener
+	public void onUserChanged(UserChangedEvent event) {
+		switch(event.change()) {
+			case CREATED, DELETED -> move(event.before(), event.after());
+			//without the row as it was there is no counter to take the user from
+			case UPDATED -> {
+				if(event.before()==null) {
+					markStale();
+				}
+				else {
+					move(event.before(), event.after());
+				}
+			}
+			case IMPORTED, BULK_UPDATED -> reload(false);
+			//manager ids are not counted
+			default -> { }
+		}
+	}
+
+	private synchronized void markStale() {
+		stale = true;
+		changes++;
+	}
+
+	private synchronized void move(Snapshot from, Snapshot to) {
+		if(from==null && to==null) {
+			return;
+		}
+		if(from!=null) {
+			counts.computeIfPresent(key(from), (k, n) -> n > 1 ? n - 1 : null);
+		}
+		if(to!=null) {
+			counts.merge(key(to), 1L, Long::sum);
+		}
+		changes++;
+		stats = totals(counts);
+	}
+
+	private static Key key(Snapshot user) {
+		return new Key(user.department(), user.role(), user.status());
+	}
+
+	private static DirectoryStats totals(Map<Key, Long> counts) {
+		long total = 0;
+		Map<String, Long> departments = new TreeMap<>();
+		Map<Role, Long> roles = new EnumMap<>(Role.class);
+		Map<Status, Long> statuses = new EnumMap<>(Status.class);
+		for(Role role : Role.values()) {
+			roles.put(role, 0L);
+		}
+		for(Status status : Status.values()) {
+			statuses.put(status, 0L);
+		}
+		for(Map.Entry<Key, Long> entry : counts.entrySet()) {
+			Key key = entry.getKey();
+			long n = entry.getValue();
+			total += n;
+			if(key.department()!=null) {
+				departments.merge(key.department(), n, Long::sum);
+			}
+			if(key.role()!=null) {
+				roles.merge(key.role(), n, Long::sum);
+			}
+			if(key.status()!=null) {
+				statuses.merge(key.status(), n, Long::sum);
+			}
+		}
+		return new DirectoryStats(total, departments, roles, statuses);
+	}
+
+	@Override
+	public void bindTo(MeterRegistry registry) {
+		drift = Counter.builder("directory.stats.drift")
+				.description("Scheduled resyncs that found the counters out of date")
+				.register(registry);
+	}
+}
@@ -0,0 +1,174 @@
+package com.wellness.service;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.NoSuchElementException;
+
+import com.wellness.data.Role;
+import com.wellness.data.Status;
+import com.wellness.dto.ImportRow;
+
+import tools.jackson.databind.ObjectReader;
+
+/**
+ * Reads import rows one line at a time from a CSV (with header) or NDJSON body.
+ * A bad line becomes a row with an error instead of stopping the import.
+ */
+public class ImportRowReader implements Iterator<ImportRowReader.ParsedRow> {
+
+	public record ParsedRow(int line, ImportRow row, String error) {
+	}
+
+	private final BufferedReader reader;
+	private final ObjectReader json;
+	private Map<String, Integer> columns;
+	private ParsedRow next;
+	private int line;
+
+	private ImportRowReader(InputStream body, ObjectReader json) {
+		this.reader = new BufferedReader(new InputStreamReader(body, StandardCharsets.UTF_8));
+		this.json = json;
+	}
+
+	public static ImportRowReader ndjson(InputStream body, ObjectReader json) {
+		return new ImportRowReader(body, json);
+	}
+
+	public static ImportRowReader csv(InputStream body) {
+		return new ImportRowReader(body, null);
+	}
+
+	@Override
+	public boolean hasNext() {
+		if(next==null) {
+			next = readNext();
+		}
+		return next!=null;
+	}
+
+	@Override
+	public ParsedRow next() {
+		if(!hasNext()) {
+			throw new NoSuchElementException();
+		}
+		ParsedRow row = next;
+		next = null;
+		return row;
+	}
+
+	private ParsedRow readNext() {
+		try {
+			String text;
+			while((text = reader.readLine())!=null) {
+				line++;
+				if(text.isBlank()) {
+					continue;
+				}
+				if(json!=null) {
+					return parseJson(text);
+				}
+				if(columns==null) {
+					columns = header(text);
+					continue;
+				}
+				return parseCsv(text);
+			}
+			return null;
+		}
+		catch(IOException e) {
+			throw new UncheckedIOException(e);
+		}
+	}
+
+	private ParsedRow parseJson(String text) {
+		try {
+			return new ParsedRow(line, json.readValue(text), null);
+		}
+		catch(RuntimeException e) {
+			return new ParsedRow(line, null, "Malformed JSON line");
+		}
+	}
+
+	private static Map<String, Integer> header(String text) {
+		Map<String, Integer> columns = new HashMap<>();
+		List<String> names = split(text);
+		for(int i = 0; i < names.size(); i++) {
+			columns.put(names.get(i).trim().replace("_", "").toLowerCase(Locale.ROOT), i);
+		}
+		return columns;
+	}
+
+	private ParsedRow parseCsv(String text) {
+		List<String> values = split(text);
+		try {
+			ImportRow row = new ImportRow();
+			row.setName(value(values, "name"));
+			row.setEmail(value(values, "email"));
+			row.setPassword(value(values, "password"));
+			row.setDepartment(value(values, "department"));
+			String managerId = value(values, "managerid");
+			row.setManagerId(managerId==null ? null : Integer.valueOf(managerId));
+			String role = value(values, "role");
+			row.setRole(role==null ? null : Role.valueOf(role.toUpperCase(Locale.ROOT)));
+			String status = value(values, "status");
+			row.setStatus(status==null ? null : Status.valueOf(status.toUpperCase(Locale.ROOT)));
+			return new ParsedRow(line, row, null);
+		}
+		catch(IllegalArgumentException e) {
+			return new ParsedRow(line, null, "Invalid value: " + e.getMessage());
+		}
+	}
+
+	private String value(List<String> values, String column) {
+		Integer index = columns.get(column);
+		if(index==null || index >= values.size()) {
+			return null;
+		}
+		String value = values.get(index).trim();
+		return value.isEmpty() ? null : value;
+	}
+
+	//splits one CSV line, double quotes may wrap a field and "" escapes a quote
+	private static List<String> split(String text) {
+		List<String> fields = new ArrayList<>();
+		StringBuilder current = new StringBuilder();
+		boolean quoted = false;
+		for(int i = 0; i < text.length(); i++) {
+			char c = text.charAt(i);
+			if(quoted) {
+				if(c=='"' && i + 1 < text.length() && text.charAt(i + 1)=='"') {
+					current.append('"');
+					i++;
+				}
+				else if(c=='"') {
+					quoted = false;
+				}
+				else {
+					current.append(c);
+				}
+			}
+			else if(c=='"') {
+				quoted = true;
+			}
+			else if(c==',') {
+				fields.add(current.toString());
+				current.setLength(0);
+			}
+			else {
+				current.append(c);
+			}
+		}
+		fields.add(current.toString());
+		return fields;
+	}
+}
@@ -0,0 +1,172 @@
+package com.wellness.service;
+
+import java.nio.charset.StandardCharsets;
+import java.security.GeneralSecurityException;
+import java.security.Key;
+import java.time.Duration;
+import java.util.Date;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.function.LongSupplier;
+
+import javax.crypto.Mac;
+import javax.crypto.SecretKey;
+import javax.crypto.spec.SecretKeySpec;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import io.jsonwebtoken.Claims;
+import io.jsonwebtoken.Jws;
+import io.jsonwebtoken.JwsHeader;
+import io.jsonwebtoken.JwtParser;
+import io.jsonwebtoken.Jwts;
+import io.jsonwebtoken.SignatureAlgorithm;
+import io.jsonwebtoken.SigningKeyResolverAdapter;
+import io.jsonwebtoken.security.Keys;
+import io.jsonwebtoken.security.SignatureException;
+
+/**
+ * Thread-safe JWT signer and parser. Keys and the parser are built once; signing keys
+ * live in a key ring selected by the kid header.
+ * With a rotation period set, the active kid is the current period of the wall clock and its
+ * key is derived from jwt.secret as HMAC-SHA256(secret, kid), so every instance sharing the
+ * secret signs and accepts the same keys, before and after a restart, without a key store.
+ * The ring holds the retained periods up to the current one, plus the next one for instances
+ * whose clock runs slightly ahead. The configured key stays in the ring under the primary kid:
+ * every derived key is only as secret as it, so dropping it would retire nothing.
+ */
+@Component
+public class JwtCodec {
+
+	public static final String PRIMARY_KID = "primary";
+
+	private static final String KID_PREFIX = "p";
+	private static final String HMAC = "HmacSHA256";
+
+	private final JwtParser parser;
+	private final byte[] secret;
+	private final SecretKey primary;
+	private final int retainedKeys;
+	private final long periodMillis;
+	private final LongSupplier clock;
+	private volatile KeyRing keyRing;
+
+	public JwtCodec(String secret, int retainedKeys) {
+		this(secret, retainedKeys, Duration.ZERO, System::currentTimeMillis);
+	}
+
+	//a zero period keeps signing with the configured key
+	@Autowired
+	public JwtCodec(@Value("${jwt.secret}") String secret,
+			@Value("${jwt.keys.retained:3}") int retainedKeys,
+			@Value("${jwt.keys.rotation-period:PT0S}") Duration rotationPeriod) {
+		this(secret, retainedKeys, rotationPeriod, System::currentTimeMillis);
+	}
+
+	public JwtCodec(String secret, int retainedKeys, Duration rotationPeriod, LongSupplier clock) {
+		this.secret = secret.getBytes(StandardCharsets.UTF_8);
+		this.primary = Keys.hmacShaKeyFor(this.secret);
+		this.retainedKeys = Math.max(retainedKeys, 1);
+		this.periodMillis = rotationPeriod.isNegative() ? 0 : rotationPeriod.toMillis();
+		this.clock = clock;
+		this.keyRing = periodMillis==0 ? KeyRing.primary(primary) : derive(currentPeriod());
+		this.parser = Jwts.parserBuilder()
+				.setSigningKeyResolver(new KeyRingResolver())
+				.build();
+	}
+
+	public String encode(String subject, Map<String, Object> claims, Date issuedAt, Date expiration) {
+		KeyRing ring = ring();
+		return Jwts.builder()
+				.setHeaderParam(JwsHeader.KEY_ID, ring.activeKid)
+				.setClaims(claims)
+				.setSubject(subject)
+				.setIssuedAt(issuedAt)
+				.setExpiration(expiration)
+				.signWith(ring.activeKey(), SignatureAlgorithm.HS256)
+				.compact();
+	}
+
+	public Claims decode(String token) {
+		return parse(token).getBody();
+	}
+
+	//the claims with the header, whose kid names the key that signed them
+	public Jws<Claims> parse(String token) {
+		return parser.parseClaimsJws(token);
+	}
+
+	public String activeKid() {
+		return ring().activeKid;
+	}
+
+	//whether tokens signed under the kid are still accepted
+	public boolean hasKey(String kid) {
+		return ring().keys.containsKey(kid==null ? PRIMARY_KID : kid);
+	}
+
+	//the ring moves on lazily with the clock, racing callers derive the same ring
+	private KeyRing ring() {
+		KeyRing ring = keyRing;
+		if(periodMillis==0) {
+			return ring;
+		}
+		long period = currentPeriod();
+		if(ring.period!=period) {
+			ring = derive(period);
+			keyRing = ring;
+		}
+		return ring;
+	}
+
+	private long currentPeriod() {
+		return Math.floorDiv(clock.getAsLong(), periodMillis);
+	}
+
+	private KeyRing derive(long period) {
+		Map<String, SecretKey> keys = new HashMap<>();
+		keys.put(PRIMARY_KID, primary);
+		for(long p = period - retainedKeys + 1; p <= period + 1; p++) {
+			keys.put(KID_PREFIX + p, deriveKey(KID_PREFIX + p));
+		}
+		return new KeyRing(period, KID_PREFIX + period, Map.copyOf(keys));
+	}
+
+	private SecretKey deriveKey(String kid) {
+		try {
+			Mac mac = Mac.getInstance(HMAC);
+			mac.init(new SecretKeySpec(secret, HMAC));
+			return Keys.hmacShaKeyFor(mac.doFinal(("jwt-signing-key:" + kid).getBytes(StandardCharsets.UTF_8)));
+		}
+		catch(GeneralSecurityException e) {
+			throw new IllegalStateException("HmacSHA256 not available", e);
+		}
+	}
+
+	private class KeyRingResolver extends SigningKeyResolverAdapter {
+		@Override
+		public Key resolveSigningKey(JwsHeader header, Claims claims) {
+			//tokens issued before key rotation existed carry no kid
+			String kid = header.getKeyId()==null ? PRIMARY_KID : header.getKeyId();
+			Key key = ring().keys.get(kid);
+			if(key==null) {
+				throw new SignatureException("Unknown signing key");
+			}
+			return key;
+		}
+	}
+
+	//immutable snapshot so readers never see a half rotated ring
+	private record KeyRing(long period, String activeKid, Map<String, SecretKey> keys) {
+
+		static KeyRing primary(SecretKey key) {
+			return new KeyRing(0, PRIMARY_KID, Map.of(PRIMARY_KID, key));
+		}
+
+		SecretKey activeKey() {
+			return keys.get(activeKid);
+		}
+	}
+}
@@ -1,31 +1,33 @@
 package com.wellness.service;
 
-import java.nio.charset.StandardCharsets;
-import java.security.Key;
 import java.util.Date;
 import java.util.HashMap;
 import java.util.Map;
-import java.util.function.Function;
 
 import org.springframework.security.core.userdetails.UserDetails;
 import org.springframework.stereotype.Service;
 
+import com.wellness.data.Role;
+import com.wellness.data.Status;
+import com.wellness.data.UserPrinciple;
+import com.wellness.data.Users;
 import com.wellness.exception.AuthenticationFailedException;
 
 import io.jsonwebtoken.Claims;
-import io.jsonwebtoken.Jwts;
-import io.jsonwebtoken.SignatureAlgorithm;
-import io.jsonwebtoken.security.Keys;
 
 @Service
 public class JwtService {
 	
+	private final JwtCodec codec;
 	
-	private String secretKey;
+	private final VerifiedTokenCache tokenCache;
 	
-	//constructor to initialize secret key
-	public JwtService() {
-		secretKey = "123456789012345678901234567890123456"; 
+	private final TokenVersionRegistry versions;
+	
+	public JwtService(JwtCodec codec, VerifiedTokenCache tokenCache, TokenVersionRegistry versions) {
+		this.codec = codec;
+		this.tokenCache = tokenCache;
+		this.versions = versions;
 	}
 
 	public String generateToken(UserDetails userDetails) {
@@ -33,68 +35,67 @@ public class JwtService {
 		Map<String, Object> claims = new HashMap<>();
 		claims.put("role", userDetails.getAuthorities().iterator().next().getAuthority());
 		
-		//construct jwt step by step
-		return Jwts.builder()
-				//adds payload data
-				.setClaims(claims)
-				
-				// stores logged in user name
-				.setSubject(userDetails.getUsername())
-				
-				// set issued time
-				.setIssuedAt(new Date(System.currentTimeMillis()))
-				
-				// set expiration time for token here its 50 mins
-				.setExpiration(new Date(System.currentTimeMillis()+1000*60*50)) 
-				
-				//to ensure token integrity(the token is not changed)
-				//compact() - creates final jwt string
-				.signWith(Keys.hmacShaKeyFor(secretKey.getBytes(StandardCharsets.UTF_8)), SignatureAlgorithm.HS256)				
-				.compact();
+		// claims needed to rebuild the principal without a database lookup
+		if(userDetails instanceof UserPrinciple principle) {
+			claims.put("uid", principle.getUser().getUserId());
+			claims.put("status", String.valueOf(principle.getUser().getStatus()));
+		}
+		claims.put(TokenVersionRegistry.VERSION_CLAIM, versions.current(userDetails.getUsername()));
+		
+		long now = System.currentTimeMillis();
+		
+		// subject is the logged in user name, token expires after 50 mins
+		// signing key and kid header come from the codec's key ring
+		return codec.encode(userDetails.getUsername(), claims, new Date(now), new Date(now+1000*60*50));
 	}
 
-	private Key getKey() {
-		return Keys.hmacShaKeyFor(
-				secretKey.getBytes(StandardCharsets.UTF_8)
-		);
+	public String extractUserName(String token) {
+		return verify(token).getSubject();
 	}
 
-	public String extractUserName(String token) {
+	// parses and signature-checks the token once, later calls are served from the cache
+	public Claims verify(String token) {
 		try {
-			return extractClaim(token, Claims::getSubject);
+			return tokenCache.get(token, codec::parse, codec::hasKey);
 		}
 		catch(Exception e) {
 			throw new AuthenticationFailedException("Invalid JWT token");
 		}
 	}
 
-	private <T> T extractClaim(String token, Function<Claims, T> claimResolver) { 
-		final Claims claims = extractAllClaims(token); 
-		return claimResolver.apply(claims); 
-	}
-	private Claims extractAllClaims(String token) { 
-		return Jwts.parserBuilder() 
-		.setSigningKey(getKey()) 
-		.build() 
-		.parseClaimsJws(token) 
-		.getBody(); 
-	} 
-
 	public boolean validateToken(String token, UserDetails userDetails) { 
+		return validateToken(verify(token), userDetails);
+	} 
+	
+	public boolean validateToken(Claims claims, UserDetails userDetails) {
 		try {
-			final String userName = extractUserName(token); 
-			return (userName.equals(userDetails.getUsername()) && 
-			!isTokenExpired(token)); 
+			return (claims.getSubject().equals(userDetails.getUsername()) && 
+			!isTokenExpired(claims)); 
+		}
+		catch(Exception e) {
+			throw new AuthenticationFailedException("Invalid JWT token");
+		}
+	}
+	
+	public boolean isRevoked(Claims claims) {
+		return versions.isRevoked(claims);
+	}
+	
+	// builds the principal from the token alone, used by the stateless filter mode
+	public UserPrinciple toPrincipal(Claims claims) {
+		try {
+			Users user = new Users();
+			user.setUserId(claims.get("uid", Number.class).longValue());
+			user.setEmail(claims.getSubject());
+			user.setRole(Role.valueOf(claims.get("role", String.class).substring("ROLE_".length())));
+			user.setStatus(Status.valueOf(claims.get("status", String.class)));
+			return new UserPrinciple(user);
 		}
 		catch(Exception e) {
 			throw new AuthenticationFailedException("Invalid JWT token");
 		}
-		
-	} 
-	private boolean isTokenExpired(String token) { 
-		return extractExpiration(token).before(new Date()); 
 	}
-	private Date extractExpiration(String token) { 
-		return extractClaim(token, Claims::getExpiration); 
+	private boolean isTokenExpired(Claims claims) { 
+		return claims.getExpiration().before(new Date()); 
 	}
 }
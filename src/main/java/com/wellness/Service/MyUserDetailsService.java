@@ -1,28 +1,94 @@
 package com.wellness.service;
 
+import java.time.Duration;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.event.EventListener;
 import org.springframework.security.core.userdetails.UserDetails;
 import org.springframework.security.core.userdetails.UserDetailsService;
 import org.springframework.security.core.userdetails.UsernameNotFoundException;
 import org.springframework.stereotype.Service;
 
+import com.github.benmanes.caffeine.cache.AsyncCache;
+import com.github.benmanes.caffeine.cache.Caffeine;
 import com.wellness.data.UserPrinciple;
 import com.wellness.data.Users;
+import com.wellness.event.UserChangedEvent;
+import com.wellness.event.UserChangedEvent.Change;
 import com.wellness.exception.UserNotFoundException;
 import com.wellness.repository.IUserRepository;
 
-import lombok.RequiredArgsConstructor;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
 
 @Service
-@RequiredArgsConstructor
-public class MyUserDetailsService implements UserDetailsService{
+public class MyUserDetailsService implements UserDetailsService, MeterBinder{
 	private final IUserRepository userRepo;
+	
+	// users by email, concurrent misses for the same email share one findByEmail
+	// the query runs on the caller after the future is in the map, not inside the
+	// map's compute, so a virtual thread blocked on JDBC never holds a bin lock
+	private final AsyncCache<String, Users> cache;
+	
+	public MyUserDetailsService(IUserRepository userRepo,
+			@Value("${users.details-cache.max-size:10000}") long maxSize,
+			@Value("${users.details-cache.ttl:PT5M}") Duration ttl) {
+		this.userRepo = userRepo;
+		this.cache = Caffeine.newBuilder()
+				.maximumSize(maxSize)
+				.expireAfterWrite(ttl)
+				.recordStats()
+				.buildAsync();
+	}
+	
 	@Override
 	public UserDetails loadUserByUsername(String email) throws UsernameNotFoundException {
-		Users user = userRepo.findByEmail(email);
+		Users user = load(Users.normalizeEmail(email));
 		if(user==null) {
 			throw new UserNotFoundException("User not found!");
 		}
 		return new UserPrinciple(user);
 	}
+	
+	//missing users are not cached, a future completed with null is removed from the cache
+	private Users load(String email) {
+		CompletableFuture<Users> loading = new CompletableFuture<>();
+		CompletableFuture<Users> future = cache.get(email, (key, executor) -> loading);
+		if(future==loading) {
+			try {
+				loading.complete(userRepo.findByEmail(email));
+			}
+			catch(RuntimeException e) {
+				loading.completeExceptionally(e);
+			}
+		}
+		try {
+			return future.join();
+		}
+		catch(CompletionException e) {
+			if(e.getCause() instanceof RuntimeException cause) {
+				throw cause;
+			}
+			throw e;
+		}
+	}
+	
+	@EventListener
+	public void onUserChanged(UserChangedEvent event) {
+		if(event.change()==Change.BULK_UPDATED || event.change()==Change.MANAGER_REASSIGNED) {
+			cache.synchronous().invalidateAll();
+		}
+		else if(event.email()!=null) {
+			cache.synchronous().invalidate(event.email());
+		}
+	}
+	
+	@Override
+	public void bindTo(MeterRegistry registry) {
+		CaffeineCacheMetrics.monitor(registry, cache.synchronous(), "users.details");
+	}
 
 }
@@ -0,0 +1,358 @@
+package com.wellness.service;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import com.wellness.data.ManagerLink;
+import com.wellness.dto.MyResponse;
+import com.wellness.dto.OrgNode;
+import com.wellness.dto.SpanOfControl;
+import com.wellness.event.UserChangedEvent;
+import com.wellness.event.UserChangedEvent.Snapshot;
+import com.wellness.exception.UserNotFoundException;
+import com.wellness.repository.IUserRepository;
+
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+
+/**
+ * Reporting tree over Users.managerId, kept in memory as a manager and a reports map.
+ * Built from one two-column query at startup, then updated from UserChangedEvents; a manager
+ * reassignment moves the reports it names, imports mark the tree stale and a scheduled
+ * refresh rebuilds it off the request thread. Tree walks never touch the database,
+ * only the endpoints that return profiles load them, by id.
+ */
+@Service
+public class OrgHierarchyService implements MeterBinder {
+
+	private static final Logger log = LoggerFactory.getLogger(OrgHierarchyService.class);
+
+	private final IUserRepository userRepository;
+
+	private final ReentrantReadWriteLock lock = new ReentrantReadWriteLock();
+
+	//every known user, mapped to its manager or null
+	private Map<Long, Long> managers = new HashMap<>();
+
+	//direct reports by manager id, also for manager ids with no user row
+	private Map<Long, List<Long>> reports = new HashMap<>();
+
+	//incremental changes applied so far, a rebuild that raced one of them runs again
+	private long changes;
+
+	//set by imports, cleared by the refresh that rebuilds for them
+	private volatile boolean stale;
+
+	public OrgHierarchyService(IUserRepository userRepository) {
+		this.userRepository = userRepository;
+	}
+
+	//also catches rows written around the application, e.g. by hand or by another instance
+	@EventListener(ApplicationReadyEvent.class)
+	@Scheduled(initialDelayString = "${org.hierarchy.resync:PT10M}", fixedDelayString = "${org.hierarchy.resync:PT10M}")
+	public void reload() {
+		for(int attempt = 1; ; attempt++) {
+			long before = changesSoFar();
+			List<ManagerLink> links = userRepository.findManagerLinks();
+			Map<Long, Long> newManagers = new HashMap<>(links.size() * 2);
+			Map<Long, List<Long>> newReports = new HashMap<>();
+			for(ManagerLink link : links) {
+				Long manager = link.managerId()==null ? null : link.managerId().longValue();
+				newManagers.put(link.userId(), manager);
+				if(manager!=null) {
+					newReports.computeIfAbsent(manager, m -> new ArrayList<>()).add(link.userId());
+				}
+			}
+			lock.writeLock().lock();
+			try {
+				//after a few tries the next resync picks up what was missed
+				if(changes==before || attempt==3) {
+					managers = newManagers;
+					reports = newReports;
+					log.info("org hierarchy loaded with {} users", newManagers.size());
+					return;
+				}
+			}
+			finally {
+				lock.writeLock().unlock();
+			}
+		}
+	}
+
+	//any number of imports in between cost one rebuild
+	@Scheduled(initialDelayString = "${org.hierarchy.refresh:PT1S}", fixedDelayString = "${org.hierarchy.refresh:PT1S}")
+	public void refreshIfStale() {
+		if(stale) {
+			stale = false;
+			reload();
+		}
+	}
+
+	@EventListener
+	public void onUserChanged(UserChangedEvent event) {
+		switch(event.change()) {
+			case CREATED -> add(event.userId(), managerOf(event.after()));
+			case DELETED -> remove(event.userId());
+			case MANAGER_REASSIGNED -> reassign(managerOf(event.before()), managerOf(event.after()));
+			case IMPORTED -> stale = true;
+			//updates and bulk updates never touch manager ids
+			default -> { }
+		}
+	}
+
+	//refuses a reassignment whose new manager is below the old one, its reports would end up
+	//managing their own manager
+	public void checkReassignment(Integer fromManagerId, Integer toManagerId) {
+		if(fromManagerId==null || toManagerId==null || fromManagerId.equals(toManagerId)) {
+			return;
+		}
+		lock.readLock().lock();
+		try {
+			if(isBelow(toManagerId.longValue(), fromManagerId.longValue())) {
+				throw new IllegalArgumentException("Manager " + toManagerId + " reports to " + fromManagerId
+						+ ", moving its reports there would create a cycle");
+			}
+		}
+		finally {
+			lock.readLock().unlock();
+		}
+	}
+
+	public List<MyResponse> getDirectReports(long userId) {
+		List<Long> ids;
+		lock.readLock().lock();
+		try {
+			requireKnown(userId);
+			ids = new ArrayList<>(reports.getOrDefault(userId, List.of()));
+		}
+		finally {
+			lock.readLock().unlock();
+		}
+		return ids.isEmpty() ? List.of() : userRepository.findResponsesByIds(ids);
+	}
+
+	//from the direct manager up to the top of the tree, empty for users without a manager
+	public List<MyResponse> getReportingChain(long userId) {
+		List<Long> chain = new ArrayList<>();
+		lock.readLock().lock();
+		try {
+			requireKnown(userId);
+			Set<Long> seen = new HashSet<>();
+			seen.add(userId);
+			Long manager = managers.get(userId);
+			//stops at a missing manager row or a cycle in bad data
+			while(manager!=null && seen.add(manager) && managers.containsKey(manager)) {
+				chain.add(manager);
+				manager = managers.get(manager);
+			}
+		}
+		finally {
+			lock.readLock().unlock();
+		}
+		if(chain.isEmpty()) {
+			return List.of();
+		}
+		Map<Long, MyResponse> byId = new LinkedHashMap<>();
+		for(Long id : chain) {
+			byId.put(id, null);
+		}
+		for(MyResponse response : userRepository.findResponsesByIds(chain)) {
+			byId.put(response.getUserId(), response);
+		}
+		List<MyResponse> ordered = new ArrayList<>(chain.size());
+		for(MyResponse response : byId.values()) {
+			if(response!=null) {
+				ordered.add(response);
+			}
+		}
+		return ordered;
+	}
+
+	//everyone below the user, breadth first, down to maxDepth levels
+	public List<OrgNode> getSubtree(long userId, int maxDepth) {
+		if(maxDepth < 1) {
+			throw new IllegalArgumentException("maxDepth must be at least 1");
+		}
+		lock.readLock().lock();
+		try {
+			requireKnown(userId);
+			List<OrgNode> nodes = new ArrayList<>();
+			walk(userId, maxDepth, nodes);
+			return nodes;
+		}
+		finally {
+			lock.readLock().unlock();
+		}
+	}
+
+	public SpanOfControl getSpanOfControl(long userId) {
+		lock.readLock().lock();
+		try {
+			requireKnown(userId);
+			List<OrgNode> below = new ArrayList<>();
+			int levels = walk(userId, Integer.MAX_VALUE, below);
+			return new SpanOfControl(userId, reports.getOrDefault(userId, List.of()).size(), below.size(), levels);
+		}
+		finally {
+			lock.readLock().unlock();
+		}
+	}
+
+	public int size() {
+		lock.readLock().lock();
+		try {
+			return managers.size();
+		}
+		finally {
+			lock.readLock().unlock();
+		}
+	}
+
+	//collects into nodes, returns the depth of the deepest level reached
+	private int walk(long root, int maxDepth, List<OrgNode> nodes) {
+		Set<Long> seen = new HashSet<>();
+		seen.add(root);
+		ArrayDeque<Long> level = new ArrayDeque<>(List.of(root));
+		int depth = 0;
+		while(!level.isEmpty() && depth < maxDepth) {
+			ArrayDeque<Long> next = new ArrayDeque<>();
+			for(Long manager : level) {
+				for(Long report : reports.getOrDefault(manager, List.of())) {
+					if(seen.add(report)) {
+						next.add(report);
+						nodes.add(new OrgNode(report, manager, depth + 1));
+					}
+				}
+			}
+			if(next.isEmpty()) {
+				break;
+			}
+			depth++;
+			level = next;
+		}
+		return depth;
+	}
+
+	//walks up from the user, stops at the top of the tree or a cycle already in the data
+	private boolean isBelow(long userId, long managerId) {
+		Set<Long> seen = new HashSet<>();
+		Long manager = managers.get(userId);
+		while(manager!=null && seen.add(manager)) {
+			if(manager==managerId) {
+				return true;
+			}
+			manager = managers.get(manager);
+		}
+		return false;
+	}
+
+	private static Long managerOf(Snapshot user) {
+		return user==null || user.managerId()==null ? null : user.managerId().longValue();
+	}
+
+	private void add(Long userId, Long managerId) {
+		if(userId==null) {
+			return;
+		}
+		lock.writeLock().lock();
+		try {
+			managers.put(userId, managerId);
+			if(managerId!=null) {
+				reports.computeIfAbsent(managerId, m -> new ArrayList<>()).add(userId);
+			}
+			changes++;
+		}
+		finally {
+			lock.writeLock().unlock();
+		}
+	}
+
+	//the same move the UPDATE made: every report of from now reports to to
+	private void reassign(Long from, Long to) {
+		if(from==null || from.equals(to)) {
+			return;
+		}
+		lock.writeLock().lock();
+		try {
+			List<Long> moved = reports.remove(from);
+			if(moved!=null) {
+				for(Long report : moved) {
+					managers.put(report, to);
+				}
+				if(to!=null) {
+					reports.computeIfAbsent(to, m -> new ArrayList<>()).addAll(moved);
+					if(isBelow(to, to)) {
+						//checkReassignment refuses these, so the rows were written around it
+						log.warn("reassigning the reports of {} to {} left a cycle in the reporting tree", from, to);
+					}
+				}
+			}
+			changes++;
+		}
+		finally {
+			lock.writeLock().unlock();
+		}
+	}
+
+	//the user's own reports keep pointing at it, as their rows still do
+	private void remove(Long userId) {
+		if(userId==null) {
+			return;
+		}
+		lock.writeLock().lock();
+		try {
+			if(managers.containsKey(userId)) {
+				Long managerId = managers.remove(userId);
+				List<Long> siblings = managerId==null ? null : reports.get(managerId);
+				if(siblings!=null) {
+					siblings.remove(userId);
+					if(siblings.isEmpty()) {
+						reports.remove(managerId);
+					}
+				}
+			}
+			changes++;
+		}
+		finally {
+			lock.writeLock().unlock();
+		}
+	}
+
+	private long changesSoFar() {
+		lock.readLock().lock();
+		try {
+			return changes;
+		}
+		finally {
+			lock.readLock().unlock();
+		}
+	}
+
+	private void requireKnown(long userId) {
+		if(!managers.containsKey(userId)) {
+			throw new UserNotFoundException("User not found!");
+		}
+	}
+
+	@Override
+	public void bindTo(MeterRegistry registry) {
+		Gauge.builder("org.hierarchy.users", this, OrgHierarchyService::size)
+				.description("Users in the in-memory reporting tree")
+				.register(registry);
+	}
+}
@@ -0,0 +1,29 @@
+package com.wellness.service;
+
+import org.hibernate.SessionFactory;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+
+import com.wellness.event.UserChangedEvent;
+import com.wellness.event.UserChangedEvent.Change;
+
+import jakarta.persistence.EntityManagerFactory;
+import lombok.RequiredArgsConstructor;
+
+/**
+ * The bulk import inserts through JdbcTemplate, which Hibernate does not see,
+ * so cached query results (including cached misses) are dropped after it.
+ */
+@Component
+@RequiredArgsConstructor
+public class QueryCacheInvalidator {
+
+	private final EntityManagerFactory entityManagerFactory;
+
+	@EventListener
+	public void onUserChanged(UserChangedEvent event) {
+		if(event.change()==Change.IMPORTED) {
+			entityManagerFactory.unwrap(SessionFactory.class).getCache().evictQueryRegions();
+		}
+	}
+}
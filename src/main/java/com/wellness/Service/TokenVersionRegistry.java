@@ -0,0 +1,60 @@
+package com.wellness.service;
+
+import java.util.Date;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+
+import com.wellness.event.UserChangedEvent;
+import com.wellness.event.UserChangedEvent.Change;
+
+import io.jsonwebtoken.Claims;
+
+/**
+ * Per-user token version counters used to revoke stateless tokens.
+ * Only users changed since startup have an entry; everyone else is at version 0.
+ */
+@Component
+public class TokenVersionRegistry {
+
+	public static final String VERSION_CLAIM = "ver";
+
+	private final ConcurrentMap<String, Integer> versions = new ConcurrentHashMap<>();
+
+	//counters are not persisted, so tokens issued before this boot cannot be checked
+	private final long revokedBeforeSeconds = System.currentTimeMillis() / 1000;
+
+	public int current(String email) {
+		return versions.getOrDefault(email, 0);
+	}
+
+	public int bump(String email) {
+		return versions.merge(email, 1, Integer::sum);
+	}
+
+	public boolean isRevoked(Claims claims) {
+		Date issuedAt = claims.getIssuedAt();
+		if(issuedAt==null || issuedAt.getTime() / 1000 < revokedBeforeSeconds) {
+			return true;
+		}
+		Number version = claims.get(VERSION_CLAIM, Number.class);
+		return version==null || version.intValue() < current(claims.getSubject());
+	}
+
+	//only changes to existing users revoke their tokens, a bulk update only those it changed
+	@EventListener
+	public void onUserChanged(UserChangedEvent event) {
+		if(event.change()==Change.BULK_UPDATED) {
+			event.emails().forEach(this::bump);
+			return;
+		}
+		if(event.email()==null) {
+			return;
+		}
+		if(event.change()==Change.UPDATED || event.change()==Change.DELETED) {
+			bump(event.email());
+		}
+	}
+}
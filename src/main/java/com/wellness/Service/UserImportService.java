@@ -0,0 +1,218 @@
+package com.wellness.service;
+
+import java.io.InputStream;
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.dao.DataAccessException;
+import org.springframework.dao.DuplicateKeyException;
+import org.springframework.http.MediaType;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import com.wellness.configurations.BoundedPasswordEncoder;
+import com.wellness.data.Users;
+import com.wellness.dto.ImportReport;
+import com.wellness.dto.ImportRow;
+import com.wellness.dto.ImportRowResult;
+import com.wellness.dto.ImportRowResult.Outcome;
+import com.wellness.event.UserChangedEvent;
+import com.wellness.repository.IUserRepository;
+import com.wellness.service.ImportRowReader.ParsedRow;
+
+import lombok.RequiredArgsConstructor;
+import tools.jackson.databind.ObjectMapper;
+import tools.jackson.databind.ObjectReader;
+
+/**
+ * Bulk user import. The body is read one line at a time and handled in batches:
+ * one duplicate lookup, parallel hashing and one JDBC batch insert per batch.
+ * Row results live for one batch only; the report keeps counts and the first failed rows.
+ */
+@Service
+@RequiredArgsConstructor
+public class UserImportService {
+
+	public static final MediaType TEXT_CSV = MediaType.parseMediaType("text/csv");
+	public static final MediaType NDJSON = MediaType.parseMediaType("application/x-ndjson");
+
+	private static final String INSERT = "insert into users"
+			+ " (name, email, password, department, manager_id, role, status, created_at, version)"
+			+ " values (?, ?, ?, ?, ?, ?, ?, ?, 0)";
+
+	private final IUserRepository userRepository;
+
+	private final BoundedPasswordEncoder encoder;
+
+	private final JdbcTemplate jdbcTemplate;
+
+	private final TransactionTemplate transactionTemplate;
+
+	private final ObjectMapper objectMapper;
+
+	private final ApplicationEventPublisher publisher;
+
+	@Value("${users.import.batch-size:500}")
+	private int defaultBatchSize = 500;
+
+	@Value("${users.import.max-batch-size:5000}")
+	private int maxBatchSize = 5000;
+
+	@Value("${users.import.max-reported-failures:1000}")
+	private int maxReportedFailures = 1000;
+
+	public ImportReport importUsers(InputStream body, MediaType contentType, Integer batchSize) {
+		int size = batchSize==null ? defaultBatchSize : batchSize;
+		if(size < 1 || size > maxBatchSize) {
+			throw new IllegalArgumentException("batchSize must be between 1 and " + maxBatchSize);
+		}
+		ImportRowReader reader = reader(body, contentType);
+		ImportReport report = new ImportReport(maxReportedFailures);
+		//emails already taken earlier in this file
+		Set<String> seen = new HashSet<>();
+		List<ParsedRow> batch = new ArrayList<>(size);
+		while(reader.hasNext()) {
+			batch.add(reader.next());
+			if(batch.size()==size) {
+				importBatch(batch, seen, report);
+				batch.clear();
+			}
+		}
+		if(!batch.isEmpty()) {
+			importBatch(batch, seen, report);
+		}
+		if(report.getCreated() > 0) {
+			publisher.publishEvent(UserChangedEvent.imported());
+		}
+		return report;
+	}
+
+	private ImportRowReader reader(InputStream body, MediaType contentType) {
+		if(contentType!=null && TEXT_CSV.includes(contentType)) {
+			return ImportRowReader.csv(body);
+		}
+		if(contentType!=null && NDJSON.includes(contentType)) {
+			ObjectReader json = objectMapper.readerFor(ImportRow.class);
+			return ImportRowReader.ndjson(body, json);
+		}
+		throw new IllegalArgumentException("Import body must be text/csv or application/x-ndjson");
+	}
+
+	private void importBatch(List<ParsedRow> batch, Set<String> seen, ImportReport report) {
+		ImportRowResult[] results = new ImportRowResult[batch.size()];
+		List<Integer> candidates = new ArrayList<>(batch.size());
+		for(int i = 0; i < batch.size(); i++) {
+			ParsedRow parsed = batch.get(i);
+			String error = parsed.error()!=null ? parsed.error() : validate(parsed.row());
+			if(error!=null) {
+				String email = parsed.row()==null ? null : parsed.row().getEmail();
+				results[i] = new ImportRowResult(parsed.line(), email, Outcome.INVALID, error);
+				continue;
+			}
+			String email = Users.normalizeEmail(parsed.row().getEmail());
+			parsed.row().setEmail(email);
+			if(!seen.add(email)) {
+				results[i] = new ImportRowResult(parsed.line(), email, Outcome.DUPLICATE, "Duplicate email in file");
+				continue;
+			}
+			candidates.add(i);
+		}
+
+		Set<String> existing = candidates.isEmpty() ? Set.of()
+				: new HashSet<>(userRepository.findExistingEmails(
+						candidates.stream().map(i -> batch.get(i).row().getEmail()).toList()));
+		List<Integer> inserts = new ArrayList<>(candidates.size());
+		for(int i : candidates) {
+			ParsedRow parsed = batch.get(i);
+			if(existing.contains(parsed.row().getEmail())) {
+				results[i] = new ImportRowResult(parsed.line(), parsed.row().getEmail(), Outcome.DUPLICATE, "User already exists");
+			}
+			else {
+				inserts.add(i);
+			}
+		}
+
+		if(!inserts.isEmpty()) {
+			List<String> hashes = encoder.encodeAll(inserts.stream().map(i -> batch.get(i).row().getPassword()).toList());
+			Timestamp now = Timestamp.valueOf(LocalDateTime.now());
+			List<Object[]> args = new ArrayList<>(inserts.size());
+			for(int k = 0; k < inserts.size(); k++) {
+				args.add(params(batch.get(inserts.get(k)).row(), hashes.get(k), now));
+			}
+			insert(batch, inserts, args, results);
+		}
+		for(ImportRowResult result : results) {
+			report.add(result);
+		}
+	}
+
+	private void insert(List<ParsedRow> batch, List<Integer> inserts, List<Object[]> args, ImportRowResult[] results) {
+		try {
+			transactionTemplate.executeWithoutResult(status -> jdbcTemplate.batchUpdate(INSERT, args));
+			for(int i : inserts) {
+				results[i] = new ImportRowResult(batch.get(i).line(), batch.get(i).row().getEmail(), Outcome.CREATED, null);
+			}
+		}
+		catch(DataAccessException e) {
+			//the batch was rolled back, usually a concurrent insert of the same email; retry row by row
+			for(int k = 0; k < inserts.size(); k++) {
+				int i = inserts.get(k);
+				ParsedRow parsed = batch.get(i);
+				results[i] = insertOne(parsed, args.get(k));
+			}
+		}
+	}
+
+	private ImportRowResult insertOne(ParsedRow parsed, Object[] args) {
+		String email = parsed.row().getEmail();
+		try {
+			jdbcTemplate.update(INSERT, args);
+			return new ImportRowResult(parsed.line(), email, Outcome.CREATED, null);
+		}
+		catch(DuplicateKeyException e) {
+			return new ImportRowResult(parsed.line(), email, Outcome.DUPLICATE, "User already exists");
+		}
+		catch(DataAccessException e) {
+			return new ImportRowResult(parsed.line(), email, Outcome.FAILED, "Insert failed");
+		}
+	}
+
+	private static Object[] params(ImportRow row, String hash, Timestamp now) {
+		return new Object[] {row.getName(), row.getEmail(), hash, row.getDepartment(), row.getManagerId(),
+				row.getRole().name(), row.getStatus().name(), now};
+	}
+
+	//same rules the entity columns enforce, checked up front so one bad row cannot fail a batch
+	private static String validate(ImportRow row) {
+		if(isBlank(row.getName())) {
+			return "name is required";
+		}
+		if(isBlank(row.getEmail()) || row.getEmail().indexOf('@') < 1) {
+			return "valid email is required";
+		}
+		if(isBlank(row.getPassword())) {
+			return "password is required";
+		}
+		if(isBlank(row.getDepartment())) {
+			return "department is required";
+		}
+		if(row.getRole()==null) {
+			return "role is required";
+		}
+		if(row.getStatus()==null) {
+			return "status is required";
+		}
+		return null;
+	}
+
+	private static boolean isBlank(String value) {
+		return value==null || value.isBlank();
+	}
+}
@@ -0,0 +1,371 @@
+package com.wellness.service;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.PriorityQueue;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+import com.wellness.data.SearchEntry;
+import com.wellness.dto.UserHit;
+import com.wellness.dto.UserSearchResult;
+
+/**
+ * In-memory search over user names and emails.
+ * Exact, prefix and word-prefix matches all start a word, so they are ranked first from the
+ * word-start posting list of the query's first characters. Queries of three or more characters
+ * then fill the remaining places with substring matches from the rarest trigram's posting list;
+ * one and two character queries match the start of a word only.
+ * Documents are append-only: an update marks the old document dead and appends a new one,
+ * and the index compacts itself once half of its documents are dead.
+ * Postings take about 50 ints per user, roughly 100 MB for 500k users.
+ */
+public class UserSearchIndex {
+
+	//match ranks, best first
+	static final int EXACT = 4;
+	static final int PREFIX = 3;
+	static final int WORD_PREFIX = 2;
+	static final int SUBSTRING = 1;
+
+	private static final int MIN_COMPACTION = 1024;
+
+	private final ReentrantReadWriteLock lock = new ReentrantReadWriteLock();
+
+	private Documents docs = new Documents(16);
+
+	//bumped by every add and remove, see replaceAll
+	private long version;
+
+	public void add(long userId, String name, String email) {
+		lock.writeLock().lock();
+		try {
+			docs.remove(userId);
+			docs.add(userId, name, email);
+			version++;
+			compactIfNeeded();
+		}
+		finally {
+			lock.writeLock().unlock();
+		}
+	}
+
+	public void remove(long userId) {
+		lock.writeLock().lock();
+		try {
+			docs.remove(userId);
+			version++;
+			compactIfNeeded();
+		}
+		finally {
+			lock.writeLock().unlock();
+		}
+	}
+
+	public void replaceAll(Collection<SearchEntry> entries) {
+		Documents fresh = Documents.of(entries);
+		lock.writeLock().lock();
+		try {
+			docs = fresh;
+			version++;
+		}
+		finally {
+			lock.writeLock().unlock();
+		}
+	}
+
+	//builds outside the lock, and only swaps when nothing was added or removed meanwhile
+	public boolean replaceAll(Collection<SearchEntry> entries, long expectedVersion) {
+		Documents fresh = Documents.of(entries);
+		lock.writeLock().lock();
+		try {
+			if(version!=expectedVersion) {
+				return false;
+			}
+			docs = fresh;
+			version++;
+			return true;
+		}
+		finally {
+			lock.writeLock().unlock();
+		}
+	}
+
+	public long version() {
+		lock.readLock().lock();
+		try {
+			return version;
+		}
+		finally {
+			lock.readLock().unlock();
+		}
+	}
+
+	public int size() {
+		lock.readLock().lock();
+		try {
+			return docs.byUser.size();
+		}
+		finally {
+			lock.readLock().unlock();
+		}
+	}
+
+	//ranks at most maxMatches matching users and returns the best limit of them,
+	//truncated when the cap was hit while better hits could still have followed
+	public UserSearchResult search(String query, int limit, int maxMatches) {
+		String q = normalize(query);
+		if(q.isEmpty()) {
+			throw new IllegalArgumentException("Search query is required");
+		}
+		lock.readLock().lock();
+		try {
+			return docs.search(q, limit, maxMatches);
+		}
+		finally {
+			lock.readLock().unlock();
+		}
+	}
+
+	private void compactIfNeeded() {
+		if(docs.dead >= MIN_COMPACTION && docs.dead > docs.byUser.size()) {
+			docs = docs.compact();
+		}
+	}
+
+	static String normalize(String text) {
+		return text==null ? "" : text.trim().toLowerCase(Locale.ROOT);
+	}
+
+	private static boolean isSeparator(char c) {
+		return c==' ' || c=='.' || c=='@' || c=='_' || c=='-' || c=='+';
+	}
+
+	private static long gram(char a, char b, char c) {
+		return ((long) a << 32) | ((long) b << 16) | c;
+	}
+
+	//word-start keys carry the prefix length above the 48 bits a trigram uses
+	private static long start(String text, int i, int length) {
+		return length==1 ? (1L << 48) | text.charAt(i) : (2L << 48) | ((long) text.charAt(i) << 16) | text.charAt(i + 1);
+	}
+
+	static int rank(String name, String email, String q) {
+		if(email.equals(q) || name.equals(q)) {
+			return EXACT;
+		}
+		if(name.startsWith(q) || email.startsWith(q)) {
+			return PREFIX;
+		}
+		if(startsWord(name, q) || startsWord(email, q)) {
+			return WORD_PREFIX;
+		}
+		if(q.length() >= 3 && (name.contains(q) || email.contains(q))) {
+			return SUBSTRING;
+		}
+		return 0;
+	}
+
+	private static boolean startsWord(String text, String q) {
+		for(int i = text.indexOf(q); i >= 0; i = text.indexOf(q, i + 1)) {
+			if(i==0 || isSeparator(text.charAt(i - 1))) {
+				return true;
+			}
+		}
+		return false;
+	}
+
+	private static final class Documents {
+
+		long[] userIds;
+		String[] names;
+		String[] nameKeys;
+		String[] emails;
+		final BitSet live = new BitSet();
+		int count;
+		int dead;
+		final Map<Long, Integer> byUser;
+		final Map<Long, Postings> postings = new HashMap<>();
+
+		Documents(int capacity) {
+			userIds = new long[capacity];
+			names = new String[capacity];
+			nameKeys = new String[capacity];
+			emails = new String[capacity];
+			byUser = new HashMap<>(capacity * 2);
+		}
+
+		static Documents of(Collection<SearchEntry> entries) {
+			Documents docs = new Documents(Math.max(16, entries.size()));
+			for(SearchEntry entry : entries) {
+				docs.remove(entry.userId());
+				docs.add(entry.userId(), entry.name(), entry.email());
+			}
+			return docs;
+		}
+
+		Documents compact() {
+			Documents docs = new Documents(Math.max(16, byUser.size()));
+			for(int doc = live.nextSetBit(0); doc >= 0; doc = live.nextSetBit(doc + 1)) {
+				docs.add(userIds[doc], names[doc], emails[doc]);
+			}
+			return docs;
+		}
+
+		void add(long userId, String name, String email) {
+			if(count==userIds.length) {
+				int capacity = count + (count >> 1);
+				userIds = Arrays.copyOf(userIds, capacity);
+				names = Arrays.copyOf(names, capacity);
+				nameKeys = Arrays.copyOf(nameKeys, capacity);
+				emails = Arrays.copyOf(emails, capacity);
+			}
+			int doc = count++;
+			String nameKey = normalize(name);
+			String emailKey = normalize(email);
+			userIds[doc] = userId;
+			names[doc] = name;
+			nameKeys[doc] = nameKey;
+			emails[doc] = emailKey;
+			live.set(doc);
+			byUser.put(userId, doc);
+
+			long[] keys = new long[3 * (nameKey.length() + emailKey.length())];
+			int n = keys(nameKey, keys, 0);
+			n = keys(emailKey, keys, n);
+			Arrays.sort(keys, 0, n);
+			for(int i = 0; i < n; i++) {
+				if(i==0 || keys[i]!=keys[i - 1]) {
+					postings.computeIfAbsent(keys[i], k -> new Postings()).add(doc);
+				}
+			}
+		}
+
+		void remove(long userId) {
+			Integer doc = byUser.remove(userId);
+			if(doc!=null) {
+				live.clear(doc);
+				dead++;
+			}
+		}
+
+		private static int keys(String text, long[] keys, int n) {
+			for(int i = 0; i < text.length(); i++) {
+				if(i + 2 < text.length()) {
+					keys[n++] = gram(text.charAt(i), text.charAt(i + 1), text.charAt(i + 2));
+				}
+				if((i==0 || isSeparator(text.charAt(i - 1))) && !isSeparator(text.charAt(i))) {
+					keys[n++] = start(text, i, 1);
+					if(i + 1 < text.length()) {
+						keys[n++] = start(text, i, 2);
+					}
+				}
+			}
+			return n;
+		}
+
+		UserSearchResult search(String q, int limit, int maxMatches) {
+			Ranking ranking = new Ranking(q, limit, maxMatches);
+			//a query starting with a separator has no word-start list, any rank may hide among the trigrams
+			boolean wordStarts = !isSeparator(q.charAt(0));
+			if(wordStarts) {
+				ranking.collect(postings.get(start(q, 0, Math.min(q.length(), 2))), WORD_PREFIX, EXACT);
+			}
+			//substring hits rank below every word-start hit, so a full list needs none of them
+			if(q.length() >= 3 && ranking.best.size() < limit) {
+				ranking.collect(rarestGram(q), SUBSTRING, wordStarts ? SUBSTRING : EXACT);
+			}
+			return ranking.result();
+		}
+
+		private final class Ranking {
+			final String q;
+			final int limit;
+			final PriorityQueue<int[]> best;
+			int remaining;
+			boolean truncated;
+
+			Ranking(String q, int limit, int maxMatches) {
+				this.q = q;
+				this.limit = limit;
+				this.remaining = maxMatches;
+				//worst of the kept hits at the head
+				Comparator<int[]> better = Comparator.<int[]>comparingInt(hit -> hit[1])
+						.thenComparing(Comparator.<int[]>comparingInt(hit -> names[hit[0]].length()).reversed())
+						.thenComparing(Comparator.<int[]>comparingLong(hit -> userIds[hit[0]]).reversed());
+				this.best = new PriorityQueue<>(limit + 1, better);
+			}
+
+			//ranks the live candidates whose rank lies in [lowest, highest], other ranks belong to another list
+			void collect(Postings candidates, int lowest, int highest) {
+				if(candidates==null || truncated) {
+					return;
+				}
+				for(int i = 0; i < candidates.size; i++) {
+					int doc = candidates.docs[i];
+					if(!live.get(doc)) {
+						continue;
+					}
+					int rank = rank(nameKeys[doc], emails[doc], q);
+					if(rank < lowest || rank > highest) {
+						continue;
+					}
+					if(remaining==0) {
+						truncated = true;
+						return;
+					}
+					remaining--;
+					best.add(new int[] {doc, rank});
+					if(best.size() > limit) {
+						best.poll();
+					}
+				}
+			}
+
+			UserSearchResult result() {
+				List<UserHit> hits = new ArrayList<>(best.size());
+				while(!best.isEmpty()) {
+					int doc = best.poll()[0];
+					hits.add(new UserHit(userIds[doc], names[doc], emails[doc]));
+				}
+				Collections.reverse(hits);
+				return new UserSearchResult(hits, truncated);
+			}
+		}
+
+		//every match contains all of the query's trigrams, so the shortest list has them all
+		private Postings rarestGram(String q) {
+			Postings rarest = null;
+			for(int i = 0; i + 2 < q.length(); i++) {
+				Postings list = postings.get(gram(q.charAt(i), q.charAt(i + 1), q.charAt(i + 2)));
+				if(list==null) {
+					return null;
+				}
+				if(rarest==null || list.size < rarest.size) {
+					rarest = list;
+				}
+			}
+			return rarest;
+		}
+	}
+
+	//document numbers in the order they were added, so always ascending
+	private static final class Postings {
+		int[] docs = new int[4];
+		int size;
+
+		void add(int doc) {
+			if(size==docs.length) {
+				docs = Arrays.copyOf(docs, size * 2);
+			}
+			docs[size++] = doc;
+		}
+	}
+}
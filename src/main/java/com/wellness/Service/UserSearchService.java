@@ -0,0 +1,104 @@
+package com.wellness.service;
+
+import java.util.List;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import com.wellness.data.SearchEntry;
+import com.wellness.dto.UserSearchResult;
+import com.wellness.event.UserChangedEvent;
+import com.wellness.repository.IUserRepository;
+
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+
+/**
+ * User search by name and email over a UserSearchIndex.
+ * Loaded from one three-column query at startup, kept current by UserChangedEvents
+ * and rebuilt after imports and on a schedule. Searches never touch the database.
+ */
+@Service
+public class UserSearchService implements MeterBinder {
+
+	private static final Logger log = LoggerFactory.getLogger(UserSearchService.class);
+
+	private final IUserRepository userRepository;
+
+	private final UserSearchIndex index = new UserSearchIndex();
+
+	@Value("${users.search.max-results:50}")
+	private int maxResults = 50;
+
+	//matches ranked per search, word-start matches first; hitting it reports truncated results
+	@Value("${users.search.max-matches:10000}")
+	private int maxMatches = 10000;
+
+	public UserSearchService(IUserRepository userRepository) {
+		this.userRepository = userRepository;
+	}
+
+	@EventListener(ApplicationReadyEvent.class)
+	@Scheduled(initialDelayString = "${users.search.resync:PT30M}", fixedDelayString = "${users.search.resync:PT30M}")
+	public void reload() {
+		for(int attempt = 1; ; attempt++) {
+			long before = index.version();
+			List<SearchEntry> entries = userRepository.findSearchEntries();
+			//after a few tries the next resync picks up what was missed
+			if(attempt==3) {
+				index.replaceAll(entries);
+			}
+			else if(!index.replaceAll(entries, before)) {
+				continue;
+			}
+			log.info("user search index loaded with {} users", entries.size());
+			return;
+		}
+	}
+
+	@EventListener
+	public void onUserChanged(UserChangedEvent event) {
+		switch(event.change()) {
+			case CREATED, UPDATED -> {
+				if(event.userId()!=null && event.after()!=null) {
+					index.add(event.userId(), event.after().name(), event.email());
+				}
+			}
+			case DELETED -> {
+				if(event.userId()!=null) {
+					index.remove(event.userId());
+				}
+			}
+			case IMPORTED -> reload();
+			//bulk updates and reassignments never change names or emails
+			default -> { }
+		}
+	}
+
+	public UserSearchResult search(String query, int limit) {
+		if(query==null || query.isBlank()) {
+			throw new IllegalArgumentException("Search query is required");
+		}
+		if(limit < 1 || limit > maxResults) {
+			throw new IllegalArgumentException("limit must be between 1 and " + maxResults);
+		}
+		return index.search(query, limit, maxMatches);
+	}
+
+	public int size() {
+		return index.size();
+	}
+
+	@Override
+	public void bindTo(MeterRegistry registry) {
+		Gauge.builder("users.search.documents", this, UserSearchService::size)
+				.description("Users in the in-memory search index")
+				.register(registry);
+	}
+}
@@ -1,15 +1,44 @@
 package com.wellness.service;
 
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.Base64;
+import java.util.HexFormat;
 import java.util.List;
+import java.util.Locale;
 
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.data.domain.Limit;
 import org.springframework.security.crypto.password.PasswordEncoder;
 import org.springframework.stereotype.Service;
 
+import com.wellness.data.BulkChange;
+import com.wellness.data.LoginView;
+import com.wellness.data.Role;
+import com.wellness.data.RowVersion;
+import com.wellness.data.Status;
+import com.wellness.data.UserPrinciple;
+import com.wellness.data.UserState;
 import com.wellness.data.Users;
+import com.wellness.dto.BulkRoleUpdate;
+import com.wellness.dto.BulkStatusUpdate;
+import com.wellness.dto.BulkUpdateResult;
+import com.wellness.dto.ManagerReassignment;
+import com.wellness.dto.MyResponse;
 import com.wellness.dto.UpdateUser;
 import com.wellness.dto.UpdateUserAdmin;
+import com.wellness.dto.UserPage;
+import com.wellness.event.UserChangedEvent;
+import com.wellness.event.UserChangedEvent.Snapshot;
+import com.wellness.exception.AuthenticationFailedException;
+import com.wellness.exception.ServiceBusyException;
 import com.wellness.exception.UserAlreadyExistsException;
 import com.wellness.exception.UserNotFoundException;
+import com.wellness.exception.VersionConflictException;
 import com.wellness.repository.IUserRepository;
 
 import lombok.RequiredArgsConstructor;
@@ -21,22 +50,139 @@ public class UserService {
 	private final IUserRepository userRepository;
 	
 	private final PasswordEncoder encoder;
+	
+	private final ApplicationEventPublisher publisher;
+	
+	private static final String CURSOR_PREFIX = "u1:";
+	
+	private static final String EMAIL_UNIQUE_INDEX = "ux_users_email";
+	
+	@Value("${users.page.max-size:500}")
+	private int maxPageSize = 500;
+	
+	@Value("${users.bulk.max-ids:10000}")
+	private int maxBulkIds = 10000;
+	
+	// a single insert, the unique index on email decides between concurrent registrations
 	public boolean registerUser(Users user) {
-		if(userRepository.existsByEmail(user.getEmail())) {
-			throw new UserAlreadyExistsException("User already exists");
-		}
 		user.setPassword(encoder.encode(user.getPassword()));
-		return userRepository.save(user) != null;
+		Users saved;
+		try {
+			saved = userRepository.save(user);
+		}
+		catch(DataIntegrityViolationException e) {
+			if(isDuplicateEmail(e)) {
+				throw new UserAlreadyExistsException("User already exists");
+			}
+			throw e;
+		}
+		if(saved==null) {
+			return false;
+		}
+		publisher.publishEvent(UserChangedEvent.created(saved.getUserId(), saved.getEmail(), Snapshot.of(saved)));
+		return true;
+	}
+	// MySQL and H2 both name the violated index in the driver message
+	public static boolean isDuplicateEmail(DataIntegrityViolationException e) {
+		String message = e.getMostSpecificCause().getMessage();
+		return message!=null && message.toLowerCase(Locale.ROOT).contains(EMAIL_UNIQUE_INDEX);
+	}
+	// one indexed read feeds both the password check and the token claims
+	public UserPrinciple authenticate(String email, String password) {
+		LoginView login = userRepository.findLoginViewByEmail(Users.normalizeEmail(email));
+		if(login==null) {
+			throw new UserNotFoundException("User not found!");
+		}
+		if(password==null || !encoder.matches(password, login.getPassword())) {
+			throw new AuthenticationFailedException("Login failed!");
+		}
+		rehashIfNeeded(login, password);
+		Users user = new Users();
+		user.setUserId(login.getUserId());
+		user.setEmail(login.getEmail());
+		user.setPassword(login.getPassword());
+		user.setRole(login.getRole());
+		user.setStatus(login.getStatus());
+		return new UserPrinciple(user);
+	}
+	// hashes below the current cost or without the {bcrypt} prefix are replaced after a successful login
+	private void rehashIfNeeded(LoginView login, String password) {
+		if(!encoder.upgradeEncoding(login.getPassword())) {
+			return;
+		}
+		try {
+			userRepository.updatePassword(login.getUserId(), login.getPassword(), encoder.encode(password));
+		}
+		catch(ServiceBusyException e) {
+			//the login already succeeded, the next one retries the rehash
+		}
 	}
-	public Users getProfile(Long i) {
-		Users profile = userRepository.findById(i).orElse(null);
+	public MyResponse getProfile(Long i) {
+		MyResponse profile = userRepository.findResponseById(i);
 		if(profile==null) {
 			throw new UserNotFoundException("User not found");
 		}
-		return userRepository.findById(i).orElse(null);
+		return profile;
 	}
-	public List<Users> getUsers(){
-		return userRepository.findAll();
+	// strong etag of a profile from its row version, the row itself is not loaded
+	public String getProfileEtag(Long id) {
+		Long version = userRepository.findVersionById(id);
+		if(version==null) {
+			throw new UserNotFoundException("User not found");
+		}
+		return id + "-" + version;
+	}
+	public UserPage getUsers(String cursor, int size, String department, Role role, Status status){
+		requirePageSize(size);
+		// one extra row tells whether another page exists
+		List<MyResponse> rows = userRepository.findPageAfter(decodeCursor(cursor), department, role, status, Limit.of(size + 1));
+		if(rows.size() <= size) {
+			return new UserPage(rows, null);
+		}
+		List<MyResponse> page = rows.subList(0, size);
+		return new UserPage(page, encodeCursor(page.get(size - 1).getUserId()));
+	}
+	// strong etag of a page: a digest of the ids and versions of the same rows getUsers reads,
+	// so any write, insert or delete inside the page changes it, whichever instance made it
+	public String getUsersEtag(String cursor, int size, String department, Role role, Status status) {
+		requirePageSize(size);
+		List<RowVersion> rows = userRepository.findVersionsAfter(decodeCursor(cursor), department, role, status, Limit.of(size + 1));
+		ByteBuffer buffer = ByteBuffer.allocate(rows.size() * 2 * Long.BYTES);
+		for(RowVersion row : rows) {
+			buffer.putLong(row.userId()).putLong(row.version());
+		}
+		try {
+			byte[] digest = MessageDigest.getInstance("SHA-256").digest(buffer.array());
+			return "p-" + HexFormat.of().formatHex(digest, 0, 16);
+		}
+		catch(NoSuchAlgorithmException e) {
+			throw new IllegalStateException(e);
+		}
+	}
+	private void requirePageSize(int size) {
+		if(size < 1 || size > maxPageSize) {
+			throw new IllegalArgumentException("Page size must be between 1 and " + maxPageSize);
+		}
+	}
+	// opaque continuation token, carries the last user id of the previous page
+	public static String encodeCursor(long lastId) {
+		return Base64.getUrlEncoder().withoutPadding()
+				.encodeToString((CURSOR_PREFIX + lastId).getBytes(StandardCharsets.UTF_8));
+	}
+	public static long decodeCursor(String cursor) {
+		if(cursor==null || cursor.isBlank()) {
+			return 0L;
+		}
+		try {
+			String decoded = new String(Base64.getUrlDecoder().decode(cursor), StandardCharsets.UTF_8);
+			if(!decoded.startsWith(CURSOR_PREFIX)) {
+				throw new IllegalArgumentException("Invalid cursor");
+			}
+			return Long.parseLong(decoded.substring(CURSOR_PREFIX.length()));
+		}
+		catch(IllegalArgumentException e) {
+			throw new IllegalArgumentException("Invalid cursor");
+		}
 	}
 	public String deleteUser(long id) {
 		Users user = userRepository.findById(id).orElse(null);
@@ -44,29 +190,68 @@ public class UserService {
 			return "User not found!";
 		}
 		userRepository.deleteById(id);
+		publisher.publishEvent(UserChangedEvent.deleted(id, user.getEmail(), Snapshot.of(user)));
 		return "Profile deleted successfully!";
 	}
 	public boolean exists(String email) {
-		return userRepository.existsByEmail(email);
+		return userRepository.existsByEmail(Users.normalizeEmail(email));
 	}
+	// compare-and-set on the row version instead of load, modify and save: one UPDATE by email
+	// that only applies while the version is the one the client read, nothing is loaded first.
+	// clients that send no version update whatever is current, as before versions existed
 	public boolean updateUser(UpdateUser user) {
-		Users myuser = userRepository.findByEmail(user.getEmail());
-		if(myuser==null) {
-			throw new UserNotFoundException("User not found");
-		}
-		myuser.setName(user.getName());
-		myuser.setDepartment(user.getDepartment());
-		myuser.setPassword(encoder.encode(user.getPassword()));
-		return userRepository.save(myuser) != null;
+		String email = Users.normalizeEmail(user.getEmail());
+		String hash = encoder.encode(user.getPassword());
+		UserState after = userRepository.updateProfile(email, user.getVersion(), user.getName(), user.getDepartment(), hash);
+		return publishUpdate(after, email);
 	}
 	public boolean updateUserAdmin(UpdateUserAdmin user) {
-		Users myuser = userRepository.findByEmail(user.getEmail());
-		if(myuser==null) {
-			throw new UserNotFoundException("User not found");
+		String email = Users.normalizeEmail(user.getEmail());
+		UserState after = userRepository.updateAdmin(email, user.getVersion(), user.getDepartment(), user.getRole(), user.getStatus());
+		return publishUpdate(after, email);
+	}
+	// the row before the update was never read, so the event carries the new state only
+	private boolean publishUpdate(UserState after, String email) {
+		if(after==null) {
+			throw updateFailed(userRepository.existsByEmail(email));
+		}
+		publisher.publishEvent(UserChangedEvent.updated(after.userId(), email, null, Snapshot.of(after)));
+		return true;
+	}
+	// only asked once the update matched no row: a missing user, or a version that moved on
+	public static RuntimeException updateFailed(boolean exists) {
+		return exists ? new VersionConflictException("User was changed by someone else, reload and retry")
+				: new UserNotFoundException("User not found");
+	}
+	// bulk admin updates run as one UPDATE each and drop every cached user afterwards
+	public BulkUpdateResult updateStatusByDepartment(BulkStatusUpdate update) {
+		if(update.getDepartment()==null || update.getDepartment().isBlank() || update.getStatus()==null) {
+			throw new IllegalArgumentException("department and status are required");
+		}
+		BulkChange change = userRepository.changeStatusByDepartment(update.getDepartment(), update.getStatus());
+		return publishBulk(change.affected(), UserChangedEvent.bulkUpdated(change.emails()));
+	}
+	public BulkUpdateResult updateRoleByIds(BulkRoleUpdate update) {
+		if(update.getUserIds()==null || update.getUserIds().isEmpty() || update.getRole()==null) {
+			throw new IllegalArgumentException("userIds and role are required");
+		}
+		if(update.getUserIds().size() > maxBulkIds) {
+			throw new IllegalArgumentException("At most " + maxBulkIds + " userIds per request");
+		}
+		BulkChange change = userRepository.changeRoleByIds(update.getUserIds(), update.getRole());
+		return publishBulk(change.affected(), UserChangedEvent.bulkUpdated(change.emails()));
+	}
+	public BulkUpdateResult reassignManager(ManagerReassignment reassignment) {
+		if(reassignment.getFromManagerId()==null) {
+			throw new IllegalArgumentException("fromManagerId is required");
+		}
+		int affected = userRepository.reassignManager(reassignment.getFromManagerId(), reassignment.getToManagerId());
+		return publishBulk(affected, UserChangedEvent.managerReassigned(reassignment.getFromManagerId(), reassignment.getToManagerId()));
+	}
+	private BulkUpdateResult publishBulk(int affected, UserChangedEvent event) {
+		if(affected > 0) {
+			publisher.publishEvent(event);
 		}
-		myuser.setStatus(user.getStatus());
-		myuser.setDepartment(user.getDepartment());
-		myuser.setRole(user.getRole());
-		return userRepository.save(myuser) != null;
+		return new BulkUpdateResult(affected);
 	}
 }
@@ -0,0 +1,100 @@
+package com.wellness.service;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.Base64;
+import java.util.Date;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Function;
+import java.util.function.Predicate;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.Expiry;
+
+import io.jsonwebtoken.Claims;
+import io.jsonwebtoken.Jws;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+
+/**
+ * Bounded cache of tokens whose signature has already been checked.
+ * Entries are keyed by a SHA-256 digest of the token and live until the exp claim, but a hit
+ * only counts while the key that signed the token is still in the key ring.
+ */
+@Component
+public class VerifiedTokenCache implements MeterBinder {
+
+	private final Cache<String, Jws<Claims>> cache;
+
+	public VerifiedTokenCache(@Value("${jwt.cache.max-size:10000}") long maxSize) {
+		this.cache = Caffeine.newBuilder()
+				.maximumSize(maxSize)
+				.expireAfter(new ClaimsExpiry())
+				.recordStats()
+				.build();
+	}
+
+	//returns the cached claims or runs the verifier once and caches its result. a hit whose kid
+	//has left the ring is dropped and verified again, which then fails like an uncached token
+	public Claims get(String token, Function<String, Jws<Claims>> verifier, Predicate<String> hasKey) {
+		String digest = digest(token);
+		Jws<Claims> verified = cache.get(digest, key -> verifier.apply(token));
+		if(!hasKey.test(verified.getHeader().getKeyId())) {
+			cache.invalidate(digest);
+			verified = verifier.apply(token);
+		}
+		return verified.getBody();
+	}
+
+	public void invalidateAll() {
+		cache.invalidateAll();
+	}
+
+	public long size() {
+		return cache.estimatedSize();
+	}
+
+	@Override
+	public void bindTo(MeterRegistry registry) {
+		CaffeineCacheMetrics.monitor(registry, cache, "jwt.verified-tokens");
+	}
+
+	private static String digest(String token) {
+		try {
+			byte[] hash = MessageDigest.getInstance("SHA-256").digest(token.getBytes(StandardCharsets.UTF_8));
+			return Base64.getEncoder().encodeToString(hash);
+		}
+		catch(NoSuchAlgorithmException e) {
+			throw new IllegalStateException("SHA-256 not available", e);
+		}
+	}
+
+	//keeps each entry only until the token itself expires
+	private static class ClaimsExpiry implements Expiry<String, Jws<Claims>> {
+		@Override
+		public long expireAfterCreate(String key, Jws<Claims> token, long currentTime) {
+			Date expiration = token.getBody().getExpiration();
+			if(expiration==null) {
+				return 0;
+			}
+			long millis = expiration.getTime() - System.currentTimeMillis();
+			return TimeUnit.MILLISECONDS.toNanos(Math.max(millis, 0));
+		}
+
+		@Override
+		public long expireAfterUpdate(String key, Jws<Claims> token, long currentTime, long currentDuration) {
+			return currentDuration;
+		}
+
+		@Override
+		public long expireAfterRead(String key, Jws<Claims> token, long currentTime, long currentDuration) {
+			return currentDuration;
+		}
+	}
+}
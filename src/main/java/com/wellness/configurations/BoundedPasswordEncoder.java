@@ -0,0 +1,66 @@
+package com.wellness.configurations;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.function.Supplier;
+
+import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
+import org.springframework.security.crypto.password.DelegatingPasswordEncoder;
+import org.springframework.security.crypto.password.PasswordEncoder;
+
+import lombok.RequiredArgsConstructor;
+
+/**
+ * Runs encode and matches of the delegate on the bounded hashing pool.
+ */
+@RequiredArgsConstructor
+public class BoundedPasswordEncoder implements PasswordEncoder {
+
+	private final PasswordEncoder delegate;
+	private final PasswordHashingExecutor executor;
+
+	//bcrypt cost is calibrated to the latency budget unless fixedCost is set
+	//hashes are stored as {bcrypt}..., older unprefixed hashes still match and get rehashed on login
+	public static BoundedPasswordEncoder bcrypt(PasswordHashingExecutor executor, int fixedCost,
+			Duration budget, int minCost, int maxCost) {
+		int cost = fixedCost > 0 ? fixedCost : PasswordCostCalibrator.calibrate(budget, minCost, maxCost);
+		DelegatingPasswordEncoder delegating = new DelegatingPasswordEncoder("bcrypt",
+				Map.of("bcrypt", new CostAwareBCryptPasswordEncoder(cost)));
+		delegating.setDefaultPasswordEncoderForMatches(new BCryptPasswordEncoder());
+		return new BoundedPasswordEncoder(delegating, executor);
+	}
+
+	@Override
+	public String encode(CharSequence rawPassword) {
+		return executor.run(() -> delegate.encode(rawPassword));
+	}
+
+	//hashes a batch in parallel across the pool threads, results keep the input order
+	public List<String> encodeAll(List<? extends CharSequence> rawPasswords) {
+		List<Supplier<String>> tasks = rawPasswords.stream()
+				.<Supplier<String>>map(raw -> () -> delegate.encode(raw))
+				.toList();
+		return executor.runAll(tasks);
+	}
+
+	@Override
+	public boolean matches(CharSequence rawPassword, String encodedPassword) {
+		return executor.run(() -> delegate.matches(rawPassword, encodedPassword));
+	}
+
+	//non-blocking variants, the future completes on a hashing pool thread
+	public CompletableFuture<String> encodeAsync(CharSequence rawPassword) {
+		return executor.submitAsync(() -> delegate.encode(rawPassword));
+	}
+
+	public CompletableFuture<Boolean> matchesAsync(CharSequence rawPassword, String encodedPassword) {
+		return executor.submitAsync(() -> delegate.matches(rawPassword, encodedPassword));
+	}
+
+	@Override
+	public boolean upgradeEncoding(String encodedPassword) {
+		return delegate.upgradeEncoding(encodedPassword);
+	}
+}
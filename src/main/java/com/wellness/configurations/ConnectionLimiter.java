@@ -0,0 +1,146 @@
+package com.wellness.configurations;
+
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Proxy;
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.sql.SQLTransientConnectionException;
+import java.time.Duration;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import javax.sql.DataSource;
+
+import org.springframework.beans.factory.config.BeanPostProcessor;
+import org.springframework.core.Ordered;
+import org.springframework.jdbc.datasource.DelegatingDataSource;
+
+import com.zaxxer.hikari.HikariDataSource;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+
+/**
+ * Puts a fair semaphore in front of the DataSource, one permit per pooled connection.
+ * With virtual threads there is no request thread limit, so thousands of callers can
+ * reach the pool at once; they wait here for at most maxWait and are then turned away
+ * with a SQLTransientConnectionException, which the exception handler maps to 503.
+ */
+public class ConnectionLimiter implements BeanPostProcessor, Ordered, MeterBinder {
+
+	private final int configuredPermits;
+	private final Duration maxWait;
+	private volatile LimitedDataSource limited;
+	private volatile Counter rejected;
+
+	//0 permits means one per connection in the Hikari pool
+	public ConnectionLimiter(int permits, Duration maxWait) {
+		this.configuredPermits = permits;
+		this.maxWait = maxWait;
+	}
+
+	//runs before the statement counting proxy so it still sees the Hikari pool
+	@Override
+	public int getOrder() {
+		return Ordered.HIGHEST_PRECEDENCE;
+	}
+
+	@Override
+	public Object postProcessAfterInitialization(Object bean, String beanName) {
+		if(bean instanceof HikariDataSource hikari) {
+			int permits = configuredPermits > 0 ? configuredPermits : hikari.getMaximumPoolSize();
+			limited = new LimitedDataSource(hikari, permits);
+			return limited;
+		}
+		return bean;
+	}
+
+	@Override
+	public void bindTo(MeterRegistry registry) {
+		rejected = Counter.builder("db.concurrency.rejected")
+				.description("Connection requests that waited longer than the limit")
+				.register(registry);
+		Gauge.builder("db.concurrency.waiting", this, l -> l.limited==null ? 0 : l.limited.permits.getQueueLength())
+				.description("Callers waiting for a connection permit")
+				.register(registry);
+		Gauge.builder("db.concurrency.available", this, l -> l.limited==null ? 0 : l.limited.permits.availablePermits())
+				.register(registry);
+	}
+
+	private final class LimitedDataSource extends DelegatingDataSource {
+
+		private final Semaphore permits;
+
+		LimitedDataSource(DataSource target, int permits) {
+			super(target);
+			this.permits = new Semaphore(permits, true);
+		}
+
+		@Override
+		public Connection getConnection() throws SQLException {
+			acquire();
+			return limit(() -> obtainTargetDataSource().getConnection());
+		}
+
+		@Override
+		public Connection getConnection(String username, String password) throws SQLException {
+			acquire();
+			return limit(() -> obtainTargetDataSource().getConnection(username, password));
+		}
+
+		private void acquire() throws SQLException {
+			try {
+				if(permits.tryAcquire(maxWait.toNanos(), TimeUnit.NANOSECONDS)) {
+					return;
+				}
+			}
+			catch(InterruptedException e) {
+				Thread.currentThread().interrupt();
+			}
+			Counter counter = rejected;
+			if(counter!=null) {
+				counter.increment();
+			}
+			throw new SQLTransientConnectionException("No database connection available within " + maxWait.toMillis() + " ms");
+		}
+
+		//the permit goes back once, when the connection is closed or could not be opened
+		private Connection limit(ConnectionSupplier supplier) throws SQLException {
+			Connection connection;
+			try {
+				connection = supplier.get();
+			}
+			catch(SQLException | RuntimeException e) {
+				permits.release();
+				throw e;
+			}
+			AtomicBoolean closed = new AtomicBoolean();
+			return (Connection) Proxy.newProxyInstance(Connection.class.getClassLoader(), new Class<?>[] {Connection.class},
+					(proxy, method, args) -> {
+						if(method.getName().equals("close") && closed.compareAndSet(false, true)) {
+							try {
+								connection.close();
+							}
+							finally {
+								permits.release();
+							}
+							return null;
+						}
+						try {
+							return method.invoke(connection, args);
+						}
+						catch(InvocationTargetException e) {
+							throw e.getCause();
+						}
+					});
+		}
+	}
+
+	@FunctionalInterface
+	private interface ConnectionSupplier {
+		Connection get() throws SQLException;
+	}
+}
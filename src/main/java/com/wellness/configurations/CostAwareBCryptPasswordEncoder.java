@@ -0,0 +1,27 @@
+package com.wellness.configurations;
+
+import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
+
+/**
+ * BCrypt encoder that asks for a rehash when the stored cost is below its own.
+ * Never downwards: the cost is calibrated per start and per node, so a slower start or a
+ * slower node would otherwise rewrite every hash it verifies.
+ */
+public class CostAwareBCryptPasswordEncoder extends BCryptPasswordEncoder {
+
+	private final int strength;
+
+	public CostAwareBCryptPasswordEncoder(int strength) {
+		super(strength);
+		this.strength = strength;
+	}
+
+	public int getStrength() {
+		return strength;
+	}
+
+	@Override
+	protected boolean upgradeEncodingNonNull(String encodedPassword) {
+		return PasswordCostCalibrator.costOf(encodedPassword) < strength;
+	}
+}
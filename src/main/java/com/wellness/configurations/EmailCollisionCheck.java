@@ -0,0 +1,71 @@
+package com.wellness.configurations;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.List;
+
+import org.flywaydb.core.api.FlywayException;
+import org.flywaydb.core.api.MigrationInfo;
+import org.flywaydb.core.api.MigrationVersion;
+import org.flywaydb.core.api.callback.BaseCallback;
+import org.flywaydb.core.api.callback.Context;
+import org.flywaydb.core.api.callback.Event;
+import org.springframework.stereotype.Component;
+
+/**
+ * Runs before V2, which lower-cases every email and then puts a unique index on the column.
+ * Rows whose emails differ only by case or surrounding spaces would make the index fail halfway
+ * through the script, so they are listed and the migration is stopped before it starts.
+ * Nothing is merged automatically: which of two accounts to keep is not the database's call.
+ */
+@Component
+public class EmailCollisionCheck extends BaseCallback {
+
+	private static final MigrationVersion EMAIL_INDEX = MigrationVersion.fromVersion("2");
+
+	//enough to act on, the rest is one query away
+	private static final int MAX_LISTED = 50;
+
+	private static final String COLLISIONS = "SELECT user_id, email FROM users WHERE LOWER(TRIM(email)) IN"
+			+ " (SELECT LOWER(TRIM(email)) FROM users GROUP BY LOWER(TRIM(email)) HAVING COUNT(*) > 1)"
+			+ " ORDER BY LOWER(TRIM(email)), user_id";
+
+	@Override
+	public boolean supports(Event event, Context context) {
+		//flyway also asks without a context, when it only wants to know the events
+		if(event!=Event.BEFORE_EACH_MIGRATE || context==null) {
+			return event==Event.BEFORE_EACH_MIGRATE;
+		}
+		MigrationInfo migration = context.getMigrationInfo();
+		return migration!=null && EMAIL_INDEX.equals(migration.getVersion());
+	}
+
+	@Override
+	public void handle(Event event, Context context) {
+		List<String> rows = collisions(context.getConnection());
+		if(!rows.isEmpty()) {
+			throw new FlywayException("Cannot migrate to version 2: the unique index on users.email would reject emails"
+					+ " that differ only by case or surrounding spaces. Merge or rename these users, then restart"
+					+ " (user_id email, at most " + MAX_LISTED + " listed): " + String.join(", ", rows));
+		}
+	}
+
+	private static List<String> collisions(Connection connection) {
+		List<String> rows = new ArrayList<>();
+		try(PreparedStatement statement = connection.prepareStatement(COLLISIONS)) {
+			statement.setMaxRows(MAX_LISTED);
+			try(ResultSet result = statement.executeQuery()) {
+				while(result.next()) {
+					rows.add(result.getLong(1) + " " + result.getString(2));
+				}
+			}
+		}
+		catch(SQLException e) {
+			throw new FlywayException("Could not check users.email for case-insensitive duplicates", e);
+		}
+		return rows;
+	}
+}
@@ -2,6 +2,7 @@ package com.wellness.configurations;
 
 import java.io.IOException;
 
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.context.ApplicationContext;
 import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
 import org.springframework.security.core.context.SecurityContextHolder;
@@ -14,6 +15,8 @@ import com.wellness.exception.AuthenticationFailedException;
 import com.wellness.service.JwtService;
 import com.wellness.service.MyUserDetailsService;
 
+import io.jsonwebtoken.Claims;
+
 import jakarta.servlet.FilterChain;
 import jakarta.servlet.ServletException;
 import jakarta.servlet.http.HttpServletRequest;
@@ -25,6 +28,11 @@ import lombok.RequiredArgsConstructor;
 public class JwtFilters extends OncePerRequestFilter{
 	private final JwtService jwtService;
 	private final ApplicationContext context;
+	
+	// when true the principal comes from the token claims instead of the database
+	@Value("${jwt.stateless:false}")
+	private boolean stateless;
+	
 	@Override
 	protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain filterChain)
 			throws ServletException, IOException {
@@ -38,15 +46,24 @@ public class JwtFilters extends OncePerRequestFilter{
 			
 			String authHeader = request.getHeader("Authorization");
 			String username = null;
-			String token = null;
+			Claims claims = null;
 			
 			if(authHeader!=null && authHeader.startsWith("Bearer ")) {
-				token = authHeader.substring(7);
-				username = jwtService.extractUserName(token);
+				claims = jwtService.verify(authHeader.substring(7));
+				username = claims.getSubject();
 			}
 			if(username!=null && SecurityContextHolder.getContext().getAuthentication()==null) {
-				UserDetails userDetails = context.getBean(MyUserDetailsService.class).loadUserByUsername(username);
-				if(jwtService.validateToken(token, userDetails)) {
+				UserDetails userDetails;
+				if(stateless) {
+					if(jwtService.isRevoked(claims)) {
+						throw new AuthenticationFailedException("Token has been revoked");
+					}
+					userDetails = jwtService.toPrincipal(claims);
+				}
+				else {
+					userDetails = context.getBean(MyUserDetailsService.class).loadUserByUsername(username);
+				}
+				if(jwtService.validateToken(claims, userDetails)) {
 					UsernamePasswordAuthenticationToken authToken = new UsernamePasswordAuthenticationToken(userDetails, null, userDetails.getAuthorities());
 					authToken.setDetails(new WebAuthenticationDetailsSource().buildDetails(request));
 					SecurityContextHolder.getContext().setAuthentication(authToken);
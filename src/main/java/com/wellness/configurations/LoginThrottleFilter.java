@@ -0,0 +1,243 @@
+package com.wellness.configurations;
+
+import java.io.BufferedReader;
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.nio.charset.Charset;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.concurrent.TimeUnit;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.Ordered;
+import org.springframework.core.annotation.Order;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.stereotype.Component;
+import org.springframework.web.filter.OncePerRequestFilter;
+
+import com.wellness.data.Users;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ReadListener;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.ServletInputStream;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletRequestWrapper;
+import jakarta.servlet.http.HttpServletResponse;
+import tools.jackson.core.JacksonException;
+import tools.jackson.databind.JsonNode;
+import tools.jackson.databind.ObjectMapper;
+
+/**
+ * Rate limits POST /login by client address and by the email being tried, ahead of every
+ * other filter, so a rejected attempt costs no query and no bcrypt. The body is read once
+ * here and handed on in a wrapper that can be read again.
+ * The client address is the connection's; behind a proxy, server.forward-headers-strategy
+ * has to be set for it to be the caller's. Many staff can share one address behind an office
+ * NAT, so the address limit is only a flood guard sized for a morning rush; guessing against
+ * one account is held back by the much tighter email limit.
+ * Each table holds at most max-keys buckets. Addresses beyond it are left to the email limit,
+ * emails beyond it share one overflow bucket, so spraying keys never lifts both limits.
+ * login.throttle.full and login.throttle.untracked are the meters to alert on.
+ */
+@Component
+@Order(Ordered.HIGHEST_PRECEDENCE)
+public class LoginThrottleFilter extends OncePerRequestFilter implements MeterBinder {
+
+	//far above any real login body
+	private static final int MAX_BODY = 8 * 1024;
+
+	private final ObjectMapper objectMapper;
+	private final boolean enabled;
+	private final TokenBucketLimiter byAddress;
+	private final TokenBucketLimiter byEmail;
+
+	private volatile Counter addressRejected;
+	private volatile Counter emailRejected;
+
+	@Autowired
+	public LoginThrottleFilter(ObjectMapper objectMapper,
+			@Value("${login.throttle.enabled:true}") boolean enabled,
+			@Value("${login.throttle.address.capacity:200}") int addressCapacity,
+			@Value("${login.throttle.address.refill:PT0.5S}") Duration addressRefill,
+			@Value("${login.throttle.email.capacity:5}") int emailCapacity,
+			@Value("${login.throttle.email.refill:PT12S}") Duration emailRefill,
+			@Value("${login.throttle.email.overflow.capacity:50}") int emailOverflowCapacity,
+			@Value("${login.throttle.email.overflow.refill:PT0.2S}") Duration emailOverflowRefill,
+			@Value("${login.throttle.max-keys:100000}") int maxKeys) {
+		this(objectMapper, enabled, new TokenBucketLimiter(addressCapacity, addressRefill, maxKeys),
+				new TokenBucketLimiter(emailCapacity, emailRefill, maxKeys, emailOverflowCapacity, emailOverflowRefill,
+						System::nanoTime));
+	}
+
+	public LoginThrottleFilter(ObjectMapper objectMapper, boolean enabled, TokenBucketLimiter byAddress,
+			TokenBucketLimiter byEmail) {
+		this.objectMapper = objectMapper;
+		this.enabled = enabled;
+		this.byAddress = byAddress;
+		this.byEmail = byEmail;
+	}
+
+	@Override
+	protected boolean shouldNotFilter(HttpServletRequest request) {
+		return !enabled || !"POST".equals(request.getMethod()) || !"/login".equals(request.getServletPath());
+	}
+
+	@Override
+	protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain filterChain)
+			throws ServletException, IOException {
+		//the address is checked first so a flood from one client never reads its bodies
+		long wait = byAddress.tryAcquire(request.getRemoteAddr());
+		if(wait > 0) {
+			reject(response, wait, addressRejected);
+			return;
+		}
+		byte[] body = request.getInputStream().readNBytes(MAX_BODY + 1);
+		if(body.length > MAX_BODY) {
+			response.setStatus(HttpStatus.CONTENT_TOO_LARGE.value());
+			return;
+		}
+		String email = emailOf(body);
+		if(email!=null) {
+			wait = byEmail.tryAcquire(email);
+			if(wait > 0) {
+				reject(response, wait, emailRejected);
+				return;
+			}
+		}
+		filterChain.doFilter(new CachedBodyRequest(request, body), response);
+	}
+
+	//malformed bodies are left to the controller to turn away
+	private String emailOf(byte[] body) {
+		try {
+			JsonNode email = objectMapper.readTree(body).get("email");
+			return email==null || !email.isString() ? null : Users.normalizeEmail(email.asString());
+		}
+		catch(JacksonException e) {
+			return null;
+		}
+	}
+
+	private static void reject(HttpServletResponse response, long waitNanos, Counter counter) throws IOException {
+		if(counter!=null) {
+			counter.increment();
+		}
+		response.setStatus(HttpStatus.TOO_MANY_REQUESTS.value());
+		response.setHeader(HttpHeaders.RETRY_AFTER, Long.toString(Math.max(1, TimeUnit.NANOSECONDS.toSeconds(waitNanos + 999_999_999L))));
+		response.setContentType(MediaType.TEXT_PLAIN_VALUE);
+		response.getWriter().write("Too many login attempts, please retry later");
+	}
+
+	@Override
+	public void bindTo(MeterRegistry registry) {
+		addressRejected = Counter.builder("login.throttle.rejected")
+				.description("Login attempts turned away before authentication")
+				.tag("key", "address")
+				.register(registry);
+		emailRejected = Counter.builder("login.throttle.rejected")
+				.description("Login attempts turned away before authentication")
+				.tag("key", "email")
+				.register(registry);
+		Gauge.builder("login.throttle.buckets", byAddress, TokenBucketLimiter::size)
+				.description("Login rate limit buckets in memory")
+				.tag("key", "address")
+				.register(registry);
+		Gauge.builder("login.throttle.buckets", byEmail, TokenBucketLimiter::size)
+				.description("Login rate limit buckets in memory")
+				.tag("key", "email")
+				.register(registry);
+		FunctionCounter.builder("login.throttle.untracked", byAddress, TokenBucketLimiter::untracked)
+				.description("Login attempts that found the bucket table full")
+				.tag("key", "address")
+				.register(registry);
+		FunctionCounter.builder("login.throttle.untracked", byEmail, TokenBucketLimiter::untracked)
+				.description("Login attempts that found the bucket table full")
+				.tag("key", "email")
+				.register(registry);
+		Gauge.builder("login.throttle.full", byAddress, l -> l.isFull() ? 1 : 0)
+				.description("1 while the bucket table is full and new keys are not tracked")
+				.tag("key", "address")
+				.register(registry);
+		Gauge.builder("login.throttle.full", byEmail, l -> l.isFull() ? 1 : 0)
+				.description("1 while the bucket table is full and new keys are not tracked")
+				.tag("key", "email")
+				.register(registry);
+	}
+
+	private static final class CachedBodyRequest extends HttpServletRequestWrapper {
+
+		private final byte[] body;
+
+		CachedBodyRequest(HttpServletRequest request, byte[] body) {
+			super(request);
+			this.body = body;
+		}
+
+		@Override
+		public ServletInputStream getInputStream() {
+			ByteArrayInputStream in = new ByteArrayInputStream(body);
+			return new ServletInputStream() {
+				@Override
+				public int read() throws IOException {
+					return in.read();
+				}
+
+				@Override
+				public int read(byte[] b, int off, int len) throws IOException {
+					return in.read(b, off, len);
+				}
+
+				@Override
+				public boolean isFinished() {
+					return in.available()==0;
+				}
+
+				@Override
+				public boolean isReady() {
+					return true;
+				}
+
+				@Override
+				public void setReadListener(ReadListener listener) {
+					//the whole body is already in memory, so it is available at once
+					try {
+						if(!isFinished()) {
+							listener.onDataAvailable();
+						}
+						listener.onAllDataRead();
+					}
+					catch(IOException e) {
+						listener.onError(e);
+					}
+				}
+			};
+		}
+
+		@Override
+		public BufferedReader getReader() {
+			String encoding = getCharacterEncoding();
+			return new BufferedReader(new InputStreamReader(new ByteArrayInputStream(body),
+					encoding==null ? StandardCharsets.UTF_8 : Charset.forName(encoding)));
+		}
+
+		@Override
+		public int getContentLength() {
+			return body.length;
+		}
+
+		@Override
+		public long getContentLengthLong() {
+			return body.length;
+		}
+	}
+}
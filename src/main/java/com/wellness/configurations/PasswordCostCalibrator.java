@@ -0,0 +1,59 @@
+package com.wellness.configurations;
+
+import java.time.Duration;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.security.crypto.bcrypt.BCrypt;
+
+/**
+ * Measures bcrypt on the current hardware and picks the highest cost within a latency budget.
+ */
+public final class PasswordCostCalibrator {
+
+	private static final Logger log = LoggerFactory.getLogger(PasswordCostCalibrator.class);
+
+	private PasswordCostCalibrator() {
+	}
+
+	//never returns less than minCost, even when the hardware cannot meet the budget
+	public static int calibrate(Duration budget, int minCost, int maxCost) {
+		//first hash pays for class loading and JIT, do not count it
+		measureNanos(minCost, 1);
+		int chosen = minCost;
+		for(int cost = minCost; cost <= maxCost; cost++) {
+			long nanos = measureNanos(cost, 2);
+			if(nanos > budget.toNanos()) {
+				break;
+			}
+			chosen = cost;
+		}
+		log.info("bcrypt cost {} selected for a {} ms budget", chosen, budget.toMillis());
+		return chosen;
+	}
+
+	//fastest of the samples, in nanoseconds per hash
+	public static long measureNanos(int cost, int samples) {
+		String salt = BCrypt.gensalt(cost);
+		long best = Long.MAX_VALUE;
+		for(int i = 0; i < samples; i++) {
+			long start = System.nanoTime();
+			BCrypt.hashpw("calibration-password", salt);
+			best = Math.min(best, System.nanoTime() - start);
+		}
+		return best;
+	}
+
+	//reads the cost from a $2a$NN$ style hash, -1 when it is not bcrypt
+	public static int costOf(String hash) {
+		if(hash==null || hash.length() < 7 || hash.charAt(0)!='$' || hash.charAt(3)!='$') {
+			return -1;
+		}
+		try {
+			return Integer.parseInt(hash.substring(4, 6));
+		}
+		catch(NumberFormatException e) {
+			return -1;
+		}
+	}
+}
@@ -0,0 +1,173 @@
+package com.wellness.configurations;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Future;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Supplier;
+
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import com.wellness.exception.ServiceBusyException;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import io.micrometer.core.instrument.binder.MeterBinder;
+
+/**
+ * Dedicated pool for password hashing so bcrypt bursts cannot occupy every request thread.
+ * The queue is bounded; when it is full callers get a ServiceBusyException (503) right away.
+ */
+@Component
+public class PasswordHashingExecutor implements MeterBinder, DisposableBean {
+
+	private final ThreadPoolExecutor pool;
+	private volatile Timer hashTimer;
+	private volatile Counter rejected;
+
+	public PasswordHashingExecutor(@Value("${password.hashing.threads:0}") int threads,
+			@Value("${password.hashing.queue-limit:64}") int queueLimit) {
+		int size = threads > 0 ? threads : Runtime.getRuntime().availableProcessors();
+		AtomicInteger counter = new AtomicInteger();
+		this.pool = new ThreadPoolExecutor(size, size, 0, TimeUnit.MILLISECONDS,
+				new ArrayBlockingQueue<>(queueLimit),
+				r -> {
+					Thread t = new Thread(r, "password-hash-" + counter.incrementAndGet());
+					t.setDaemon(true);
+					return t;
+				},
+				new ThreadPoolExecutor.AbortPolicy());
+	}
+
+	//runs the hashing task on the pool and waits for its result
+	public <T> T run(Supplier<T> task) {
+		Future<T> future = submit(task);
+		try {
+			return future.get();
+		}
+		catch(InterruptedException e) {
+			future.cancel(true);
+			Thread.currentThread().interrupt();
+			throw new ServiceBusyException("Password hashing interrupted");
+		}
+		catch(ExecutionException e) {
+			if(e.getCause() instanceof RuntimeException cause) {
+				throw cause;
+			}
+			throw new IllegalStateException(e.getCause());
+		}
+	}
+
+	//same limits as run without waiting, for callers that must not block (the reactive stack)
+	public <T> CompletableFuture<T> submitAsync(Supplier<T> task) {
+		try {
+			return CompletableFuture.supplyAsync(() -> timed(task), pool);
+		}
+		catch(RejectedExecutionException e) {
+			if(rejected!=null) {
+				rejected.increment();
+			}
+			return CompletableFuture.failedFuture(new ServiceBusyException("Server is busy, please retry"));
+		}
+	}
+
+	private <T> Future<T> submit(Supplier<T> task) {
+		try {
+			return pool.submit(() -> timed(task));
+		}
+		catch(RejectedExecutionException e) {
+			if(rejected!=null) {
+				rejected.increment();
+			}
+			throw new ServiceBusyException("Server is busy, please retry");
+		}
+	}
+
+	//bulk work: at most one task per pool thread is queued at a time, so interactive
+	//callers still find room in the queue; waits instead of failing when it is full
+	public <T> List<T> runAll(List<? extends Supplier<T>> tasks) {
+		Semaphore inFlight = new Semaphore(pool.getMaximumPoolSize());
+		List<Future<T>> futures = new ArrayList<>(tasks.size());
+		try {
+			for(Supplier<T> task : tasks) {
+				inFlight.acquire();
+				futures.add(submitWaiting(() -> {
+					try {
+						return timed(task);
+					}
+					finally {
+						inFlight.release();
+					}
+				}));
+			}
+			List<T> results = new ArrayList<>(futures.size());
+			for(Future<T> future : futures) {
+				results.add(future.get());
+			}
+			return results;
+		}
+		catch(InterruptedException e) {
+			futures.forEach(f -> f.cancel(true));
+			Thread.currentThread().interrupt();
+			throw new ServiceBusyException("Password hashing interrupted");
+		}
+		catch(ExecutionException e) {
+			futures.forEach(f -> f.cancel(true));
+			if(e.getCause() instanceof RuntimeException cause) {
+				throw cause;
+			}
+			throw new IllegalStateException(e.getCause());
+		}
+	}
+
+	private <T> Future<T> submitWaiting(Callable<T> task) throws InterruptedException {
+		while(true) {
+			try {
+				return pool.submit(task);
+			}
+			catch(RejectedExecutionException e) {
+				Thread.sleep(1);
+			}
+		}
+	}
+
+	public int queueDepth() {
+		return pool.getQueue().size();
+	}
+
+	private <T> T timed(Supplier<T> task) {
+		Timer timer = hashTimer;
+		return timer==null ? task.get() : timer.record(task);
+	}
+
+	@Override
+	public void bindTo(MeterRegistry registry) {
+		hashTimer = Timer.builder("password.hash.duration")
+				.description("Time spent hashing or matching one password")
+				.register(registry);
+		rejected = Counter.builder("password.hash.rejected")
+				.description("Hash requests rejected because the queue was full")
+				.register(registry);
+		Gauge.builder("password.hash.queue.size", pool, p -> p.getQueue().size())
+				.register(registry);
+		Gauge.builder("password.hash.active", pool, ThreadPoolExecutor::getActiveCount)
+				.register(registry);
+	}
+
+	@Override
+	public void destroy() {
+		pool.shutdownNow();
+	}
+}
@@ -0,0 +1,19 @@
+package com.wellness.configurations;
+
+import java.lang.annotation.Documented;
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+
+/**
+ * Most SQL statements one call of the annotated endpoint may issue.
+ * Going over is logged and counted by QueryBudgetFilter, and QueryBudgetTest
+ * holds the service calls behind the endpoints to the same numbers.
+ */
+@Documented
+@Target(ElementType.METHOD)
+@Retention(RetentionPolicy.RUNTIME)
+public @interface QueryBudget {
+	int value();
+}
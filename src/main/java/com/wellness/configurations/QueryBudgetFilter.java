@@ -0,0 +1,79 @@
+package com.wellness.configurations;
+
+import java.io.IOException;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.core.Ordered;
+import org.springframework.core.annotation.Order;
+import org.springframework.stereotype.Component;
+import org.springframework.web.filter.OncePerRequestFilter;
+import org.springframework.web.method.HandlerMethod;
+import org.springframework.web.servlet.HandlerMapping;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+
+/**
+ * Counts the SQL statements of each HTTP request, security filters included, and
+ * warns when the handling endpoint goes over its @QueryBudget.
+ */
+@Component
+@Order(Ordered.HIGHEST_PRECEDENCE + 10)
+public class QueryBudgetFilter extends OncePerRequestFilter implements MeterBinder {
+
+	private static final Logger log = LoggerFactory.getLogger(QueryBudgetFilter.class);
+
+	private volatile MeterRegistry registry;
+
+	@Override
+	protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain filterChain)
+			throws ServletException, IOException {
+		StatementCounter.start();
+		try {
+			filterChain.doFilter(request, response);
+		}
+		finally {
+			check(request, StatementCounter.stop());
+		}
+	}
+
+	private void check(HttpServletRequest request, int statements) {
+		//set by the handler mapping once a controller method matched
+		if(!(request.getAttribute(HandlerMapping.BEST_MATCHING_HANDLER_ATTRIBUTE) instanceof HandlerMethod handler)) {
+			return;
+		}
+		String endpoint = handler.getMethod().getName();
+		MeterRegistry meters = registry;
+		if(meters!=null) {
+			DistributionSummary.builder("http.server.requests.statements")
+					.description("SQL statements per request")
+					.tag("endpoint", endpoint)
+					.register(meters)
+					.record(statements);
+		}
+		QueryBudget budget = handler.getMethodAnnotation(QueryBudget.class);
+		if(budget==null || statements <= budget.value()) {
+			return;
+		}
+		log.warn("{} {} issued {} SQL statements, budget is {}", request.getMethod(), request.getRequestURI(),
+				statements, budget.value());
+		if(meters!=null) {
+			Counter.builder("http.server.requests.statements.over-budget")
+					.tag("endpoint", endpoint)
+					.register(meters)
+					.increment();
+		}
+	}
+
+	@Override
+	public void bindTo(MeterRegistry registry) {
+		this.registry = registry;
+	}
+}
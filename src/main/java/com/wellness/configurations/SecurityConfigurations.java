@@ -1,4 +1,7 @@
 package com.wellness.configurations;
+import java.time.Duration;
+
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
 import org.springframework.http.HttpMethod;
@@ -8,8 +11,6 @@ import org.springframework.security.config.annotation.method.configuration.Enabl
 import org.springframework.security.config.annotation.web.builders.HttpSecurity;
 import org.springframework.security.config.annotation.web.configuration.EnableWebSecurity;
 import org.springframework.security.config.http.SessionCreationPolicy;
-import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
-import org.springframework.security.crypto.password.PasswordEncoder;
 import org.springframework.security.web.SecurityFilterChain;
 import org.springframework.security.web.authentication.UsernamePasswordAuthenticationFilter;
 
@@ -22,9 +23,14 @@ import lombok.RequiredArgsConstructor;
 @RequiredArgsConstructor
 public class SecurityConfigurations {
 
+	//all hashing runs on its own bounded pool instead of the request threads
 	@Bean
-	public PasswordEncoder passwordEncoder() {
-		return new BCryptPasswordEncoder();
+	public BoundedPasswordEncoder passwordEncoder(PasswordHashingExecutor hashingExecutor,
+			@Value("${password.bcrypt.cost:0}") int fixedCost,
+			@Value("${password.bcrypt.latency-budget:PT0.25S}") Duration budget,
+			@Value("${password.bcrypt.min-cost:10}") int minCost,
+			@Value("${password.bcrypt.max-cost:16}") int maxCost) {
+		return BoundedPasswordEncoder.bcrypt(hashingExecutor, fixedCost, budget, minCost, maxCost);
 	}
 	
 	private final JwtFilters jwtFilter;
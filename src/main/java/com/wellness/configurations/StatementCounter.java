@@ -0,0 +1,63 @@
+package com.wellness.configurations;
+
+import java.util.List;
+
+import net.ttddyy.dsproxy.ExecutionInfo;
+import net.ttddyy.dsproxy.QueryInfo;
+import net.ttddyy.dsproxy.listener.QueryExecutionListener;
+
+/**
+ * Counts JDBC statement executions on the current thread between start and stop.
+ * Fed by the datasource proxy; a JDBC batch counts as one round trip.
+ * Threads that never called start are not counted.
+ */
+public class StatementCounter implements QueryExecutionListener {
+
+	private static final ThreadLocal<int[]> COUNT = new ThreadLocal<>();
+
+	public static void start() {
+		COUNT.set(new int[1]);
+	}
+
+	//statements since start, 0 when counting is not active
+	public static int current() {
+		int[] count = COUNT.get();
+		return count==null ? 0 : count[0];
+	}
+
+	public static int stop() {
+		int count = current();
+		COUNT.remove();
+		return count;
+	}
+
+	//statements issued by the action on this thread, for test assertions
+	public static int count(Runnable action) {
+		int[] outer = COUNT.get();
+		start();
+		try {
+			action.run();
+			return current();
+		}
+		finally {
+			if(outer==null) {
+				COUNT.remove();
+			}
+			else {
+				COUNT.set(outer);
+			}
+		}
+	}
+
+	@Override
+	public void beforeQuery(ExecutionInfo execInfo, List<QueryInfo> queryInfoList) {
+	}
+
+	@Override
+	public void afterQuery(ExecutionInfo execInfo, List<QueryInfo> queryInfoList) {
+		int[] count = COUNT.get();
+		if(count!=null) {
+			count[0]++;
+		}
+	}
+}
@@ -0,0 +1,34 @@
+package com.wellness.configurations;
+
+import javax.sql.DataSource;
+
+import org.springframework.beans.factory.config.BeanPostProcessor;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import net.ttddyy.dsproxy.support.ProxyDataSource;
+import net.ttddyy.dsproxy.support.ProxyDataSourceBuilder;
+
+/**
+ * Wraps the application DataSource in a datasource-proxy that feeds StatementCounter.
+ */
+@Configuration(proxyBeanMethods = false)
+public class StatementCountingConfiguration {
+
+	//static so the post processor is registered before the DataSource is created
+	@Bean
+	public static BeanPostProcessor statementCountingDataSourcePostProcessor() {
+		return new BeanPostProcessor() {
+			@Override
+			public Object postProcessAfterInitialization(Object bean, String beanName) {
+				if(bean instanceof DataSource dataSource && !(bean instanceof ProxyDataSource)) {
+					return ProxyDataSourceBuilder.create(dataSource)
+							.name(beanName)
+							.listener(new StatementCounter())
+							.build();
+				}
+				return bean;
+			}
+		};
+	}
+}
@@ -0,0 +1,153 @@
+package com.wellness.configurations;
+
+import java.time.Duration;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.LongSupplier;
+
+/**
+ * Token buckets by key, without locks. A bucket is one AtomicLong holding the time at which
+ * it will be full again (the GCRA form of a token bucket): taking a token is a single CAS.
+ * Buckets that are full again hold no information and are dropped by a timing wheel, which
+ * is advanced by the callers themselves. At most maxKeys buckets are kept; once the table is
+ * full, keys without a bucket take their tokens from one shared overflow bucket, sized on its
+ * own so that filling the table neither locks everyone else out nor lifts the limit. Without an
+ * overflow bucket they are let through, for callers that check another limiter after this one.
+ * Either way they are counted in untracked().
+ */
+public class TokenBucketLimiter {
+
+	private static final int SLOTS = 64;
+
+	private final long interval;
+	private final long tolerance;
+	private final int maxKeys;
+	private final LongSupplier clock;
+
+	private final ConcurrentHashMap<String, AtomicLong> buckets = new ConcurrentHashMap<>();
+	private final LongAdder untracked = new LongAdder();
+
+	//null when untracked keys are let through
+	private final AtomicLong overflow;
+	private final long overflowInterval;
+	private final long overflowTolerance;
+
+	//keys by the tick at which their bucket is full again, modulo the number of slots
+	private final Set<String>[] wheel;
+	private final long tick;
+	private final AtomicLong swept;
+
+	public TokenBucketLimiter(int capacity, Duration refill, int maxKeys) {
+		this(capacity, refill, maxKeys, 0, refill, System::nanoTime);
+	}
+
+	public TokenBucketLimiter(int capacity, Duration refill, int maxKeys, LongSupplier clock) {
+		this(capacity, refill, maxKeys, 0, refill, clock);
+	}
+
+	//refill is the time to earn back one token, an overflow capacity of 0 lets untracked keys through
+	@SuppressWarnings("unchecked")
+	public TokenBucketLimiter(int capacity, Duration refill, int maxKeys, int overflowCapacity, Duration overflowRefill,
+			LongSupplier clock) {
+		if(capacity < 1 || refill.isNegative() || refill.isZero() || maxKeys < 1) {
+			throw new IllegalArgumentException("capacity, refill and maxKeys must be positive");
+		}
+		if(overflowCapacity < 0 || overflowRefill.isNegative() || overflowRefill.isZero()) {
+			throw new IllegalArgumentException("overflow capacity must not be negative, overflow refill must be positive");
+		}
+		this.interval = refill.toNanos();
+		this.tolerance = interval * (capacity - 1);
+		this.maxKeys = maxKeys;
+		this.clock = clock;
+		long now = clock.getAsLong();
+		this.overflow = overflowCapacity==0 ? null : new AtomicLong(now);
+		this.overflowInterval = overflowRefill.toNanos();
+		this.overflowTolerance = overflowInterval * Math.max(overflowCapacity - 1, 0);
+		//a bucket is never more than tolerance + interval from full, so keys stay within one turn
+		this.tick = (tolerance + interval) / (SLOTS - 2) + 1;
+		this.wheel = new Set[SLOTS];
+		for(int i = 0; i < SLOTS; i++) {
+			wheel[i] = ConcurrentHashMap.newKeySet();
+		}
+		this.swept = new AtomicLong(Math.floorDiv(now, tick));
+	}
+
+	/**
+	 * Takes a token for the key.
+	 * @return 0 when a token was taken, otherwise the nanoseconds until one is available
+	 */
+	public long tryAcquire(String key) {
+		long now = clock.getAsLong();
+		sweep(now);
+		AtomicLong bucket = buckets.get(key);
+		if(bucket==null) {
+			//the size check races with other new keys, the table can go a few entries over
+			if(buckets.size() >= maxKeys) {
+				untracked.increment();
+				return overflow==null ? 0 : take(overflow, now, overflowInterval, overflowTolerance);
+			}
+			bucket = buckets.computeIfAbsent(key, k -> new AtomicLong(now));
+		}
+		long wait = take(bucket, now, interval, tolerance);
+		if(wait==0) {
+			wheel[slot(bucket.get())].add(key);
+		}
+		return wait;
+	}
+
+	//one CAS on the time the bucket is full again, 0 when a token was taken
+	private static long take(AtomicLong bucket, long now, long interval, long tolerance) {
+		while(true) {
+			long full = bucket.get();
+			long start = Math.max(full, now);
+			if(start - now > tolerance) {
+				return start - now - tolerance;
+			}
+			if(bucket.compareAndSet(full, start + interval)) {
+				return 0;
+			}
+		}
+	}
+
+	public int size() {
+		return buckets.size();
+	}
+
+	public boolean isFull() {
+		return buckets.size() >= maxKeys;
+	}
+
+	//requests that found the table full, whether the overflow bucket let them through or not
+	public long untracked() {
+		return untracked.sum();
+	}
+
+	private int slot(long time) {
+		return (int) Math.floorMod(Math.floorDiv(time, tick), (long) SLOTS);
+	}
+
+	//empties every slot whose tick has fully passed, one caller per tick does the work
+	private void sweep(long now) {
+		long current = Math.floorDiv(now, tick);
+		long last = swept.get();
+		if(current <= last || !swept.compareAndSet(last, current)) {
+			return;
+		}
+		long from = Math.max(last, current - SLOTS);
+		for(long t = from; t < current; t++) {
+			int slot = (int) Math.floorMod(t, (long) SLOTS);
+			Set<String> keys = wheel[slot];
+			for(String key : keys) {
+				//a token taken from a bucket at the moment it is dropped is forgiven,
+				//which costs at most one extra request
+				AtomicLong bucket = buckets.computeIfPresent(key, (k, b) -> b.get() <= now ? null : b);
+				//buckets still in use are filed under the slot of their latest full time
+				if(bucket==null || slot(bucket.get())!=slot) {
+					keys.remove(key);
+				}
+			}
+		}
+	}
+}
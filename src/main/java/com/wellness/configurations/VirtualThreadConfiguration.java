@@ -0,0 +1,26 @@
+package com.wellness.configurations;
+
+import java.time.Duration;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnThreading;
+import org.springframework.boot.thread.Threading;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+/**
+ * Concurrency limits for spring.threads.virtual.enabled=true, which Spring Boot only honours on JDK 21+.
+ * Request threads are no longer a natural bound, so JDBC access is gated by ConnectionLimiter;
+ * bcrypt keeps running on the platform threads of PasswordHashingExecutor, sized to the cores.
+ */
+@Configuration(proxyBeanMethods = false)
+@ConditionalOnThreading(Threading.VIRTUAL)
+public class VirtualThreadConfiguration {
+
+	//static so the post processor is registered before the DataSource is created
+	@Bean
+	public static ConnectionLimiter connectionLimiter(@Value("${db.concurrency.permits:0}") int permits,
+			@Value("${db.concurrency.max-wait:PT2S}") Duration maxWait) {
+		return new ConnectionLimiter(permits, maxWait);
+	}
+}
@@ -1,38 +1,58 @@
 package com.wellness.controller;
 
+import java.io.InputStream;
 import java.util.List;
 
 import org.slf4j.LoggerFactory;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.access.prepost.PreAuthorize;
-import org.springframework.security.authentication.AuthenticationManager;
-import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
-import org.springframework.security.core.Authentication;
-import org.springframework.security.core.userdetails.UserDetails;
 import org.springframework.web.bind.annotation.DeleteMapping;
 import org.springframework.web.bind.annotation.GetMapping;
 import org.springframework.web.bind.annotation.PathVariable;
 import org.springframework.web.bind.annotation.PostMapping;
 import org.springframework.web.bind.annotation.PutMapping;
 import org.springframework.web.bind.annotation.RequestBody;
+import org.springframework.web.bind.annotation.RequestHeader;
+import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.context.request.WebRequest;
 
+import com.wellness.configurations.QueryBudget;
+import com.wellness.data.Role;
+import com.wellness.data.Status;
+import com.wellness.data.UserPrinciple;
 import com.wellness.data.Users;
+import com.wellness.dto.BulkRoleUpdate;
+import com.wellness.dto.BulkStatusUpdate;
+import com.wellness.dto.BulkUpdateResult;
+import com.wellness.dto.DirectoryStats;
+import com.wellness.dto.ImportReport;
+import com.wellness.dto.ManagerReassignment;
 import com.wellness.dto.MyRequest;
+import com.wellness.dto.MyResponse;
+import com.wellness.dto.OrgNode;
+import com.wellness.dto.SpanOfControl;
 import com.wellness.dto.UpdateUser;
 import com.wellness.dto.UpdateUserAdmin;
-import com.wellness.exception.AuthenticationFailedException;
-import com.wellness.exception.UserAlreadyExistsException;
+import com.wellness.dto.UserPage;
+import com.wellness.dto.UserSearchResult;
 import com.wellness.exception.UserNotFoundException;
 import com.wellness.exception.UserNotRegisteredException;
+import com.wellness.service.DirectoryStatsService;
 import com.wellness.service.JwtService;
-import com.wellness.service.MyUserDetailsService;
+import com.wellness.service.OrgHierarchyService;
+import com.wellness.service.UserImportService;
+import com.wellness.service.UserSearchService;
 import com.wellness.service.UserService;
 
 import ch.qos.logback.classic.Logger;
 import lombok.RequiredArgsConstructor;
 
+//@QueryBudget covers the whole request, including the principal lookup in JwtFilters
+//on a user cache miss, so authenticated endpoints allow one statement for it
 @RestController
 @RequiredArgsConstructor
 public class MyController {
@@ -40,14 +60,11 @@ public class MyController {
 	public static final Logger loggerobj = (Logger) LoggerFactory.getLogger(MyController.class);
 	
 	private final UserService userService;
+	@QueryBudget(1)
 	@PostMapping("/register")
 	public ResponseEntity<String> register(@RequestBody Users user){
 		HttpStatus httpStatus= HttpStatus.OK;
 		String msg="";
-		boolean exist = userService.exists(user.getEmail());
-		if(exist) {
-			throw new UserAlreadyExistsException("User already exists!");
-		}
 		boolean result = userService.registerUser(user);
 		if(!result) {
 			throw new UserNotRegisteredException("User not registered!");
@@ -59,29 +76,25 @@ public class MyController {
 		
 	}
 
-	private final AuthenticationManager authenticationManager;
 	private final JwtService jwtService;
-	private final MyUserDetailsService myUserDetailsService;
+	@QueryBudget(2)
 	@PostMapping("/login")
 	public ResponseEntity<String> login(@RequestBody MyRequest user) {
-		boolean exist = userService.exists(user.getEmail());
-		if(!exist) {
-			throw new UserNotFoundException("User not found!");
-		}
-		Authentication authentication = authenticationManager
-				.authenticate(new UsernamePasswordAuthenticationToken
-						(user.getEmail(), user.getPassword()));
-		UserDetails userDetails = myUserDetailsService.loadUserByUsername(user.getEmail());
-		if(authentication.isAuthenticated())
-			return ResponseEntity.status(HttpStatus.OK).body(jwtService.generateToken(userDetails));
-		else
-			throw new AuthenticationFailedException("Login failed!");
+		UserPrinciple principal = userService.authenticate(user.getEmail(), user.getPassword());
+		return ResponseEntity.status(HttpStatus.OK).body(jwtService.generateToken(principal));
 	}
 
 	@PreAuthorize("hasRole('EMPLOYEE')")
+	@QueryBudget(3)
 	@GetMapping("/viewProfile/{id}")
-	public ResponseEntity<Users> viewProfile(@PathVariable Long id) {
-		Users myuser = userService.getProfile(id);
+	public ResponseEntity<MyResponse> viewProfile(@PathVariable Long id, WebRequest request) {
+		//the version is read first, a write before the body is loaded only costs the next poll a 200
+		String etag = userService.getProfileEtag(id);
+		//checkNotModified also writes the ETag header, on the 200 as well as the 304
+		if(request.checkNotModified(etag)) {
+			return null;
+		}
+		MyResponse myuser = userService.getProfile(id);
 		if(myuser==null) {
 			throw new UserNotFoundException("User not found!");
 		}
@@ -89,6 +102,7 @@ public class MyController {
 	}
 
 	@PreAuthorize("hasRole('EMPLOYEE')")
+	@QueryBudget(4)
 	@DeleteMapping("/deleteProfile/{id}")
 	public ResponseEntity<String> deleteProfile(@PathVariable Long id){
 		String result = userService.deleteUser(id);
@@ -99,6 +113,7 @@ public class MyController {
 	}
 	
 	@PreAuthorize("hasRole('EMPLOYEE')")
+	@QueryBudget(3)
 	@PutMapping("/updateProfile")
 	public ResponseEntity<String> updateProfile(@RequestBody UpdateUser user){
 		boolean updated = userService.updateUser(user);
@@ -109,14 +124,11 @@ public class MyController {
 	}
 	
 	@PreAuthorize("hasRole('ADMIN')")
+	@QueryBudget(2)
 	@PostMapping("/addUser")
 	public ResponseEntity<String> addUser(@RequestBody Users user){
 		HttpStatus httpStatus= HttpStatus.OK;
 		String msg="";
-		boolean exist = userService.exists(user.getEmail());
-		if(exist) {
-			throw new UserAlreadyExistsException("User already exists!");
-		}
 		boolean result = userService.registerUser(user);
 		if(!result) {
 			throw new UserNotRegisteredException("User not registered!");
@@ -127,13 +139,33 @@ public class MyController {
 		return ResponseEntity.status(httpStatus).body(msg);
 		
 	}
+	private final UserImportService userImportService;
+	//streams the body, so thousands of rows never sit in memory at once; the report lists failed rows only
+	@PreAuthorize("hasRole('ADMIN')")
+	@PostMapping(value="/importUsers", consumes={"text/csv", "application/x-ndjson"})
+	public ResponseEntity<ImportReport> importUsers(@RequestHeader(HttpHeaders.CONTENT_TYPE) String contentType,
+			@RequestParam(required=false) Integer batchSize, InputStream body) {
+		ImportReport report = userImportService.importUsers(body, MediaType.parseMediaType(contentType), batchSize);
+		return ResponseEntity.ok().body(report);
+	}
 	@PreAuthorize("hasRole('ADMIN')")
+	@QueryBudget(3)
 	@GetMapping("/viewAllUsers")
-	public ResponseEntity<List<Users>> viewAllUsers() {
-		List<Users> users = userService.getUsers();
+	public ResponseEntity<UserPage> viewAllUsers(@RequestParam(required=false) String cursor,
+			@RequestParam(defaultValue="50") int size,
+			@RequestParam(required=false) String department,
+			@RequestParam(required=false) Role role,
+			@RequestParam(required=false) Status status,
+			WebRequest request) {
+		String etag = userService.getUsersEtag(cursor, size, department, role, status);
+		if(request.checkNotModified(etag)) {
+			return null;
+		}
+		UserPage users = userService.getUsers(cursor, size, department, role, status);
 		return ResponseEntity.ok().body(users);
 	}
 	@PreAuthorize("hasRole('ADMIN')")
+	@QueryBudget(3)
 	@PutMapping("/updateUserAdmin")
 	public ResponseEntity<String> updateUserAdmin(@RequestBody UpdateUserAdmin user){
 		boolean updated = userService.updateUserAdmin(user);
@@ -142,7 +174,30 @@ public class MyController {
 		}
 		return ResponseEntity.status(HttpStatus.OK).body("User updated successfully!");
 	}
+	//bulk updates also recount the directory stats
+	@PreAuthorize("hasRole('ADMIN')")
+	@QueryBudget(3)
+	@PutMapping("/bulkUpdateStatus")
+	public ResponseEntity<BulkUpdateResult> bulkUpdateStatus(@RequestBody BulkStatusUpdate update){
+		return ResponseEntity.ok().body(userService.updateStatusByDepartment(update));
+	}
+	@PreAuthorize("hasRole('ADMIN')")
+	@QueryBudget(3)
+	@PutMapping("/bulkUpdateRole")
+	public ResponseEntity<BulkUpdateResult> bulkUpdateRole(@RequestBody BulkRoleUpdate update){
+		return ResponseEntity.ok().body(userService.updateRoleByIds(update));
+	}
+	//the reassignment also moves the reports in the reporting tree, one that would put a manager
+	//under its own reports is refused before anything is written
+	@PreAuthorize("hasRole('ADMIN')")
+	@QueryBudget(3)
+	@PutMapping("/reassignManager")
+	public ResponseEntity<BulkUpdateResult> reassignManager(@RequestBody ManagerReassignment reassignment){
+		orgHierarchyService.checkReassignment(reassignment.getFromManagerId(), reassignment.getToManagerId());
+		return ResponseEntity.ok().body(userService.reassignManager(reassignment));
+	}
 	@PreAuthorize("hasRole('ADMIN')")
+	@QueryBudget(4)
 	@DeleteMapping("/deleteUserAdmin/{id}")
 	public ResponseEntity<String> deleteUserAdmin(@PathVariable Long id){
 		String result = userService.deleteUser(id);
@@ -151,4 +206,48 @@ public class MyController {
 		}
 		return ResponseEntity.status(HttpStatus.OK).body(result);
 	}
+	private final OrgHierarchyService orgHierarchyService;
+	//tree walks are served from memory, only the profiles of the users found are loaded
+	@PreAuthorize("hasRole('EMPLOYEE')")
+	@QueryBudget(2)
+	@GetMapping("/directReports/{id}")
+	public ResponseEntity<List<MyResponse>> directReports(@PathVariable Long id) {
+		return ResponseEntity.ok().body(orgHierarchyService.getDirectReports(id));
+	}
+	@PreAuthorize("hasRole('EMPLOYEE')")
+	@QueryBudget(2)
+	@GetMapping("/reportingChain/{id}")
+	public ResponseEntity<List<MyResponse>> reportingChain(@PathVariable Long id) {
+		return ResponseEntity.ok().body(orgHierarchyService.getReportingChain(id));
+	}
+	@PreAuthorize("hasRole('EMPLOYEE')")
+	@QueryBudget(1)
+	@GetMapping("/subtree/{id}")
+	public ResponseEntity<List<OrgNode>> subtree(@PathVariable Long id,
+			@RequestParam(required=false) Integer maxDepth) {
+		return ResponseEntity.ok().body(orgHierarchyService.getSubtree(id, maxDepth==null ? Integer.MAX_VALUE : maxDepth));
+	}
+	@PreAuthorize("hasRole('EMPLOYEE')")
+	@QueryBudget(1)
+	@GetMapping("/spanOfControl/{id}")
+	public ResponseEntity<SpanOfControl> spanOfControl(@PathVariable Long id) {
+		return ResponseEntity.ok().body(orgHierarchyService.getSpanOfControl(id));
+	}
+	private final DirectoryStatsService directoryStatsService;
+	//headcounts from in-memory counters, no query however large the directory
+	@PreAuthorize("hasRole('ADMIN')")
+	@QueryBudget(1)
+	@GetMapping("/directoryStats")
+	public ResponseEntity<DirectoryStats> directoryStats() {
+		return ResponseEntity.ok().body(directoryStatsService.getStats());
+	}
+	private final UserSearchService userSearchService;
+	//typeahead over name and email, served from the in-memory index
+	@PreAuthorize("hasRole('EMPLOYEE')")
+	@QueryBudget(1)
+	@GetMapping("/searchUsers")
+	public ResponseEntity<UserSearchResult> searchUsers(@RequestParam String q,
+			@RequestParam(defaultValue="10") int limit) {
+		return ResponseEntity.ok().body(userSearchService.search(q, limit));
+	}
 }
@@ -0,0 +1,9 @@
+package com.wellness.data;
+
+import java.util.List;
+
+/**
+ * Outcome of a set-based update: the rows it changed and the emails of those users.
+ */
+public record BulkChange(int affected, List<String> emails) {
+}
@@ -0,0 +1,7 @@
+package com.wellness.data;
+
+/**
+ * Number of users sharing one department, role and status.
+ */
+public record DirectoryCount(String department, Role role, Status status, Long count) {
+}
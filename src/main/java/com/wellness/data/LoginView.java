@@ -0,0 +1,12 @@
+package com.wellness.data;
+
+/**
+ * Columns needed to check a login and issue its token, read in one query.
+ */
+public interface LoginView {
+	Long getUserId();
+	String getEmail();
+	String getPassword();
+	Role getRole();
+	Status getStatus();
+}
@@ -0,0 +1,7 @@
+package com.wellness.data;
+
+/**
+ * One edge of the reporting tree, managerId is null for users without a manager.
+ */
+public record ManagerLink(Long userId, Integer managerId) {
+}
@@ -0,0 +1,7 @@
+package com.wellness.data;
+
+/**
+ * Id and row version of one user, enough to tell whether a page changed.
+ */
+public record RowVersion(Long userId, Long version) {
+}
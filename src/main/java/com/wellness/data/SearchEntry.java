@@ -0,0 +1,7 @@
+package com.wellness.data;
+
+/**
+ * The searchable columns of one user.
+ */
+public record SearchEntry(Long userId, String name, String email) {
+}
@@ -17,6 +17,10 @@ public class UserPrinciple implements UserDetails{
 		this.user=user;
 	}
 	
+	public Users getUser() {
+		return user;
+	}
+	
 	@Override
 	public Collection<? extends GrantedAuthority> getAuthorities() {
 		return List.of(new SimpleGrantedAuthority("ROLE_"+user.getRole()));
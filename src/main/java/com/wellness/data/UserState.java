@@ -0,0 +1,9 @@
+package com.wellness.data;
+
+/**
+ * What a conditional update checks and describes in its event: the row version and the
+ * indexed columns, without the password hash.
+ */
+public record UserState(Long userId, Long version, String name, String department, Role role, Status status,
+		Integer managerId) {
+}
@@ -1,9 +1,13 @@
 package com.wellness.data;
 
 import java.time.LocalDateTime;
+import java.util.Locale;
 
+import org.hibernate.annotations.Cache;
+import org.hibernate.annotations.CacheConcurrencyStrategy;
 import org.hibernate.annotations.CreationTimestamp;
 
+import jakarta.persistence.Cacheable;
 import jakarta.persistence.Column;
 import jakarta.persistence.Entity;
 import jakarta.persistence.EnumType;
@@ -11,8 +15,11 @@ import jakarta.persistence.Enumerated;
 import jakarta.persistence.GeneratedValue;
 import jakarta.persistence.GenerationType;
 import jakarta.persistence.Id;
+import jakarta.persistence.Index;
 import jakarta.persistence.PrePersist;
 import jakarta.persistence.Table;
+import jakarta.persistence.UniqueConstraint;
+import jakarta.persistence.Version;
 import lombok.AllArgsConstructor;
 import lombok.Data;
 import lombok.NoArgsConstructor;
@@ -21,9 +28,19 @@ import lombok.NoArgsConstructor;
 @NoArgsConstructor
 @AllArgsConstructor
 @Entity
-@Table(name="users")
+@Cacheable
+@Cache(usage=CacheConcurrencyStrategy.READ_WRITE, region="users")
+@Table(name="users",
+	uniqueConstraints=@UniqueConstraint(name="ux_users_email", columnNames="email"),
+	indexes={
+		@Index(name="ix_users_department", columnList="department"),
+		@Index(name="ix_users_manager_id", columnList="manager_id"),
+		@Index(name="ix_users_status", columnList="status")
+	})
 public class Users {
+	//the spring data id marks the same column for the R2DBC mapping in com.wellness.reactive
 	@Id
+	@org.springframework.data.annotation.Id
 	@Column(name="user_id")
 	@GeneratedValue (strategy=GenerationType.IDENTITY)
 	private Long userId;
@@ -55,11 +72,27 @@ public class Users {
 	@Column(name="created_at", updatable=false)
 	private LocalDateTime createdAt;
 	
+	//bumped by every write, including the bulk updates, and the source of profile etags
+	@Version
+	@Column(name="version", nullable=false)
+	private Long version;
+	
+	//emails are kept lower case to match the unique index
+	public void setEmail(String email) {
+		this.email = normalizeEmail(email);
+	}
+	
+	public static String normalizeEmail(String email) {
+		return email==null ? null : email.trim().toLowerCase(Locale.ROOT);
+	}
+	
+	//json binding goes through the all-args constructor and skips setEmail
 	@PrePersist
 	public void prePersist() {
 		if(email==null || password==null) {
 			throw new IllegalArgumentException("Email or password cannot be null");
 		}
+		email = normalizeEmail(email);
 	}
 	
 }
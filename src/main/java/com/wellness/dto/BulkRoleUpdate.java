@@ -0,0 +1,22 @@
+package com.wellness.dto;
+
+import java.util.List;
+
+import com.wellness.data.Role;
+
+public class BulkRoleUpdate {
+	private List<Long> userIds;
+	private Role role;
+	public List<Long> getUserIds() {
+		return userIds;
+	}
+	public void setUserIds(List<Long> userIds) {
+		this.userIds = userIds;
+	}
+	public Role getRole() {
+		return role;
+	}
+	public void setRole(Role role) {
+		this.role = role;
+	}
+}
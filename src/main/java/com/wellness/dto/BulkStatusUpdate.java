@@ -0,0 +1,20 @@
+package com.wellness.dto;
+
+import com.wellness.data.Status;
+
+public class BulkStatusUpdate {
+	private String department;
+	private Status status;
+	public String getDepartment() {
+		return department;
+	}
+	public void setDepartment(String department) {
+		this.department = department;
+	}
+	public Status getStatus() {
+		return status;
+	}
+	public void setStatus(Status status) {
+		this.status = status;
+	}
+}
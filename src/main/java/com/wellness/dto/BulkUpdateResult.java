@@ -0,0 +1,14 @@
+package com.wellness.dto;
+
+public class BulkUpdateResult {
+	int affected;
+	
+	public BulkUpdateResult(int affected) {
+		this.affected = affected;
+	}
+	
+	//rows actually changed, rows already at the target value are not counted
+	public int getAffected() {
+		return affected;
+	}
+}
@@ -0,0 +1,36 @@
+package com.wellness.dto;
+
+import java.util.Map;
+
+import com.wellness.data.Role;
+import com.wellness.data.Status;
+
+public class DirectoryStats {
+	long total;
+	Map<String, Long> departments;
+	Map<Role, Long> roles;
+	Map<Status, Long> statuses;
+	
+	public DirectoryStats(long total, Map<String, Long> departments, Map<Role, Long> roles, Map<Status, Long> statuses) {
+		this.total = total;
+		this.departments = departments;
+		this.roles = roles;
+		this.statuses = statuses;
+	}
+	
+	public long getTotal() {
+		return total;
+	}
+	//departments without users are left out
+	public Map<String, Long> getDepartments() {
+		return departments;
+	}
+	//every role, 0 when nobody has it
+	public Map<Role, Long> getRoles() {
+		return roles;
+	}
+	//every status, 0 when nobody has it
+	public Map<Status, Long> getStatuses() {
+		return statuses;
+	}
+}
@@ -0,0 +1,51 @@
+package com.wellness.dto;
+
+import java.util.ArrayList;
+import java.util.List;
+
+//counts every row, but only lists the first failed ones so a large file keeps a small report
+public class ImportReport {
+	int total;
+	int created;
+	int failed;
+	List<ImportRowResult> failures = new ArrayList<>();
+	boolean failuresTruncated;
+	final int maxFailures;
+	
+	public ImportReport(int maxFailures) {
+		this.maxFailures = maxFailures;
+	}
+	
+	public void add(ImportRowResult row) {
+		total++;
+		if(row.getOutcome()==ImportRowResult.Outcome.CREATED) {
+			created++;
+			return;
+		}
+		failed++;
+		if(failures.size() < maxFailures) {
+			failures.add(row);
+		}
+		else {
+			failuresTruncated = true;
+		}
+	}
+	
+	public int getTotal() {
+		return total;
+	}
+	public int getCreated() {
+		return created;
+	}
+	public int getFailed() {
+		return failed;
+	}
+	//in line order
+	public List<ImportRowResult> getFailures() {
+		return failures;
+	}
+	//true when more rows failed than are listed
+	public boolean isFailuresTruncated() {
+		return failuresTruncated;
+	}
+}
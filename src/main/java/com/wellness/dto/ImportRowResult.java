@@ -0,0 +1,33 @@
+package com.wellness.dto;
+
+public class ImportRowResult {
+	public enum Outcome {
+		CREATED, DUPLICATE, INVALID, FAILED
+	}
+	
+	int line;
+	String email;
+	Outcome outcome;
+	String message;
+	
+	public ImportRowResult(int line, String email, Outcome outcome, String message) {
+		this.line = line;
+		this.email = email;
+		this.outcome = outcome;
+		this.message = message;
+	}
+	
+	public int getLine() {
+		return line;
+	}
+	public String getEmail() {
+		return email;
+	}
+	public Outcome getOutcome() {
+		return outcome;
+	}
+	//null for created rows
+	public String getMessage() {
+		return message;
+	}
+}
@@ -0,0 +1,19 @@
+package com.wellness.dto;
+
+public class ManagerReassignment {
+	private Integer fromManagerId;
+	private Integer toManagerId;
+	public Integer getFromManagerId() {
+		return fromManagerId;
+	}
+	public void setFromManagerId(Integer fromManagerId) {
+		this.fromManagerId = fromManagerId;
+	}
+	//null leaves the reports without a manager
+	public Integer getToManagerId() {
+		return toManagerId;
+	}
+	public void setToManagerId(Integer toManagerId) {
+		this.toManagerId = toManagerId;
+	}
+}
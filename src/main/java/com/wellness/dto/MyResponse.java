@@ -1,18 +1,49 @@
 package com.wellness.dto;
 
+import java.time.LocalDateTime;
+
 import com.wellness.data.Role;
 import com.wellness.data.Status;
 
 
 public class MyResponse {
+	Long userId;
 	String name;
 	String email;
 	String department;
+	Integer managerId;
 	Role role;
 	Status status;
+	LocalDateTime createdAt;
+	Long version;
 	
 	MyResponse(){}
 	
+	public MyResponse(Long userId, String name, String email, String department, Integer managerId,
+			Role role, Status status, LocalDateTime createdAt) {
+		this(userId, name, email, department, managerId, role, status, createdAt, null);
+	}
+	
+	// used by the constructor-expression projections in IUserRepository
+	public MyResponse(Long userId, String name, String email, String department, Integer managerId,
+			Role role, Status status, LocalDateTime createdAt, Long version) {
+		this.userId = userId;
+		this.name = name;
+		this.email = email;
+		this.department = department;
+		this.managerId = managerId;
+		this.role = role;
+		this.status = status;
+		this.createdAt = createdAt;
+		this.version = version;
+	}
+	
+	public Long getUserId() {
+		return userId;
+	}
+	public void setUserId(Long userId) {
+		this.userId = userId;
+	}
 	public String getName() {
 		return name;
 	}
@@ -31,6 +62,12 @@ public class MyResponse {
 	public void setDepartment(String department) {
 		this.department = department;
 	}
+	public Integer getManagerId() {
+		return managerId;
+	}
+	public void setManagerId(Integer managerId) {
+		this.managerId = managerId;
+	}
 	public Role getRole() {
 		return role;
 	}
@@ -43,4 +80,17 @@ public class MyResponse {
 	public void setStatus(Status status) {
 		this.status = status;
 	}
+	public LocalDateTime getCreatedAt() {
+		return createdAt;
+	}
+	public void setCreatedAt(LocalDateTime createdAt) {
+		this.createdAt = createdAt;
+	}
+	//sent back in updates so a concurrent change is detected
+	public Long getVersion() {
+		return version;
+	}
+	public void setVersion(Long version) {
+		this.version = version;
+	}
 }
@@ -0,0 +1,24 @@
+package com.wellness.dto;
+
+public class OrgNode {
+	long userId;
+	long managerId;
+	int depth;
+	
+	public OrgNode(long userId, long managerId, int depth) {
+		this.userId = userId;
+		this.managerId = managerId;
+		this.depth = depth;
+	}
+	
+	public long getUserId() {
+		return userId;
+	}
+	public long getManagerId() {
+		return managerId;
+	}
+	//1 for direct reports of the subtree root
+	public int getDepth() {
+		return depth;
+	}
+}
@@ -0,0 +1,30 @@
+package com.wellness.dto;
+
+public class SpanOfControl {
+	long userId;
+	int directReports;
+	int totalReports;
+	int levels;
+	
+	public SpanOfControl(long userId, int directReports, int totalReports, int levels) {
+		this.userId = userId;
+		this.directReports = directReports;
+		this.totalReports = totalReports;
+		this.levels = levels;
+	}
+	
+	public long getUserId() {
+		return userId;
+	}
+	public int getDirectReports() {
+		return directReports;
+	}
+	//everyone below the user, at any depth
+	public int getTotalReports() {
+		return totalReports;
+	}
+	//0 for users without reports
+	public int getLevels() {
+		return levels;
+	}
+}
@@ -5,6 +5,7 @@ public class UpdateUser {
 	String name;
 	String password;
 	String department;
+	Long version;
 	public String getName() {
 		return name;
 	}
@@ -29,4 +30,11 @@ public class UpdateUser {
 	public void setDepartment(String department) {
 		this.department = department;
 	}
+	//the version the client last read, null updates whatever is current
+	public Long getVersion() {
+		return version;
+	}
+	public void setVersion(Long version) {
+		this.version = version;
+	}
 }
@@ -14,6 +14,7 @@ public class UpdateUserAdmin {
 	private String department;
 	private Role role;
 	private Status status;
+	private Long version;
 	public String getDepartment() {
 		return department;
 	}
@@ -32,5 +33,12 @@ public class UpdateUserAdmin {
 	public void setStatus(Status status) {
 		this.status = status;
 	}
+	//the version the client last read, null updates whatever is current
+	public Long getVersion() {
+		return version;
+	}
+	public void setVersion(Long version) {
+		this.version = version;
+	}
 	
 }
@@ -0,0 +1,23 @@
+package com.wellness.dto;
+
+public class UserHit {
+	long userId;
+	String name;
+	String email;
+	
+	public UserHit(long userId, String name, String email) {
+		this.userId = userId;
+		this.name = name;
+		this.email = email;
+	}
+	
+	public long getUserId() {
+		return userId;
+	}
+	public String getName() {
+		return name;
+	}
+	public String getEmail() {
+		return email;
+	}
+}
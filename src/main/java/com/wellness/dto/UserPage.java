@@ -0,0 +1,21 @@
+package com.wellness.dto;
+
+import java.util.List;
+
+public class UserPage {
+	List<MyResponse> users;
+	String nextCursor;
+	
+	public UserPage(List<MyResponse> users, String nextCursor) {
+		this.users = users;
+		this.nextCursor = nextCursor;
+	}
+	
+	public List<MyResponse> getUsers() {
+		return users;
+	}
+	//null on the last page
+	public String getNextCursor() {
+		return nextCursor;
+	}
+}
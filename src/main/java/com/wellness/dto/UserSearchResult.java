@@ -0,0 +1,22 @@
+package com.wellness.dto;
+
+import java.util.List;
+
+public class UserSearchResult {
+	List<UserHit> users;
+	boolean truncated;
+	
+	public UserSearchResult(List<UserHit> users, boolean truncated) {
+		this.users = users;
+		this.truncated = truncated;
+	}
+	
+	//best match first
+	public List<UserHit> getUsers() {
+		return users;
+	}
+	//true when the query matched too many users to rank them all, a longer query narrows it
+	public boolean isTruncated() {
+		return truncated;
+	}
+}
@@ -0,0 +1,89 @@
+package com.wellness.event;
+
+import java.util.List;
+
+import com.wellness.data.Role;
+import com.wellness.data.Status;
+import com.wellness.data.UserState;
+import com.wellness.data.Users;
+
+/**
+ * Published by UserService after user rows are written, so in-memory state keyed
+ * by the user (caches, token versions, hierarchy, counters) can be refreshed.
+ * userId and email are null when the change covers many rows; a bulk update lists the
+ * emails of the users it changed instead. before is set for deleted users, after for created
+ * and updated ones; updates are written without reading the row first, so they carry no before.
+ */
+public record UserChangedEvent(Long userId, String email, Change change, Snapshot before, Snapshot after,
+		List<String> emails) {
+
+	public enum Change {
+		CREATED, UPDATED, DELETED, IMPORTED, BULK_UPDATED, MANAGER_REASSIGNED
+	}
+
+	//the columns in-memory indexes and aggregates are built from
+	public record Snapshot(String name, String department, Role role, Status status, Integer managerId) {
+
+		public static Snapshot of(Users user) {
+			return new Snapshot(user.getName(), user.getDepartment(), user.getRole(), user.getStatus(), user.getManagerId());
+		}
+
+		public static Snapshot of(UserState user) {
+			return new Snapshot(user.name(), user.department(), user.role(), user.status(), user.managerId());
+		}
+
+		//only the manager id is known, as for a manager reassignment
+		public static Snapshot ofManager(Integer managerId) {
+			return new Snapshot(null, null, null, null, managerId);
+		}
+	}
+
+	public UserChangedEvent(Long userId, String email, Change change, Snapshot before, Snapshot after) {
+		this(userId, email, change, before, after, List.of());
+	}
+
+	public UserChangedEvent(Long userId, String email, Change change) {
+		this(userId, email, change, null, null);
+	}
+
+	public static UserChangedEvent created(Long userId, String email, Snapshot after) {
+		return new UserChangedEvent(userId, email, Change.CREATED, null, after);
+	}
+
+	public static UserChangedEvent updated(Long userId, String email) {
+		return new UserChangedEvent(userId, email, Change.UPDATED);
+	}
+
+	public static UserChangedEvent updated(Long userId, String email, Snapshot before, Snapshot after) {
+		return new UserChangedEvent(userId, email, Change.UPDATED, before, after);
+	}
+
+	public static UserChangedEvent deleted(Long userId, String email) {
+		return new UserChangedEvent(userId, email, Change.DELETED);
+	}
+
+	public static UserChangedEvent deleted(Long userId, String email, Snapshot before) {
+		return new UserChangedEvent(userId, email, Change.DELETED, before, null);
+	}
+
+	//new rows only, no existing user was touched
+	public static UserChangedEvent imported() {
+		return new UserChangedEvent(null, null, Change.IMPORTED);
+	}
+
+	//role or status changed on many rows at once
+	public static UserChangedEvent bulkUpdated(List<String> emails) {
+		return new UserChangedEvent(null, null, Change.BULK_UPDATED, null, null, List.copyOf(emails));
+	}
+
+	//only manager ids changed, nothing carried in a token: every report of the before manager
+	//now reports to the after one
+	public static UserChangedEvent managerReassigned(Integer fromManagerId, Integer toManagerId) {
+		return new UserChangedEvent(null, null, Change.MANAGER_REASSIGNED, Snapshot.ofManager(fromManagerId),
+				Snapshot.ofManager(toManagerId));
+	}
+
+	public boolean deleted() {
+		return change==Change.DELETED;
+	}
+}
@@ -1,7 +1,9 @@
 package com.wellness.exception;
 
+import org.springframework.dao.DataAccessResourceFailureException;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
+import org.springframework.transaction.CannotCreateTransactionException;
 import org.springframework.web.bind.annotation.ExceptionHandler;
 import org.springframework.web.bind.annotation.RestControllerAdvice;
 
@@ -17,11 +19,28 @@ public class GlobalExceptionHandler {
 		return new ResponseEntity<>(ex.getMessage(),HttpStatus.CONFLICT);
 	}
 	
+	//the row changed since the client read it
+	@ExceptionHandler(VersionConflictException.class)
+	public ResponseEntity<String> handleVersionConflict(VersionConflictException ex){
+		return new ResponseEntity<>(ex.getMessage(),HttpStatus.CONFLICT);
+	}
+	
 	@ExceptionHandler(AuthenticationFailedException.class)
 	public ResponseEntity<String> handleAuthenticationFailed(AuthenticationFailedException ex){
 		return new ResponseEntity<>(ex.getMessage(),HttpStatus.UNAUTHORIZED);
 	}
 	
+	@ExceptionHandler(ServiceBusyException.class)
+	public ResponseEntity<String> handleServiceBusy(ServiceBusyException ex){
+		return new ResponseEntity<>(ex.getMessage(),HttpStatus.SERVICE_UNAVAILABLE);
+	}
+	
+	//no pooled connection within the wait limit, driver details are not sent to the client
+	@ExceptionHandler({DataAccessResourceFailureException.class, CannotCreateTransactionException.class})
+	public ResponseEntity<String> handleDatabaseBusy(Exception ex){
+		return new ResponseEntity<>("Database is busy, please retry",HttpStatus.SERVICE_UNAVAILABLE);
+	}
+	
 	@ExceptionHandler(IllegalArgumentException.class)
 	public ResponseEntity<String> handleIllegalArgument(IllegalArgumentException ex){
 		return new ResponseEntity<>(ex.getMessage(),HttpStatus.BAD_REQUEST);
@@ -0,0 +1,7 @@
+package com.wellness.exception;
+
+public class ServiceBusyException extends RuntimeException{
+	public ServiceBusyException(String msg){
+		super(msg);
+	}
+}
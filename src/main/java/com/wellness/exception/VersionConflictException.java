@@ -0,0 +1,7 @@
+package com.wellness.exception;
+
+public class VersionConflictException extends RuntimeException{
+	public VersionConflictException(String msg){
+		super(msg);
+	}
+}
@@ -0,0 +1,14 @@
+-- users table as it was created by hibernate ddl-auto before migrations were introduced
+-- databases that already have it are baselined at version 1 and skip this script
+CREATE TABLE IF NOT EXISTS users (
+    user_id     BIGINT       NOT NULL AUTO_INCREMENT,
+    name        VARCHAR(255) NOT NULL,
+    email       VARCHAR(255) NOT NULL,
+    password    VARCHAR(255) NOT NULL,
+    department  VARCHAR(255) NOT NULL,
+    manager_id  INT          NULL,
+    role        VARCHAR(20)  NOT NULL,
+    status      VARCHAR(20)  NOT NULL,
+    created_at  DATETIME(6)  NULL,
+    PRIMARY KEY (user_id)
+);
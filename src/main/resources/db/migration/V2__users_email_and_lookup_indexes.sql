@@ -0,0 +1,7 @@
+-- emails are stored lower case so the unique index is case-insensitive on every database
+UPDATE users SET email = LOWER(TRIM(email));
+
+CREATE UNIQUE INDEX ux_users_email ON users (email);
+CREATE INDEX ix_users_department ON users (department);
+CREATE INDEX ix_users_manager_id ON users (manager_id);
+CREATE INDEX ix_users_status ON users (status);
@@ -0,0 +1,2 @@
+-- row version for optimistic locking and etags, every write increments it
+ALTER TABLE users ADD COLUMN version BIGINT NOT NULL DEFAULT 0;
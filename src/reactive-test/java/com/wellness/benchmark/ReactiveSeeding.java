@@ -0,0 +1,41 @@
+package com.wellness.benchmark;
+
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.List;
+
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.r2dbc.core.DatabaseClient;
+
+import com.wellness.benchmark.LoadTestHarness.SeededUser;
+
+/**
+ * LoadTestHarness seeding for ReactiveUserApplication, which has no JDBC. Built only with
+ * the reactive profile and called by the harness through reflection.
+ */
+final class ReactiveSeeding {
+
+	private ReactiveSeeding() {
+	}
+
+	//one statement per row with named parameters, which DatabaseClient rewrites to the driver's placeholders
+	static List<SeededUser> seed(ConfigurableApplicationContext app, List<Object[]> rows) {
+		DatabaseClient db = app.getBean(DatabaseClient.class);
+		String[] names = {"name", "email", "password", "department", "managerId", "role", "status", "createdAt", "version"};
+		Class<?>[] types = {String.class, String.class, String.class, String.class, Integer.class,
+				String.class, String.class, LocalDateTime.class, Long.class};
+		String insert = LoadTestHarness.INSERT_USER.substring(0, LoadTestHarness.INSERT_USER.indexOf(" values"))
+				+ " values (:" + String.join(", :", names) + ")";
+		for(Object[] row : rows) {
+			DatabaseClient.GenericExecuteSpec spec = db.sql(insert);
+			for(int i = 0; i < row.length; i++) {
+				Object value = row[i] instanceof Timestamp ts ? ts.toLocalDateTime() : row[i];
+				spec = value==null ? spec.bindNull(names[i], types[i]) : spec.bind(names[i], value);
+			}
+			spec.then().block();
+		}
+		return db.sql(LoadTestHarness.SELECT_EMPLOYEES)
+				.map(row -> new SeededUser(row.get(0, Long.class), row.get(1, String.class), null))
+				.all().collectList().block();
+	}
+}
@@ -0,0 +1,227 @@
+package com.wellness.reactive;
+
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.context.SpringBootTest.WebEnvironment;
+import org.springframework.boot.test.web.server.LocalServerPort;
+import org.springframework.http.MediaType;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.web.reactive.server.WebTestClient;
+
+import java.util.UUID;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * End-to-end tests for the WebFlux + R2DBC variant on an in-memory H2 database.
+ * Paths, bodies and status codes should match what MyController returns.
+ */
+@SpringBootTest(classes = ReactiveUserApplication.class, webEnvironment = WebEnvironment.RANDOM_PORT, properties = {
+        "spring.r2dbc.url=r2dbc:h2:mem:///reactiveapidb;MODE=MySQL;DATABASE_TO_LOWER=TRUE;DEFAULT_NULL_ORDERING=HIGH;DB_CLOSE_DELAY=-1",
+        "password.bcrypt.cost=4"
+})
+@ActiveProfiles({"reactive", "reactive-h2"})
+class ReactiveUserApiTest {
+
+    @LocalServerPort
+    private int port;
+
+    private WebTestClient client;
+
+    @BeforeEach
+    void setUp() {
+        client = WebTestClient.bindToServer().baseUrl("http://localhost:" + port).build();
+    }
+
+    private String register(String email, String role, String department) {
+        client.post().uri("/register")
+                .contentType(MediaType.APPLICATION_JSON)
+                .bodyValue("{\"name\":\"Reactive\",\"email\":\"" + email + "\",\"password\":\"pw\",\"department\":\""
+                        + department + "\",\"role\":\"" + role + "\",\"status\":\"ACTIVE\"}")
+                .exchange()
+                .expectStatus().isOk()
+                .expectBody(String.class).isEqualTo("User registered successfully");
+        return email;
+    }
+
+    private String login(String email) {
+        return client.post().uri("/login")
+                .contentType(MediaType.APPLICATION_JSON)
+                .bodyValue("{\"email\":\"" + email + "\",\"password\":\"pw\"}")
+                .exchange()
+                .expectStatus().isOk()
+                .expectBody(String.class).returnResult().getResponseBody();
+    }
+
+    private static String unique(String prefix) {
+        return prefix + "-" + UUID.randomUUID() + "@example.com";
+    }
+
+    @Test
+    @DisplayName("register, login, viewProfile → token from /login opens the caller's profile, no password in the body")
+    void registerLoginViewProfile() {
+        String email = register(unique("emp"), "EMPLOYEE", "IT");
+        String token = login(email.toUpperCase());
+
+        Long id = client.get().uri("/viewAllUsers?department=IT&size=500")
+                .header("Authorization", "Bearer " + login(register(unique("admin"), "ADMIN", "IT")))
+                .exchange()
+                .expectStatus().isOk()
+                .expectBody(String.class).returnResult().getResponseBody()
+                .contains(email) ? findId(email) : null;
+        assertThat(id).isNotNull();
+
+        client.get().uri("/viewProfile/{id}", id)
+                .header("Authorization", "Bearer " + token)
+                .exchange()
+                .expectStatus().isOk()
+                .expectBody()
+                .jsonPath("$.email").isEqualTo(email)
+                .jsonPath("$.password").doesNotExist();
+    }
+
+    private Long findId(String email) {
+        String admin = login(register(unique("finder"), "ADMIN", "Ops"));
+        return client.get().uri("/viewAllUsers?department=IT&size=500")
+                .header("Authorization", "Bearer " + admin)
+                .exchange()
+                .expectBody(ReactivePage.class).returnResult().getResponseBody()
+                .users().stream().filter(u -> u.email().equals(email)).findFirst().orElseThrow().userId();
+    }
+
+    record ReactivePage(java.util.List<ReactiveUser> users, String nextCursor) {
+    }
+
+    record ReactiveUser(Long userId, String email) {
+    }
+
+    @Test
+    @DisplayName("POST /register → 409 when the email is taken, whatever its case")
+    void register_duplicate() {
+        String email = register(unique("dup"), "EMPLOYEE", "IT");
+
+        client.post().uri("/register")
+                .contentType(MediaType.APPLICATION_JSON)
+                .bodyValue("{\"name\":\"Again\",\"email\":\"" + email.toUpperCase() + "\",\"password\":\"pw\","
+                        + "\"department\":\"IT\",\"role\":\"EMPLOYEE\",\"status\":\"ACTIVE\"}")
+                .exchange()
+                .expectStatus().isEqualTo(409)
+                .expectBody(String.class).isEqualTo("User already exists");
+    }
+
+    @Test
+    @DisplayName("POST /login → 401 for a wrong password, 404 for an unknown user")
+    void login_failures() {
+        String email = register(unique("login"), "EMPLOYEE", "IT");
+
+        client.post().uri("/login")
+                .contentType(MediaType.APPLICATION_JSON)
+                .bodyValue("{\"email\":\"" + email + "\",\"password\":\"wrong\"}")
+                .exchange()
+                .expectStatus().isUnauthorized()
+                .expectBody(String.class).isEqualTo("Login failed!");
+
+        client.post().uri("/login")
+                .contentType(MediaType.APPLICATION_JSON)
+                .bodyValue("{\"email\":\"" + unique("ghost") + "\",\"password\":\"pw\"}")
+                .exchange()
+                .expectStatus().isNotFound();
+    }
+
+    @Test
+    @DisplayName("authorization → 403 without a token, 401 for an invalid token")
+    void authorization() {
+        String token = login(register(unique("auth"), "EMPLOYEE", "IT"));
+
+        client.get().uri("/viewProfile/1").exchange().expectStatus().isForbidden();
+        client.get().uri("/viewProfile/1")
+                .header("Authorization", "Bearer " + token.substring(0, token.length() - 2) + "xx")
+                .exchange()
+                .expectStatus().isUnauthorized()
+                .expectBody(String.class).isEqualTo("Invalid or expired token");
+    }
+
+    @Test
+    @DisplayName("GET /viewAllUsers → keyset pages follow nextCursor until it is null")
+    void viewAllUsers_pages() {
+        String department = "Pages-" + UUID.randomUUID();
+        for (int i = 0; i < 3; i++) {
+            register(unique("page"), "EMPLOYEE", department);
+        }
+        String admin = login(register(unique("pager"), "ADMIN", "Ops"));
+
+        ReactivePage first = client.get().uri("/viewAllUsers?size=2&department={d}", department)
+                .header("Authorization", "Bearer " + admin)
+                .exchange()
+                .expectStatus().isOk()
+                .expectBody(ReactivePage.class).returnResult().getResponseBody();
+        ReactivePage second = client.get().uri("/viewAllUsers?size=2&department={d}&cursor={c}", department, first.nextCursor())
+                .header("Authorization", "Bearer " + admin)
+                .exchange()
+                .expectStatus().isOk()
+                .expectBody(ReactivePage.class).returnResult().getResponseBody();
+
+        assertThat(first.users()).hasSize(2);
+        assertThat(first.nextCursor()).isNotNull();
+        assertThat(second.users()).hasSize(1);
+        assertThat(second.nextCursor()).isNull();
+
+        client.get().uri("/viewAllUsers?size=0")
+                .header("Authorization", "Bearer " + admin)
+                .exchange()
+                .expectStatus().isBadRequest();
+    }
+
+    @Test
+    @DisplayName("PUT /bulkUpdateStatus → one statement, only rows that change are counted")
+    void bulkUpdateStatus() {
+        String department = "Bulk-" + UUID.randomUUID();
+        register(unique("bulk"), "EMPLOYEE", department);
+        register(unique("bulk"), "EMPLOYEE", department);
+        String admin = login(register(unique("bulker"), "ADMIN", "Ops"));
+
+        for (int expected : new int[] {2, 0}) {
+            client.put().uri("/bulkUpdateStatus")
+                    .header("Authorization", "Bearer " + admin)
+                    .contentType(MediaType.APPLICATION_JSON)
+                    .bodyValue("{\"department\":\"" + department + "\",\"status\":\"INACTIVE\"}")
+                    .exchange()
+                    .expectStatus().isOk()
+                    .expectBody().jsonPath("$.affected").isEqualTo(expected);
+        }
+    }
+
+    @Test
+    @DisplayName("PUT /updateUserAdmin → 200 without a version or at the current one, 409 when stale, 404 when unknown")
+    void updateUserAdmin_compareAndSet() {
+        String email = register(unique("cas"), "EMPLOYEE", "IT");
+        String admin = login(register(unique("caser"), "ADMIN", "Ops"));
+
+        for (String version : new String[] {"null", "1"}) {
+            client.put().uri("/updateUserAdmin")
+                    .header("Authorization", "Bearer " + admin)
+                    .contentType(MediaType.APPLICATION_JSON)
+                    .bodyValue("{\"email\":\"" + email + "\",\"department\":\"HR\",\"role\":\"EMPLOYEE\","
+                            + "\"status\":\"ACTIVE\",\"version\":" + version + "}")
+                    .exchange()
+                    .expectStatus().isOk();
+        }
+        client.put().uri("/updateUserAdmin")
+                .header("Authorization", "Bearer " + admin)
+                .contentType(MediaType.APPLICATION_JSON)
+                .bodyValue("{\"email\":\"" + email + "\",\"department\":\"Ops\",\"role\":\"EMPLOYEE\","
+                        + "\"status\":\"ACTIVE\",\"version\":1}")
+                .exchange()
+                .expectStatus().isEqualTo(409);
+        client.put().uri("/updateUserAdmin")
+                .header("Authorization", "Bearer " + admin)
+                .contentType(MediaType.APPLICATION_JSON)
+                .bodyValue("{\"email\":\"" + unique("ghost") + "\",\"department\":\"Ops\",\"role\":\"EMPLOYEE\","
+                        + "\"status\":\"ACTIVE\"}")
+                .exchange()
+                .expectStatus().isNotFound();
+    }
+}
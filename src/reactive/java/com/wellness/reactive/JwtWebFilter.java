@@ -0,0 +1,75 @@
+package com.wellness.reactive;
+
+import java.nio.charset.StandardCharsets;
+
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.server.reactive.ServerHttpResponse;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.context.ReactiveSecurityContextHolder;
+import org.springframework.security.core.userdetails.UserDetails;
+import org.springframework.web.server.ServerWebExchange;
+import org.springframework.web.server.WebFilter;
+import org.springframework.web.server.WebFilterChain;
+
+import com.wellness.exception.AuthenticationFailedException;
+import com.wellness.service.JwtService;
+
+import io.jsonwebtoken.Claims;
+import lombok.RequiredArgsConstructor;
+import reactor.core.publisher.Mono;
+
+/**
+ * WebFlux counterpart of JwtFilters. Not a bean: it is added to the security chain only,
+ * a WebFilter bean would also run outside it.
+ */
+@RequiredArgsConstructor
+public class JwtWebFilter implements WebFilter {
+	
+	private final JwtService jwtService;
+	
+	private final MyReactiveUserDetailsService userDetailsService;
+	
+	// when true the principal comes from the token claims instead of the database
+	private final boolean stateless;
+	
+	@Override
+	public Mono<Void> filter(ServerWebExchange exchange, WebFilterChain chain) {
+		String path = exchange.getRequest().getPath().pathWithinApplication().value();
+		String authHeader = exchange.getRequest().getHeaders().getFirst(HttpHeaders.AUTHORIZATION);
+		if(path.equals("/login") || path.equals("/register") || authHeader==null || !authHeader.startsWith("Bearer ")) {
+			return chain.filter(exchange);
+		}
+		//only a failed authentication is answered here, errors further down the chain pass through
+		return authenticate(authHeader.substring(7))
+				.map(auth -> chain.filter(exchange).contextWrite(ReactiveSecurityContextHolder.withAuthentication(auth)))
+				.defaultIfEmpty(Mono.defer(() -> chain.filter(exchange)))
+				.onErrorResume(e -> Mono.just(unauthorized(exchange.getResponse())))
+				.flatMap(next -> next);
+	}
+	
+	private Mono<Authentication> authenticate(String token) {
+		return Mono.fromCallable(() -> jwtService.verify(token))
+				.flatMap(claims -> principal(claims).filter(user -> jwtService.validateToken(claims, user)))
+				.map(user -> new UsernamePasswordAuthenticationToken(user, null, user.getAuthorities()));
+	}
+	
+	private Mono<UserDetails> principal(Claims claims) {
+		if(!stateless) {
+			return userDetailsService.findByUsername(claims.getSubject());
+		}
+		if(jwtService.isRevoked(claims)) {
+			return Mono.error(new AuthenticationFailedException("Token has been revoked"));
+		}
+		return Mono.just(jwtService.toPrincipal(claims));
+	}
+	
+	private static Mono<Void> unauthorized(ServerHttpResponse response) {
+		response.setStatusCode(HttpStatus.UNAUTHORIZED);
+		response.getHeaders().setContentType(MediaType.TEXT_PLAIN);
+		byte[] body = "Invalid or expired token".getBytes(StandardCharsets.UTF_8);
+		return response.writeWith(Mono.just(response.bufferFactory().wrap(body)));
+	}
+}
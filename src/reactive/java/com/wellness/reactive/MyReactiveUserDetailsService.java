@@ -0,0 +1,66 @@
+package com.wellness.reactive;
+
+import java.time.Duration;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.event.EventListener;
+import org.springframework.security.core.userdetails.UserDetails;
+import org.springframework.stereotype.Service;
+
+import com.github.benmanes.caffeine.cache.AsyncCache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.wellness.data.UserPrinciple;
+import com.wellness.data.Users;
+import com.wellness.event.UserChangedEvent;
+import com.wellness.event.UserChangedEvent.Change;
+import com.wellness.exception.UserNotFoundException;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import reactor.core.publisher.Mono;
+
+//not a ReactiveUserDetailsService bean: spring security would build a password authentication
+//manager around it, while the only authentication here is the bearer token in JwtWebFilter
+@Service
+public class MyReactiveUserDetailsService implements MeterBinder {
+	private final ReactiveUserRepository userRepo;
+	
+	// users by email, concurrent misses for the same email share one query
+	private final AsyncCache<String, Users> cache;
+	
+	public MyReactiveUserDetailsService(ReactiveUserRepository userRepo,
+			@Value("${users.details-cache.max-size:10000}") long maxSize,
+			@Value("${users.details-cache.ttl:PT5M}") Duration ttl) {
+		this.userRepo = userRepo;
+		this.cache = Caffeine.newBuilder()
+				.maximumSize(maxSize)
+				.expireAfterWrite(ttl)
+				.recordStats()
+				.buildAsync();
+	}
+	
+	//missing users are not cached, the future completes with null and the entry is dropped
+	//cancellation is not passed on, other subscribers may be waiting for the same future
+	public Mono<UserDetails> findByUsername(String email) {
+		return Mono.fromFuture(() -> cache.get(Users.normalizeEmail(email),
+						(key, executor) -> userRepo.findByEmail(key).toFuture()), true)
+				.switchIfEmpty(Mono.error(() -> new UserNotFoundException("User not found!")))
+				.map(UserPrinciple::new);
+	}
+	
+	@EventListener
+	public void onUserChanged(UserChangedEvent event) {
+		if(event.change()==Change.BULK_UPDATED || event.change()==Change.MANAGER_REASSIGNED) {
+			cache.synchronous().invalidateAll();
+		}
+		else if(event.email()!=null) {
+			cache.synchronous().invalidate(event.email());
+		}
+	}
+	
+	@Override
+	public void bindTo(MeterRegistry registry) {
+		CaffeineCacheMetrics.monitor(registry, cache.synchronous(), "users.details");
+	}
+}
@@ -0,0 +1,22 @@
+package com.wellness.reactive;
+
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.data.r2dbc.convert.R2dbcCustomConversions;
+import org.springframework.data.r2dbc.mapping.R2dbcMappingContext;
+import org.springframework.data.relational.RelationalManagedTypes;
+
+@Configuration(proxyBeanMethods = false)
+public class ReactiveDataConfiguration {
+
+	//unquoted identifiers, so the database folds their case the same way it does for the
+	//JPA side; quoted upper case names miss the lower case H2 schema
+	@Bean
+	public R2dbcMappingContext r2dbcMappingContext(R2dbcCustomConversions conversions, RelationalManagedTypes managedTypes) {
+		R2dbcMappingContext context = new R2dbcMappingContext();
+		context.setForceQuote(false);
+		context.setSimpleTypeHolder(conversions.getSimpleTypeHolder());
+		context.setManagedTypes(managedTypes);
+		return context;
+	}
+}
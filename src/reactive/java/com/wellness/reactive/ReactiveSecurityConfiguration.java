@@ -0,0 +1,53 @@
+package com.wellness.reactive;
+
+import java.time.Duration;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.http.HttpMethod;
+import org.springframework.http.HttpStatus;
+import org.springframework.security.config.annotation.method.configuration.EnableReactiveMethodSecurity;
+import org.springframework.security.config.annotation.web.reactive.EnableWebFluxSecurity;
+import org.springframework.security.config.web.server.SecurityWebFiltersOrder;
+import org.springframework.security.config.web.server.ServerHttpSecurity;
+import org.springframework.security.web.server.SecurityWebFilterChain;
+import org.springframework.security.web.server.authentication.HttpStatusServerEntryPoint;
+import org.springframework.security.web.server.context.NoOpServerSecurityContextRepository;
+
+import com.wellness.configurations.BoundedPasswordEncoder;
+import com.wellness.configurations.PasswordHashingExecutor;
+import com.wellness.service.JwtService;
+
+@Configuration
+@EnableWebFluxSecurity
+@EnableReactiveMethodSecurity
+public class ReactiveSecurityConfiguration {
+	
+	//same encoder as SecurityConfigurations, the reactive code uses its async methods
+	@Bean
+	public BoundedPasswordEncoder passwordEncoder(PasswordHashingExecutor hashingExecutor,
+			@Value("${password.bcrypt.cost:0}") int fixedCost,
+			@Value("${password.bcrypt.latency-budget:PT0.25S}") Duration budget,
+			@Value("${password.bcrypt.min-cost:10}") int minCost,
+			@Value("${password.bcrypt.max-cost:16}") int maxCost) {
+		return BoundedPasswordEncoder.bcrypt(hashingExecutor, fixedCost, budget, minCost, maxCost);
+	}
+	
+	//stateless like the servlet chain: nothing is stored between requests, missing credentials get 403
+	@Bean
+	public SecurityWebFilterChain springWebFilterChain(ServerHttpSecurity http, JwtService jwtService,
+			MyReactiveUserDetailsService userDetailsService, @Value("${jwt.stateless:false}") boolean stateless) {
+		return http.csrf(c->c.disable())
+				.httpBasic(b->b.disable())
+				.formLogin(f->f.disable())
+				.securityContextRepository(NoOpServerSecurityContextRepository.getInstance())
+				.authorizeExchange(exchange->exchange
+						.pathMatchers(HttpMethod.POST, "/register", "/login")
+						.permitAll()
+						.anyExchange().authenticated())
+				.exceptionHandling(e->e.authenticationEntryPoint(new HttpStatusServerEntryPoint(HttpStatus.FORBIDDEN)))
+				.addFilterAt(new JwtWebFilter(jwtService, userDetailsService, stateless), SecurityWebFiltersOrder.AUTHENTICATION)
+				.build();
+	}
+}
@@ -0,0 +1,39 @@
+package com.wellness.reactive;
+
+import org.springframework.boot.SpringApplication;
+import org.springframework.boot.autoconfigure.SpringBootApplication;
+import org.springframework.boot.flyway.autoconfigure.FlywayAutoConfiguration;
+import org.springframework.boot.hibernate.autoconfigure.HibernateJpaAutoConfiguration;
+import org.springframework.boot.jdbc.autoconfigure.DataSourceAutoConfiguration;
+import org.springframework.boot.security.autoconfigure.ReactiveUserDetailsServiceAutoConfiguration;
+import org.springframework.context.annotation.Import;
+import org.springframework.scheduling.annotation.EnableScheduling;
+
+import com.wellness.configurations.PasswordHashingExecutor;
+import com.wellness.exception.GlobalExceptionHandler;
+import com.wellness.service.JwtCodec;
+import com.wellness.service.JwtService;
+import com.wellness.service.TokenVersionRegistry;
+import com.wellness.service.VerifiedTokenCache;
+
+/**
+ * Non-blocking variant of the user API: WebFlux on Netty with R2DBC instead of JDBC.
+ * Uses the same DTOs, JWT services, hashing pool and exception mapping as the servlet application.
+ * Built by the reactive Maven profile, which makes it the main class of the jar.
+ * Runs with the "reactive" profile (MySQL) or "reactive,reactive-h2" for an in-memory database:
+ *   mvn -Preactive spring-boot:run -Dspring-boot.run.profiles=reactive,reactive-h2
+ */
+//no JDBC, and no generated in-memory user since tokens are the only credentials
+@SpringBootApplication(exclude = {DataSourceAutoConfiguration.class, HibernateJpaAutoConfiguration.class,
+		FlywayAutoConfiguration.class, ReactiveUserDetailsServiceAutoConfiguration.class})
+@Import({JwtCodec.class, VerifiedTokenCache.class, TokenVersionRegistry.class, JwtService.class,
+		PasswordHashingExecutor.class, GlobalExceptionHandler.class})
+@EnableScheduling
+public class ReactiveUserApplication {
+
+	public static void main(String[] args) {
+		SpringApplication application = new SpringApplication(ReactiveUserApplication.class);
+		application.setAdditionalProfiles("reactive");
+		application.run(args);
+	}
+}
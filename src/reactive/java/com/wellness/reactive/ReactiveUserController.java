@@ -0,0 +1,127 @@
+package com.wellness.reactive;
+
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.security.access.prepost.PreAuthorize;
+import org.springframework.web.bind.annotation.DeleteMapping;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.PutMapping;
+import org.springframework.web.bind.annotation.RequestBody;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+
+import com.wellness.data.Role;
+import com.wellness.data.Status;
+import com.wellness.data.Users;
+import com.wellness.dto.BulkRoleUpdate;
+import com.wellness.dto.BulkStatusUpdate;
+import com.wellness.dto.BulkUpdateResult;
+import com.wellness.dto.ManagerReassignment;
+import com.wellness.dto.MyRequest;
+import com.wellness.dto.MyResponse;
+import com.wellness.dto.UpdateUser;
+import com.wellness.dto.UpdateUserAdmin;
+import com.wellness.dto.UserPage;
+import com.wellness.exception.UserNotFoundException;
+import com.wellness.service.JwtService;
+
+import lombok.RequiredArgsConstructor;
+import reactor.core.publisher.Mono;
+
+//same paths, bodies and status codes as MyController; /importUsers is servlet only
+@RestController
+@RequiredArgsConstructor
+public class ReactiveUserController {
+	
+	private final ReactiveUserService userService;
+	
+	private final JwtService jwtService;
+	
+	@PostMapping("/register")
+	public Mono<ResponseEntity<String>> register(@RequestBody Users user){
+		return userService.registerUser(user)
+				.map(saved -> ResponseEntity.status(HttpStatus.OK).body("User registered successfully"));
+	}
+	
+	@PostMapping("/login")
+	public Mono<ResponseEntity<String>> login(@RequestBody MyRequest user) {
+		return userService.authenticate(user.getEmail(), user.getPassword())
+				.map(principal -> ResponseEntity.status(HttpStatus.OK).body(jwtService.generateToken(principal)));
+	}
+	
+	@PreAuthorize("hasRole('EMPLOYEE')")
+	@GetMapping("/viewProfile/{id}")
+	public Mono<ResponseEntity<MyResponse>> viewProfile(@PathVariable Long id) {
+		return userService.getProfile(id).map(ResponseEntity::ok);
+	}
+	
+	@PreAuthorize("hasRole('EMPLOYEE')")
+	@DeleteMapping("/deleteProfile/{id}")
+	public Mono<ResponseEntity<String>> deleteProfile(@PathVariable Long id){
+		return userService.deleteUser(id).map(result -> {
+			if(result.equalsIgnoreCase("User not found!")) {
+				throw new UserNotFoundException("User not found!");
+			}
+			return ResponseEntity.status(HttpStatus.OK).body(result);
+		});
+	}
+	
+	@PreAuthorize("hasRole('EMPLOYEE')")
+	@PutMapping("/updateProfile")
+	public Mono<ResponseEntity<String>> updateProfile(@RequestBody UpdateUser user){
+		return userService.updateUser(user)
+				.map(updated -> ResponseEntity.status(HttpStatus.OK).body("User updated successfully!"));
+	}
+	
+	@PreAuthorize("hasRole('ADMIN')")
+	@PostMapping("/addUser")
+	public Mono<ResponseEntity<String>> addUser(@RequestBody Users user){
+		return userService.registerUser(user)
+				.map(saved -> ResponseEntity.status(HttpStatus.OK).body("Users registered successfully"));
+	}
+	
+	@PreAuthorize("hasRole('ADMIN')")
+	@GetMapping("/viewAllUsers")
+	public Mono<ResponseEntity<UserPage>> viewAllUsers(@RequestParam(required=false) String cursor,
+			@RequestParam(defaultValue="50") int size,
+			@RequestParam(required=false) String department,
+			@RequestParam(required=false) Role role,
+			@RequestParam(required=false) Status status) {
+		return userService.getUsers(cursor, size, department, role, status).map(ResponseEntity::ok);
+	}
+	
+	@PreAuthorize("hasRole('ADMIN')")
+	@PutMapping("/updateUserAdmin")
+	public Mono<ResponseEntity<String>> updateUserAdmin(@RequestBody UpdateUserAdmin user){
+		return userService.updateUserAdmin(user)
+				.map(updated -> ResponseEntity.status(HttpStatus.OK).body("User updated successfully!"));
+	}
+	
+	@PreAuthorize("hasRole('ADMIN')")
+	@PutMapping("/bulkUpdateStatus")
+	public Mono<ResponseEntity<BulkUpdateResult>> bulkUpdateStatus(@RequestBody BulkStatusUpdate update){
+		return userService.updateStatusByDepartment(update).map(ResponseEntity::ok);
+	}
+	
+	@PreAuthorize("hasRole('ADMIN')")
+	@PutMapping("/bulkUpdateRole")
+	public Mono<ResponseEntity<BulkUpdateResult>> bulkUpdateRole(@RequestBody BulkRoleUpdate update){
+		return userService.updateRoleByIds(update).map(ResponseEntity::ok);
+	}
+	
+	@PreAuthorize("hasRole('ADMIN')")
+	@PutMapping("/reassignManager")
+	public Mono<ResponseEntity<BulkUpdateResult>> reassignManager(@RequestBody ManagerReassignment reassignment){
+		return userService.reassignManager(reassignment).map(ResponseEntity::ok);
+	}
+	
+	@PreAuthorize("hasRole('ADMIN')")
+	@DeleteMapping("/deleteUserAdmin/{id}")
+	public Mono<ResponseEntity<String>> deleteUserAdmin(@PathVariable Long id){
+		return userService.deleteUser(id).map(result -> result.equals("User not found!")
+				? ResponseEntity.status(HttpStatus.NOT_FOUND).body(result)
+				: ResponseEntity.status(HttpStatus.OK).body(result));
+	}
+}
@@ -0,0 +1,196 @@
+package com.wellness.reactive;
+
+import static org.springframework.data.relational.core.query.Criteria.where;
+import static org.springframework.data.relational.core.query.Query.query;
+
+import java.util.Collection;
+import java.util.List;
+
+import org.springframework.data.domain.Sort;
+import org.springframework.data.r2dbc.core.R2dbcEntityTemplate;
+import org.springframework.data.relational.core.query.Criteria;
+import org.springframework.r2dbc.core.DatabaseClient;
+import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
+
+import com.wellness.data.BulkChange;
+import com.wellness.data.Role;
+import com.wellness.data.Status;
+import com.wellness.data.UserState;
+import com.wellness.data.Users;
+import com.wellness.dto.MyResponse;
+
+import lombok.RequiredArgsConstructor;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+/**
+ * R2DBC counterpart of IUserRepository, same statements on the entity template.
+ * A class rather than a Spring Data interface: Users is also a JPA entity, and the servlet
+ * application's repository scan would otherwise claim the interface for JPA.
+ */
+@Repository
+@RequiredArgsConstructor
+public class ReactiveUserRepository {
+
+	private final R2dbcEntityTemplate template;
+
+	public Mono<Users> findById(Long id) {
+		return template.selectOne(query(where("userId").is(id)), Users.class);
+	}
+
+	public Mono<Users> findByEmail(String email) {
+		return template.selectOne(query(where("email").is(email)), Users.class);
+	}
+
+	// public columns only, the password hash never leaves the database on read paths
+	public Mono<MyResponse> findResponseById(Long id) {
+		return template.select(Users.class).as(MyResponse.class)
+				.matching(query(where("userId").is(id)))
+				.one();
+	}
+
+	// the version is only a jpa annotation, spring data rejects its own next to it, so it is kept here
+	public Mono<Users> save(Users user) {
+		if(user.getUserId()==null) {
+			user.setVersion(0L);
+			return template.insert(user);
+		}
+		user.setVersion(user.getVersion()==null ? 1L : user.getVersion() + 1);
+		return template.update(user);
+	}
+
+	public Mono<Void> deleteById(Long id) {
+		return template.delete(query(where("userId").is(id)), Users.class).then();
+	}
+
+	public Mono<UserState> findStateByEmail(String email) {
+		return client().sql("select user_id, version, name, department, role, status, manager_id from users where email = :email")
+				.bind("email", email)
+				.map(row -> new UserState(row.get("user_id", Long.class), row.get("version", Long.class),
+						row.get("name", String.class), row.get("department", String.class),
+						Role.valueOf(row.get("role", String.class)), Status.valueOf(row.get("status", String.class)),
+						row.get("manager_id", Integer.class)))
+				.one();
+	}
+	
+	// compare-and-set: applies only while the row is still at the version the caller read,
+	// a null version applies to whatever is current
+	public Mono<Integer> updateProfileIfVersion(String email, Long version, String name, String department, String password) {
+		return update(ifVersion(client().sql("update users set name = :name, department = :department, password = :password,"
+				+ " version = version + 1 where email = :email" + versionClause(version)), version)
+				.bind("name", name)
+				.bind("department", department)
+				.bind("password", password)
+				.bind("email", email));
+	}
+	
+	public Mono<Integer> updateAdminIfVersion(String email, Long version, String department, Role role, Status status) {
+		return update(ifVersion(client().sql("update users set department = :department, role = :role, status = :status,"
+				+ " version = version + 1 where email = :email" + versionClause(version)), version)
+				.bind("department", department)
+				.bind("role", role.name())
+				.bind("status", status.name())
+				.bind("email", email));
+	}
+	
+	// the row as the update left it, re-read under its row lock only when the update applied
+	@Transactional
+	public Mono<UserState> updateProfile(String email, Long version, String name, String department, String password) {
+		return updateProfileIfVersion(email, version, name, department, password)
+				.flatMap(updated -> updated==0 ? Mono.empty() : findStateByEmail(email));
+	}
+	
+	@Transactional
+	public Mono<UserState> updateAdmin(String email, Long version, String department, Role role, Status status) {
+		return updateAdminIfVersion(email, version, department, role, status)
+				.flatMap(updated -> updated==0 ? Mono.empty() : findStateByEmail(email));
+	}
+	
+	public Mono<Boolean> existsByEmail(String email) {
+		return template.exists(query(where("email").is(email)), Users.class);
+	}
+	
+	// rehash after a login, see IUserRepository.updatePassword
+	public Mono<Integer> updatePassword(Long id, String current, String password) {
+		return update(client().sql("update users set password = :password where user_id = :id and password = :current")
+				.bind("password", password)
+				.bind("id", id)
+				.bind("current", current));
+	}
+
+	// rows already at the target value are skipped so the count is the number actually changed
+	public Mono<Integer> updateStatusByDepartment(String department, Status status) {
+		return update(client().sql("update users set status = :status, version = version + 1 where department = :department and status <> :status")
+				.bind("status", status.name())
+				.bind("department", department));
+	}
+
+	public Mono<Integer> updateRoleByIds(Collection<Long> ids, Role role) {
+		return update(client().sql("update users set role = :role, version = version + 1 where user_id in (:ids) and role <> :role")
+				.bind("role", role.name())
+				.bind("ids", ids));
+	}
+
+	// the update and the emails of the users it changed, read under row locks in the same transaction
+	@Transactional
+	public Mono<BulkChange> changeStatusByDepartment(String department, Status status) {
+		return emails(client().sql("select email from users where department = :department and status <> :status for update")
+				.bind("department", department)
+				.bind("status", status.name()))
+				.flatMap(emails -> emails.isEmpty() ? Mono.just(new BulkChange(0, emails))
+						: updateStatusByDepartment(department, status).map(affected -> new BulkChange(affected, emails)));
+	}
+
+	@Transactional
+	public Mono<BulkChange> changeRoleByIds(Collection<Long> ids, Role role) {
+		return emails(client().sql("select email from users where user_id in (:ids) and role <> :role for update")
+				.bind("ids", ids)
+				.bind("role", role.name()))
+				.flatMap(emails -> emails.isEmpty() ? Mono.just(new BulkChange(0, emails))
+						: updateRoleByIds(ids, role).map(affected -> new BulkChange(affected, emails)));
+	}
+
+	public Mono<Integer> reassignManager(Integer from, Integer to) {
+		DatabaseClient.GenericExecuteSpec spec = client().sql("update users set manager_id = :to, version = version + 1 where manager_id = :from")
+				.bind("from", from);
+		return update(to==null ? spec.bindNull("to", Integer.class) : spec.bind("to", to));
+	}
+
+	// keyset page on the primary key, limit is the page size plus one
+	public Flux<MyResponse> findPageAfter(long after, String department, Role role, Status status, int limit) {
+		Criteria criteria = where("userId").greaterThan(after);
+		if(department!=null) {
+			criteria = criteria.and("department").is(department);
+		}
+		if(role!=null) {
+			criteria = criteria.and("role").is(role);
+		}
+		if(status!=null) {
+			criteria = criteria.and("status").is(status);
+		}
+		return template.select(Users.class).as(MyResponse.class)
+				.matching(query(criteria).sort(Sort.by("userId")).limit(limit))
+				.all();
+	}
+
+	private static String versionClause(Long version) {
+		return version==null ? "" : " and version = :version";
+	}
+
+	private static DatabaseClient.GenericExecuteSpec ifVersion(DatabaseClient.GenericExecuteSpec spec, Long version) {
+		return version==null ? spec : spec.bind("version", version);
+	}
+
+	private DatabaseClient client() {
+		return template.getDatabaseClient();
+	}
+
+	private Mono<List<String>> emails(DatabaseClient.GenericExecuteSpec spec) {
+		return spec.map(row -> row.get("email", String.class)).all().collectList();
+	}
+
+	private Mono<Integer> update(DatabaseClient.GenericExecuteSpec spec) {
+		return spec.fetch().rowsUpdated().map(Long::intValue);
+	}
+}
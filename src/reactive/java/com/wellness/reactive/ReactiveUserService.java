@@ -0,0 +1,186 @@
+package com.wellness.reactive;
+
+import java.time.LocalDateTime;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.stereotype.Service;
+
+import com.wellness.configurations.BoundedPasswordEncoder;
+import com.wellness.data.Role;
+import com.wellness.data.Status;
+import com.wellness.data.UserPrinciple;
+import com.wellness.data.UserState;
+import com.wellness.data.Users;
+import com.wellness.dto.BulkRoleUpdate;
+import com.wellness.dto.BulkStatusUpdate;
+import com.wellness.dto.BulkUpdateResult;
+import com.wellness.dto.ManagerReassignment;
+import com.wellness.dto.MyResponse;
+import com.wellness.dto.UpdateUser;
+import com.wellness.dto.UpdateUserAdmin;
+import com.wellness.dto.UserPage;
+import com.wellness.event.UserChangedEvent;
+import com.wellness.event.UserChangedEvent.Snapshot;
+import com.wellness.exception.AuthenticationFailedException;
+import com.wellness.exception.ServiceBusyException;
+import com.wellness.exception.UserAlreadyExistsException;
+import com.wellness.exception.UserNotFoundException;
+import com.wellness.service.UserService;
+
+import lombok.RequiredArgsConstructor;
+import reactor.core.publisher.Mono;
+
+/**
+ * Reactive counterpart of UserService with the same rules and messages.
+ * Hashing runs on the bounded hashing pool and is awaited without blocking the event loop.
+ */
+@Service
+@RequiredArgsConstructor
+public class ReactiveUserService {
+	
+	private final ReactiveUserRepository userRepository;
+	
+	private final BoundedPasswordEncoder encoder;
+	
+	private final ApplicationEventPublisher publisher;
+	
+	@Value("${users.page.max-size:500}")
+	private int maxPageSize = 500;
+	
+	@Value("${users.bulk.max-ids:10000}")
+	private int maxBulkIds = 10000;
+	
+	// always an insert, the unique index on email decides between concurrent registrations
+	public Mono<Users> registerUser(Users user) {
+		return Mono.fromCallable(() -> {
+					user.prePersist();
+					return user.getPassword();
+				})
+				.flatMap(password -> Mono.fromFuture(() -> encoder.encodeAsync(password)))
+				.flatMap(hash -> {
+					user.setUserId(null);
+					user.setPassword(hash);
+					user.setCreatedAt(LocalDateTime.now());
+					return userRepository.save(user);
+				})
+				.onErrorMap(DataIntegrityViolationException.class, e -> UserService.isDuplicateEmail(e)
+						? new UserAlreadyExistsException("User already exists") : e)
+				.doOnNext(saved -> publisher.publishEvent(UserChangedEvent.created(saved.getUserId(), saved.getEmail(), Snapshot.of(saved))));
+	}
+	
+	public Mono<UserPrinciple> authenticate(String email, String password) {
+		return userRepository.findByEmail(Users.normalizeEmail(email))
+				.switchIfEmpty(Mono.error(() -> new UserNotFoundException("User not found!")))
+				.flatMap(user -> {
+					if(password==null) {
+						return Mono.error(new AuthenticationFailedException("Login failed!"));
+					}
+					return Mono.fromFuture(() -> encoder.matchesAsync(password, user.getPassword()))
+							.flatMap(matches -> matches
+									? rehashIfNeeded(user, password).thenReturn(new UserPrinciple(user))
+									: Mono.error(new AuthenticationFailedException("Login failed!")));
+				});
+	}
+	
+	// hashes below the current cost or without the {bcrypt} prefix are replaced after a successful login
+	private Mono<Void> rehashIfNeeded(Users user, String password) {
+		if(!encoder.upgradeEncoding(user.getPassword())) {
+			return Mono.empty();
+		}
+		return Mono.fromFuture(() -> encoder.encodeAsync(password))
+				.flatMap(hash -> userRepository.updatePassword(user.getUserId(), user.getPassword(), hash))
+				//the login already succeeded, the next one retries the rehash
+				.onErrorResume(ServiceBusyException.class, e -> Mono.empty())
+				.then();
+	}
+	
+	public Mono<MyResponse> getProfile(Long id) {
+		return userRepository.findResponseById(id)
+				.switchIfEmpty(Mono.error(() -> new UserNotFoundException("User not found")));
+	}
+	
+	public Mono<UserPage> getUsers(String cursor, int size, String department, Role role, Status status) {
+		if(size < 1 || size > maxPageSize) {
+			return Mono.error(new IllegalArgumentException("Page size must be between 1 and " + maxPageSize));
+		}
+		// one extra row tells whether another page exists
+		return Mono.fromCallable(() -> UserService.decodeCursor(cursor))
+				.flatMap(after -> userRepository.findPageAfter(after, department, role, status, size + 1).collectList())
+				.map(rows -> {
+					if(rows.size() <= size) {
+						return new UserPage(rows, null);
+					}
+					return new UserPage(rows.subList(0, size), UserService.encodeCursor(rows.get(size - 1).getUserId()));
+				});
+	}
+	
+	public Mono<String> deleteUser(long id) {
+		return userRepository.findById(id)
+				.flatMap(user -> userRepository.deleteById(id)
+						.then(Mono.fromRunnable(() -> publisher.publishEvent(UserChangedEvent.deleted(id, user.getEmail(), Snapshot.of(user)))))
+						.thenReturn("Profile deleted successfully!"))
+				.defaultIfEmpty("User not found!");
+	}
+	
+	// compare-and-set on the row version without loading it first, see UserService.updateUser
+	public Mono<Boolean> updateUser(UpdateUser update) {
+		String email = Users.normalizeEmail(update.getEmail());
+		return Mono.fromFuture(() -> encoder.encodeAsync(update.getPassword()))
+				.flatMap(hash -> publishUpdate(userRepository.updateProfile(email, update.getVersion(),
+						update.getName(), update.getDepartment(), hash), email));
+	}
+	
+	public Mono<Boolean> updateUserAdmin(UpdateUserAdmin update) {
+		String email = Users.normalizeEmail(update.getEmail());
+		return publishUpdate(userRepository.updateAdmin(email, update.getVersion(), update.getDepartment(),
+				update.getRole(), update.getStatus()), email);
+	}
+	
+	// bulk admin updates run as one UPDATE each and drop every cached user afterwards
+	public Mono<BulkUpdateResult> updateStatusByDepartment(BulkStatusUpdate update) {
+		if(update.getDepartment()==null || update.getDepartment().isBlank() || update.getStatus()==null) {
+			return Mono.error(new IllegalArgumentException("department and status are required"));
+		}
+		return userRepository.changeStatusByDepartment(update.getDepartment(), update.getStatus())
+				.map(change -> publishBulk(change.affected(), UserChangedEvent.bulkUpdated(change.emails())));
+	}
+	
+	public Mono<BulkUpdateResult> updateRoleByIds(BulkRoleUpdate update) {
+		if(update.getUserIds()==null || update.getUserIds().isEmpty() || update.getRole()==null) {
+			return Mono.error(new IllegalArgumentException("userIds and role are required"));
+		}
+		if(update.getUserIds().size() > maxBulkIds) {
+			return Mono.error(new IllegalArgumentException("At most " + maxBulkIds + " userIds per request"));
+		}
+		return userRepository.changeRoleByIds(update.getUserIds(), update.getRole())
+				.map(change -> publishBulk(change.affected(), UserChangedEvent.bulkUpdated(change.emails())));
+	}
+	
+	public Mono<BulkUpdateResult> reassignManager(ManagerReassignment reassignment) {
+		if(reassignment.getFromManagerId()==null) {
+			return Mono.error(new IllegalArgumentException("fromManagerId is required"));
+		}
+		return userRepository.reassignManager(reassignment.getFromManagerId(), reassignment.getToManagerId())
+				.map(affected -> publishBulk(affected, UserChangedEvent.managerReassigned(reassignment.getFromManagerId(),
+						reassignment.getToManagerId())));
+	}
+	
+	private BulkUpdateResult publishBulk(int affected, UserChangedEvent event) {
+		if(affected > 0) {
+			publisher.publishEvent(event);
+		}
+		return new BulkUpdateResult(affected);
+	}
+	
+	private Mono<Boolean> publishUpdate(Mono<UserState> update, String email) {
+		return update
+				.map(after -> {
+					publisher.publishEvent(UserChangedEvent.updated(after.userId(), email, null, Snapshot.of(after)));
+					return true;
+				})
+				.switchIfEmpty(Mono.defer(() -> userRepository.existsByEmail(email)
+						.flatMap(exists -> Mono.error(UserService.updateFailed(exists)))));
+	}
+}
@@ -0,0 +1,57 @@
+package com.wellness.benchmark;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import com.wellness.configurations.PasswordCostCalibrator;
+
+/**
+ * Prints bcrypt throughput for each candidate cost, single threaded and with every core busy.
+ * Usage: BcryptCostHarness [minCost] [maxCost]
+ */
+public class BcryptCostHarness {
+
+	public static void main(String[] args) throws Exception {
+		int minCost = args.length > 0 ? Integer.parseInt(args[0]) : 4;
+		int maxCost = args.length > 1 ? Integer.parseInt(args[1]) : 14;
+		int cores = Runtime.getRuntime().availableProcessors();
+
+		//warm up the JIT before the first measured cost
+		PasswordCostCalibrator.measureNanos(minCost, 20);
+
+		System.out.printf("%-5s %12s %16s %18s%n", "cost", "ms/hash", "hashes/s (1 thr)", "hashes/s/core (" + cores + ")");
+		ExecutorService pool = Executors.newFixedThreadPool(cores);
+		try {
+			for(int cost = minCost; cost <= maxCost; cost++) {
+				int samples = Math.max(2, 256 >> (cost - minCost));
+				long nanos = PasswordCostCalibrator.measureNanos(cost, samples);
+				double single = 1e9 / nanos;
+				double perCore = allCores(pool, cores, cost, samples) / cores;
+				System.out.printf("%-5d %12.2f %16.1f %18.1f%n", cost, nanos / 1e6, single, perCore);
+			}
+		}
+		finally {
+			pool.shutdownNow();
+		}
+	}
+
+	//total hashes per second with one hashing loop per core
+	private static double allCores(ExecutorService pool, int cores, int cost, int samples) throws Exception {
+		List<Future<?>> futures = new ArrayList<>();
+		long start = System.nanoTime();
+		for(int i = 0; i < cores; i++) {
+			futures.add(pool.submit(() -> {
+				for(int s = 0; s < samples; s++) {
+					PasswordCostCalibrator.measureNanos(cost, 1);
+				}
+			}));
+		}
+		for(Future<?> f : futures) {
+			f.get();
+		}
+		return (double) cores * samples * 1e9 / (System.nanoTime() - start);
+	}
+}
@@ -0,0 +1,52 @@
+package com.wellness.benchmark;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+
+import com.wellness.data.Role;
+import com.wellness.data.Status;
+import com.wellness.data.Users;
+import com.wellness.dto.MyResponse;
+
+/**
+ * Deterministic user fixtures shared by the benchmarks.
+ */
+final class BenchmarkUsers {
+
+	private static final LocalDateTime CREATED = LocalDateTime.of(2024, 1, 1, 9, 0);
+
+	private BenchmarkUsers() {
+	}
+
+	static Users user(long id) {
+		Users u = new Users();
+		u.setUserId(id);
+		u.setName("User " + id);
+		u.setEmail("user" + id + "@example.com");
+		u.setPassword("$2a$10$abcdefghijklmnopqrstuuT1wM6Ug7yAI0VxUmeWTxl2JZQLWqKyq");
+		u.setDepartment(id % 3 == 0 ? "HR" : "IT");
+		u.setManagerId((int) (id / 10));
+		u.setRole(id % 10 == 0 ? Role.MANAGER : Role.EMPLOYEE);
+		u.setStatus(Status.ACTIVE);
+		u.setCreatedAt(CREATED);
+		return u;
+	}
+
+	static List<Users> users(int count) {
+		List<Users> users = new ArrayList<>(count);
+		for(int i = 1; i <= count; i++) {
+			users.add(user(i));
+		}
+		return users;
+	}
+
+	static List<MyResponse> responses(int count) {
+		List<MyResponse> responses = new ArrayList<>(count);
+		for(Users u : users(count)) {
+			responses.add(new MyResponse(u.getUserId(), u.getName(), u.getEmail(), u.getDepartment(),
+					u.getManagerId(), u.getRole(), u.getStatus(), u.getCreatedAt()));
+		}
+		return responses;
+	}
+}
@@ -0,0 +1,93 @@
+package com.wellness.benchmark;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Date;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.profile.GCProfiler;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+import com.wellness.service.JwtCodec;
+
+import io.jsonwebtoken.Claims;
+import io.jsonwebtoken.Jwts;
+import io.jsonwebtoken.SignatureAlgorithm;
+import io.jsonwebtoken.security.Keys;
+
+/**
+ * Compares the old per-call key and parser construction with the shared JwtCodec.
+ * Run the main method; the gc profiler reports allocation per token (gc.alloc.rate.norm).
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class JwtCodecBenchmark {
+
+	private static final String SECRET = "123456789012345678901234567890123456";
+
+	private JwtCodec codec;
+	private String token;
+
+	@Setup
+	public void setUp() {
+		codec = new JwtCodec(SECRET, 3);
+		long now = System.currentTimeMillis();
+		token = codec.encode("emp@example.com", Map.of("role", "ROLE_EMPLOYEE"), new Date(now), new Date(now + 3_600_000));
+	}
+
+	@Benchmark
+	public Claims decodePerCallParser() {
+		//what JwtService.extractAllClaims did before the codec
+		return Jwts.parserBuilder()
+				.setSigningKey(Keys.hmacShaKeyFor(SECRET.getBytes(StandardCharsets.UTF_8)))
+				.build()
+				.parseClaimsJws(token)
+				.getBody();
+	}
+
+	@Benchmark
+	public Claims decodeSharedCodec() {
+		return codec.decode(token);
+	}
+
+	@Benchmark
+	public String encodePerCallKey() {
+		long now = System.currentTimeMillis();
+		return Jwts.builder()
+				.setClaims(Map.of("role", "ROLE_EMPLOYEE"))
+				.setSubject("emp@example.com")
+				.setIssuedAt(new Date(now))
+				.setExpiration(new Date(now + 3_600_000))
+				.signWith(Keys.hmacShaKeyFor(SECRET.getBytes(StandardCharsets.UTF_8)), SignatureAlgorithm.HS256)
+				.compact();
+	}
+
+	@Benchmark
+	public String encodeSharedCodec() {
+		long now = System.currentTimeMillis();
+		return codec.encode("emp@example.com", Map.of("role", "ROLE_EMPLOYEE"), new Date(now), new Date(now + 3_600_000));
+	}
+
+	public static void main(String[] args) throws RunnerException {
+		new Runner(new OptionsBuilder()
+				.include(JwtCodecBenchmark.class.getSimpleName())
+				.addProfiler(GCProfiler.class)
+				.build()).run();
+	}
+}
@@ -0,0 +1,81 @@
+package com.wellness.benchmark;
+
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.profile.GCProfiler;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+import com.wellness.data.UserPrinciple;
+import com.wellness.service.JwtCodec;
+import com.wellness.service.JwtService;
+import com.wellness.service.TokenVersionRegistry;
+import com.wellness.service.VerifiedTokenCache;
+
+import io.jsonwebtoken.Claims;
+
+/**
+ * JwtService as the request path uses it: issuing a token at login, and reading
+ * and validating it on every authenticated request (verified-token cache warm).
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class JwtServiceBenchmark {
+
+	private JwtService jwtService;
+	private UserPrinciple principal;
+	private String token;
+	private Claims claims;
+
+	@Setup
+	public void setUp() {
+		jwtService = new JwtService(new JwtCodec("123456789012345678901234567890123456", 3),
+				new VerifiedTokenCache(10_000), new TokenVersionRegistry());
+		principal = new UserPrinciple(BenchmarkUsers.user(1));
+		token = jwtService.generateToken(principal);
+		claims = jwtService.verify(token);
+	}
+
+	@Benchmark
+	public String generateToken() {
+		return jwtService.generateToken(principal);
+	}
+
+	@Benchmark
+	public String extractUserName() {
+		return jwtService.extractUserName(token);
+	}
+
+	@Benchmark
+	public boolean validateToken() {
+		return jwtService.validateToken(token, principal);
+	}
+
+	//what JwtFilters does once the claims are verified
+	@Benchmark
+	public boolean validateClaims() {
+		return jwtService.validateToken(claims, principal);
+	}
+
+	public static void main(String[] args) throws RunnerException {
+		new Runner(new OptionsBuilder()
+				.include(JwtServiceBenchmark.class.getSimpleName())
+				.addProfiler(GCProfiler.class)
+				.build()).run();
+	}
+}
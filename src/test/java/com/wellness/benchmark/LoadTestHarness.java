@@ -0,0 +1,504 @@
+package com.wellness.benchmark;
+
+import java.io.IOException;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.sql.Timestamp;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.EnumMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.LockSupport;
+
+import org.HdrHistogram.ConcurrentHistogram;
+import org.HdrHistogram.Histogram;
+import org.springframework.boot.SpringApplication;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.security.crypto.password.PasswordEncoder;
+
+import com.wellness.WellnessHubProjectApplication;
+
+import tools.jackson.databind.json.JsonMapper;
+
+/**
+ * Open-loop load generator. Starts the app on the loadtest profile (H2), seeds users and
+ * sends a weighted mix of requests at a fixed rate over many HttpClient connections.
+ *
+ * Latency is measured from when a request was scheduled to start, not when it was sent,
+ * so a stalled server shows up in the percentiles (no coordinated omission).
+ *
+ * With --clients=N it runs closed loop instead: N clients each send their next request as
+ * soon as the previous one completes, and latency is measured from the send.
+ * --threads=virtual starts the app with the virtual profile (needs JDK 21+ to take effect).
+ * --stack=reactive starts ReactiveUserApplication on Netty and R2DBC instead; it is only on the
+ * classpath with -Preactive, which in turn leaves out the servlet stack. r2dbc-h2 runs its
+ * queries on the calling thread, so numbers that say something about the reactive stack
+ * need MySQL (--app.spring.r2dbc.url=...).
+ *
+ * Usage: LoadTestHarness [--rate=200] [--duration=PT60S] [--warmup=PT10S] [--users=1000]
+ *   [--mix=login:10,viewProfile:60,viewAllUsers:20,updateProfile:10] [--max-in-flight=2000]
+ *   [--clients=0] [--threads=platform|virtual] [--stack=servlet|reactive]
+ *   [--report=target/loadtest-report.json] [--app.<property>=<value> ...]
+ */
+public class LoadTestHarness {
+
+	static final String PASSWORD = "loadtest-password";
+	static final String ADMIN_EMAIL = "loadtest-admin@example.com";
+	private static final String[] DEPARTMENTS = {"IT", "HR", "QA", "Finance"};
+	private static final int TOKEN_USERS = 100;
+	private static final long HIGHEST_LATENCY_MICROS = TimeUnit.MINUTES.toMicros(1);
+
+	enum Operation {
+		LOGIN("login"), VIEW_PROFILE("viewProfile"), VIEW_ALL_USERS("viewAllUsers"), UPDATE_PROFILE("updateProfile");
+
+		final String key;
+
+		Operation(String key) {
+			this.key = key;
+		}
+	}
+
+	record SeededUser(long id, String email, String token) {
+	}
+
+	//one per operation, all latencies in microseconds from the intended start
+	static final class OperationStats {
+		final Histogram latency = new ConcurrentHistogram(HIGHEST_LATENCY_MICROS, 3);
+		final LongAdder errors = new LongAdder();
+		final LongAdder dropped = new LongAdder();
+		final Map<Integer, LongAdder> statuses = new ConcurrentHashMap<>();
+
+		void record(long latencyNanos, int status) {
+			latency.recordValue(Math.min(HIGHEST_LATENCY_MICROS, TimeUnit.NANOSECONDS.toMicros(latencyNanos)));
+			statuses.computeIfAbsent(status, s -> new LongAdder()).increment();
+			if(status < 200 || status >= 400) {
+				errors.increment();
+			}
+		}
+	}
+
+	private final URI base;
+	private final Options options;
+	private final HttpClient client;
+	private final ExecutorService clientExecutor;
+	private final List<SeededUser> employees;
+	private final String adminToken;
+	private final AtomicInteger inFlight = new AtomicInteger();
+	private Map<Operation, OperationStats> stats = newStats();
+
+	LoadTestHarness(URI base, Options options, List<SeededUser> employees, String adminToken,
+			HttpClient client, ExecutorService clientExecutor) {
+		this.base = base;
+		this.options = options;
+		this.employees = employees;
+		this.adminToken = adminToken;
+		this.client = client;
+		this.clientExecutor = clientExecutor;
+	}
+
+	public static void main(String[] args) throws Exception {
+		Options options = Options.parse(args);
+		List<String> appArgs = new ArrayList<>(options.appArgs());
+		Class<?> application = WellnessHubProjectApplication.class;
+		if(options.reactive()) {
+			application = reactiveClass("com.wellness.reactive.ReactiveUserApplication");
+			//the reactive profile sets its own port
+			appArgs.add("--spring.profiles.active=loadtest,reactive,reactive-h2");
+			appArgs.add("--server.port=0");
+		}
+		else if(options.virtualThreads()) {
+			if(Runtime.version().feature() < 21) {
+				System.out.printf("JDK %s has no virtual threads, the app will run on platform threads%n", Runtime.version());
+			}
+			appArgs.add("--spring.profiles.active=loadtest,virtual");
+		}
+		else {
+			appArgs.add("--spring.profiles.active=loadtest");
+		}
+		//devtools would restart the app in a new class loader and run this main method again
+		System.setProperty("spring.devtools.restart.enabled", "false");
+		ConfigurableApplicationContext app = SpringApplication.run(application,
+				appArgs.toArray(String[]::new));
+		ExecutorService clientExecutor = Executors.newFixedThreadPool(Math.max(4, Runtime.getRuntime().availableProcessors()));
+		try {
+			URI base = URI.create("http://localhost:" + app.getEnvironment().getProperty("local.server.port"));
+			HttpClient client = HttpClient.newBuilder()
+					.version(HttpClient.Version.HTTP_1_1)
+					.connectTimeout(Duration.ofSeconds(5))
+					.executor(clientExecutor)
+					.build();
+			List<SeededUser> seeded = seed(app, options.users());
+			System.out.printf("seeded %d users, logging in %d of them%n", options.users(), Math.min(TOKEN_USERS, seeded.size()));
+			List<SeededUser> employees = new ArrayList<>();
+			for(SeededUser user : seeded.subList(0, Math.min(TOKEN_USERS, seeded.size()))) {
+				employees.add(new SeededUser(user.id(), user.email(), login(client, base, user.email())));
+			}
+			String adminToken = login(client, base, ADMIN_EMAIL);
+
+			LoadTestHarness harness = new LoadTestHarness(base, options, employees, adminToken, client, clientExecutor);
+			System.out.printf("warming up for %s%n", options.warmup());
+			harness.run(options.warmup());
+			harness.stats = newStats();
+			String mode = options.reactive() ? "the reactive stack" : options.threads() + " threads";
+			if(options.clients() > 0) {
+				System.out.printf("running %d clients on %s for %s%n", options.clients(), mode, options.duration());
+			}
+			else {
+				System.out.printf("running %d req/s on %s for %s%n", options.rate(), mode, options.duration());
+			}
+			Instant startedAt = Instant.now();
+			long elapsed = harness.run(options.duration());
+			Map<String, Object> report = harness.report(startedAt, elapsed);
+			Path path = Path.of(options.report());
+			Files.createDirectories(path.toAbsolutePath().getParent());
+			Files.writeString(path, JsonMapper.builder().build().writerWithDefaultPrettyPrinter().writeValueAsString(report));
+			harness.print();
+			System.out.printf("report written to %s%n", path.toAbsolutePath());
+		}
+		finally {
+			clientExecutor.shutdownNow();
+			app.close();
+		}
+	}
+
+	static final String INSERT_USER = "insert into users (name, email, password, department, manager_id, role, status, created_at, version)"
+			+ " values (?, ?, ?, ?, ?, ?, ?, ?, ?)";
+	static final String SELECT_EMPLOYEES = "select user_id, email from users where role = 'EMPLOYEE' order by user_id";
+
+	//inserts the users in one JDBC batch; they all share one hash so seeding costs one bcrypt
+	static List<SeededUser> seed(ConfigurableApplicationContext app, int count) {
+		String hash = app.getBean(PasswordEncoder.class).encode(PASSWORD);
+		Timestamp now = Timestamp.valueOf(LocalDateTime.now());
+		List<Object[]> rows = new ArrayList<>(count + 1);
+		rows.add(new Object[] {"Load Admin", ADMIN_EMAIL, hash, "IT", null, "ADMIN", "ACTIVE", now, 0L});
+		for(int i = 1; i <= count; i++) {
+			rows.add(new Object[] {"Load User " + i, "loadtest-" + i + "@example.com", hash,
+					DEPARTMENTS[i % DEPARTMENTS.length], 1, "EMPLOYEE", "ACTIVE", now, 0L});
+		}
+		if(app.getBeanProvider(JdbcTemplate.class).getIfAvailable()==null) {
+			return seedReactive(app, rows);
+		}
+		JdbcTemplate jdbc = app.getBean(JdbcTemplate.class);
+		jdbc.batchUpdate(INSERT_USER, rows);
+		return jdbc.query(SELECT_EMPLOYEES, (rs, n) -> new SeededUser(rs.getLong(1), rs.getString(2), null));
+	}
+
+	//ReactiveSeeding needs R2DBC, which only the reactive profile puts on the classpath
+	@SuppressWarnings("unchecked")
+	private static List<SeededUser> seedReactive(ConfigurableApplicationContext app, List<Object[]> rows) {
+		try {
+			return (List<SeededUser>) reactiveClass("com.wellness.benchmark.ReactiveSeeding")
+					.getDeclaredMethod("seed", ConfigurableApplicationContext.class, List.class)
+					.invoke(null, app, rows);
+		}
+		catch(ReflectiveOperationException e) {
+			throw new IllegalStateException("seeding the reactive app failed", e);
+		}
+	}
+
+	private static Class<?> reactiveClass(String name) {
+		try {
+			return Class.forName(name);
+		}
+		catch(ClassNotFoundException e) {
+			throw new IllegalStateException("--stack=reactive needs the reactive profile: mvn -Preactive,loadtest test", e);
+		}
+	}
+
+	static String login(HttpClient client, URI base, String email) throws IOException, InterruptedException {
+		HttpResponse<String> response = client.send(loginRequest(base, email), HttpResponse.BodyHandlers.ofString());
+		if(response.statusCode()!=200) {
+			throw new IllegalStateException("login for " + email + " failed with " + response.statusCode());
+		}
+		return response.body();
+	}
+
+	private static HttpRequest loginRequest(URI base, String email) {
+		return HttpRequest.newBuilder(base.resolve("/login"))
+				.header("Content-Type", "application/json")
+				.POST(HttpRequest.BodyPublishers.ofString("{\"email\":\"" + email + "\",\"password\":\"" + PASSWORD + "\"}"))
+				.build();
+	}
+
+	//runs the configured mode for the given time, returns the measured nanoseconds
+	long run(Duration duration) throws InterruptedException {
+		long start = System.nanoTime();
+		if(options.clients() > 0) {
+			runClosedLoop(start + duration.toNanos());
+		}
+		else {
+			runOpenLoop(start, start + duration.toNanos());
+		}
+		//let outstanding requests finish so their latency is counted
+		long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(30);
+		while(inFlight.get() > 0 && System.nanoTime() < deadline) {
+			Thread.sleep(10);
+		}
+		return System.nanoTime() - start;
+	}
+
+	//fires requests on a fixed schedule
+	private void runOpenLoop(long start, long end) {
+		long interval = TimeUnit.SECONDS.toNanos(1) / options.rate();
+		Map<Operation, OperationStats> current = stats;
+		for(long i = 0; ; i++) {
+			long intended = start + i * interval;
+			if(intended >= end) {
+				break;
+			}
+			long wait = intended - System.nanoTime();
+			if(wait > 0) {
+				LockSupport.parkNanos(wait);
+			}
+			fire(pick(), intended, current);
+		}
+	}
+
+	//starts every client and waits until the end; each one keeps a single request in flight
+	private void runClosedLoop(long end) throws InterruptedException {
+		Map<Operation, OperationStats> current = stats;
+		for(int i = 0; i < options.clients(); i++) {
+			next(end, current);
+		}
+		long wait = end - System.nanoTime();
+		if(wait > 0) {
+			TimeUnit.NANOSECONDS.sleep(wait);
+		}
+	}
+
+	//async completion, so a client failing fast does not recurse on the same stack
+	private void next(long end, Map<Operation, OperationStats> current) {
+		if(System.nanoTime() >= end) {
+			return;
+		}
+		Operation operation = pick();
+		OperationStats opStats = current.get(operation);
+		long sent = System.nanoTime();
+		inFlight.incrementAndGet();
+		client.sendAsync(request(operation), HttpResponse.BodyHandlers.discarding())
+				.whenCompleteAsync((response, error) -> {
+					inFlight.decrementAndGet();
+					opStats.record(System.nanoTime() - sent, error==null ? response.statusCode() : -1);
+					next(end, current);
+				}, clientExecutor);
+	}
+
+	private void fire(Operation operation, long intended, Map<Operation, OperationStats> current) {
+		OperationStats opStats = current.get(operation);
+		if(inFlight.incrementAndGet() > options.maxInFlight()) {
+			//client side limit reached, reported instead of silently skipped
+			inFlight.decrementAndGet();
+			opStats.dropped.increment();
+			return;
+		}
+		client.sendAsync(request(operation), HttpResponse.BodyHandlers.discarding())
+				.whenComplete((response, error) -> {
+					inFlight.decrementAndGet();
+					opStats.record(System.nanoTime() - intended, error==null ? response.statusCode() : -1);
+				});
+	}
+
+	private Operation pick() {
+		int roll = ThreadLocalRandom.current().nextInt(options.totalWeight());
+		for(Map.Entry<Operation, Integer> entry : options.mix().entrySet()) {
+			roll -= entry.getValue();
+			if(roll < 0) {
+				return entry.getKey();
+			}
+		}
+		throw new IllegalStateException("empty mix");
+	}
+
+	private HttpRequest request(Operation operation) {
+		ThreadLocalRandom random = ThreadLocalRandom.current();
+		SeededUser user = employees.get(random.nextInt(employees.size()));
+		return switch(operation) {
+			case LOGIN -> loginRequest(base, user.email());
+			case VIEW_PROFILE -> HttpRequest.newBuilder(base.resolve("/viewProfile/" + user.id()))
+					.header("Authorization", "Bearer " + user.token())
+					.GET().build();
+			case VIEW_ALL_USERS -> HttpRequest.newBuilder(base.resolve("/viewAllUsers?size=50&department="
+					+ DEPARTMENTS[random.nextInt(DEPARTMENTS.length)]))
+					.header("Authorization", "Bearer " + adminToken)
+					.GET().build();
+			//keeps the password so later logins still work
+			case UPDATE_PROFILE -> HttpRequest.newBuilder(base.resolve("/updateProfile"))
+					.header("Authorization", "Bearer " + user.token())
+					.header("Content-Type", "application/json")
+					.PUT(HttpRequest.BodyPublishers.ofString("{\"email\":\"" + user.email() + "\",\"name\":\"Updated "
+							+ user.id() + "\",\"department\":\"" + DEPARTMENTS[random.nextInt(DEPARTMENTS.length)]
+							+ "\",\"password\":\"" + PASSWORD + "\"}"))
+					.build();
+		};
+	}
+
+	Map<String, Object> report(Instant startedAt, long elapsedNanos) {
+		Map<String, Object> config = new LinkedHashMap<>();
+		config.put("targetRate", options.rate());
+		config.put("durationSeconds", options.duration().toSeconds());
+		config.put("warmupSeconds", options.warmup().toSeconds());
+		config.put("users", options.users());
+		Map<String, Integer> mix = new LinkedHashMap<>();
+		options.mix().forEach((op, weight) -> mix.put(op.key, weight));
+		config.put("mix", mix);
+		config.put("maxInFlight", options.maxInFlight());
+		config.put("clients", options.clients());
+		config.put("threads", options.threads());
+		config.put("stack", options.stack());
+		config.put("appArgs", options.appArgs());
+
+		Histogram all = new Histogram(HIGHEST_LATENCY_MICROS, 3);
+		long errors = 0;
+		long dropped = 0;
+		Map<String, Object> operations = new LinkedHashMap<>();
+		for(Map.Entry<Operation, OperationStats> entry : stats.entrySet()) {
+			OperationStats s = entry.getValue();
+			all.add(s.latency);
+			errors += s.errors.sum();
+			dropped += s.dropped.sum();
+			Map<String, Object> op = new LinkedHashMap<>();
+			op.put("requests", s.latency.getTotalCount());
+			op.put("errors", s.errors.sum());
+			op.put("dropped", s.dropped.sum());
+			Map<String, Long> statuses = new LinkedHashMap<>();
+			s.statuses.forEach((status, count) -> statuses.put(String.valueOf(status), count.sum()));
+			op.put("statusCodes", statuses);
+			op.put("latencyMs", latency(s.latency));
+			operations.put(entry.getKey().key, op);
+		}
+
+		Map<String, Object> total = new LinkedHashMap<>();
+		total.put("requests", all.getTotalCount());
+		total.put("errors", errors);
+		total.put("dropped", dropped);
+		total.put("achievedRate", all.getTotalCount() / (elapsedNanos / 1e9));
+		total.put("latencyMs", latency(all));
+
+		Map<String, Object> report = new LinkedHashMap<>();
+		report.put("startedAt", startedAt.toString());
+		report.put("javaVersion", System.getProperty("java.version"));
+		report.put("cores", Runtime.getRuntime().availableProcessors());
+		report.put("config", config);
+		report.put("total", total);
+		report.put("operations", operations);
+		return report;
+	}
+
+	private static Map<String, Double> latency(Histogram h) {
+		Map<String, Double> latency = new LinkedHashMap<>();
+		latency.put("p50", h.getValueAtPercentile(50) / 1000.0);
+		latency.put("p90", h.getValueAtPercentile(90) / 1000.0);
+		latency.put("p99", h.getValueAtPercentile(99) / 1000.0);
+		latency.put("p999", h.getValueAtPercentile(99.9) / 1000.0);
+		latency.put("max", h.getMaxValue() / 1000.0);
+		latency.put("mean", h.getMean() / 1000.0);
+		return latency;
+	}
+
+	void print() {
+		System.out.printf("%-14s %9s %7s %7s %9s %9s %9s %9s%n", "operation", "requests", "errors", "dropped",
+				"p50 ms", "p99 ms", "p999 ms", "max ms");
+		stats.forEach((op, s) -> System.out.printf("%-14s %9d %7d %7d %9.2f %9.2f %9.2f %9.2f%n", op.key,
+				s.latency.getTotalCount(), s.errors.sum(), s.dropped.sum(),
+				s.latency.getValueAtPercentile(50) / 1000.0, s.latency.getValueAtPercentile(99) / 1000.0,
+				s.latency.getValueAtPercentile(99.9) / 1000.0, s.latency.getMaxValue() / 1000.0));
+	}
+
+	private static Map<Operation, OperationStats> newStats() {
+		Map<Operation, OperationStats> stats = new EnumMap<>(Operation.class);
+		for(Operation op : Operation.values()) {
+			stats.put(op, new OperationStats());
+		}
+		return stats;
+	}
+
+	record Options(int rate, Duration duration, Duration warmup, int users, Map<Operation, Integer> mix,
+			int maxInFlight, int clients, String threads, String stack, String report, List<String> appArgs) {
+
+		boolean reactive() {
+			return stack.equals("reactive");
+		}
+
+		boolean virtualThreads() {
+			return threads.equals("virtual");
+		}
+
+		int totalWeight() {
+			return mix.values().stream().mapToInt(Integer::intValue).sum();
+		}
+
+		static Options parse(String[] args) {
+			Map<String, String> values = new LinkedHashMap<>();
+			List<String> appArgs = new ArrayList<>();
+			for(String arg : args) {
+				if(!arg.startsWith("--") || !arg.contains("=")) {
+					throw new IllegalArgumentException("Expected --name=value but got " + arg);
+				}
+				String name = arg.substring(2, arg.indexOf('='));
+				String value = arg.substring(arg.indexOf('=') + 1);
+				if(name.startsWith("app.")) {
+					appArgs.add("--" + name.substring(4) + "=" + value);
+				}
+				else {
+					values.put(name, value);
+				}
+			}
+			Options options = new Options(
+					Integer.parseInt(values.getOrDefault("rate", "200")),
+					Duration.parse(values.getOrDefault("duration", "PT60S")),
+					Duration.parse(values.getOrDefault("warmup", "PT10S")),
+					Integer.parseInt(values.getOrDefault("users", "1000")),
+					parseMix(values.getOrDefault("mix", "login:10,viewProfile:60,viewAllUsers:20,updateProfile:10")),
+					Integer.parseInt(values.getOrDefault("max-in-flight", "2000")),
+					Integer.parseInt(values.getOrDefault("clients", "0")),
+					values.getOrDefault("threads", "platform"),
+					values.getOrDefault("stack", "servlet"),
+					values.getOrDefault("report", "target/loadtest-report.json"),
+					appArgs);
+			if(options.rate() < 1 || options.users() < 1 || options.totalWeight() < 1) {
+				throw new IllegalArgumentException("rate, users and the mix weights must be positive");
+			}
+			if(!options.threads().equals("platform") && !options.virtualThreads()) {
+				throw new IllegalArgumentException("threads must be platform or virtual");
+			}
+			if(!options.stack().equals("servlet") && !options.reactive()) {
+				throw new IllegalArgumentException("stack must be servlet or reactive");
+			}
+			return options;
+		}
+
+		private static Map<Operation, Integer> parseMix(String mix) {
+			Map<Operation, Integer> weights = new EnumMap<>(Operation.class);
+			for(String part : mix.split(",")) {
+				String[] kv = part.split(":");
+				Operation op = null;
+				for(Operation candidate : Operation.values()) {
+					if(candidate.key.equalsIgnoreCase(kv[0].trim())) {
+						op = candidate;
+					}
+				}
+				if(op==null || kv.length!=2) {
+					throw new IllegalArgumentException("Unknown mix entry " + part);
+				}
+				weights.put(op, Integer.parseInt(kv[1].trim()));
+			}
+			return weights;
+		}
+	}
+}
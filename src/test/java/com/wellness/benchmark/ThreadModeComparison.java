@@ -0,0 +1,86 @@
+package com.wellness.benchmark;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+
+import tools.jackson.databind.JsonNode;
+import tools.jackson.databind.json.JsonMapper;
+
+/**
+ * Runs LoadTestHarness on platform threads and on virtual threads, or on the reactive stack
+ * when built with -Preactive, each in a fresh JVM so the embedded database and JIT state do
+ * not carry over, and prints the reports side by side. Defaults to 10k closed-loop clients;
+ * --modes=platform picks a subset, other arguments go to the harness.
+ * The reports are also left in target/loadtest-<mode>.json, to compare the reactive run with
+ * a servlet run from the default build.
+ *
+ * Virtual threads need JDK 21+, on older JDKs the virtual run uses platform threads.
+ * The reactive run on r2dbc-h2 is not a fair comparison, see LoadTestHarness.
+ * 10k clients need about as many file descriptors on each side (ulimit -n).
+ */
+public class ThreadModeComparison {
+
+	//the reactive profile builds the reactive stack instead of the servlet one
+	private static final String MODES = reactiveBuild() ? "reactive" : "platform,virtual";
+
+	public static void main(String[] args) throws Exception {
+		List<String> harnessArgs = new ArrayList<>();
+		String modeList = MODES;
+		for(String arg : args) {
+			if(arg.startsWith("--modes=")) {
+				modeList = arg.substring("--modes=".length());
+			}
+			else {
+				harnessArgs.add(arg);
+			}
+		}
+		List<String> modes = List.of(modeList.split(","));
+		if(!List.of(MODES.split(",")).containsAll(modes)) {
+			throw new IllegalArgumentException("modes must be from " + MODES + " in this build");
+		}
+
+		JsonMapper mapper = JsonMapper.builder().build();
+		List<JsonNode> reports = new ArrayList<>();
+		for(String mode : modes) {
+			Path report = Path.of("target", "loadtest-" + mode + ".json");
+			List<String> command = new ArrayList<>(List.of(
+					Path.of(System.getProperty("java.home"), "bin", "java").toString(),
+					"-classpath", System.getProperty("java.class.path"),
+					LoadTestHarness.class.getName(),
+					"--clients=10000"));
+			command.addAll(harnessArgs);
+			//after the caller's arguments so they cannot be overridden
+			command.add(mode.equals("reactive") ? "--stack=reactive" : "--threads=" + mode);
+			command.add("--report=" + report);
+			System.out.printf("== %s ==%n", mode);
+			int exit = new ProcessBuilder(command).inheritIO().start().waitFor();
+			if(exit!=0) {
+				throw new IllegalStateException(mode + " run failed with exit code " + exit);
+			}
+			reports.add(mapper.readTree(Files.readString(report)));
+		}
+
+		System.out.printf("%n%-9s %9s %10s %7s %9s %9s %9s %9s%n", "mode", "requests", "req/s", "errors",
+				"p50 ms", "p99 ms", "p999 ms", "max ms");
+		for(int i = 0; i < modes.size(); i++) {
+			JsonNode total = reports.get(i).get("total");
+			JsonNode latency = total.get("latencyMs");
+			System.out.printf("%-9s %9d %10.1f %7d %9.2f %9.2f %9.2f %9.2f%n", modes.get(i),
+					total.get("requests").asLong(), total.get("achievedRate").asDouble(), total.get("errors").asLong(),
+					latency.get("p50").asDouble(), latency.get("p99").asDouble(),
+					latency.get("p999").asDouble(), latency.get("max").asDouble());
+		}
+	}
+
+	private static boolean reactiveBuild() {
+		try {
+			Class.forName("com.wellness.reactive.ReactiveUserApplication");
+			return true;
+		}
+		catch(ClassNotFoundException e) {
+			return false;
+		}
+	}
+}
@@ -0,0 +1,103 @@
+package com.wellness.benchmark;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.profile.GCProfiler;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+import com.wellness.data.SearchEntry;
+import com.wellness.dto.UserSearchResult;
+import com.wellness.service.UserSearchIndex;
+
+/**
+ * Typeahead latency of the user search index over 500k users, and the time to build it.
+ * Queries cover a selective name, a two-letter word start and "example", which every email contains.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(value = 1, jvmArgs = "-Xmx2g")
+public class UserSearchBenchmark {
+
+	private static final int USERS = 500_000;
+
+	private static final String[] FIRST = {"anna", "james", "maria", "li", "olga", "pedro", "fatima", "noah", "sofia", "ken"};
+
+	private static final String[] LAST = {"smith", "garcia", "nguyen", "kowalski", "okafor", "tanaka", "dubois", "rossi", "khan", "berg"};
+
+	static List<SearchEntry> entries() {
+		List<SearchEntry> entries = new ArrayList<>(USERS);
+		for(int i = 1; i <= USERS; i++) {
+			String first = FIRST[i % FIRST.length];
+			String last = LAST[(i / FIRST.length) % LAST.length];
+			entries.add(new SearchEntry((long) i, first + " " + last + " " + i, first + "." + last + i + "@example.com"));
+		}
+		return entries;
+	}
+
+	@State(Scope.Benchmark)
+	public static class Loaded {
+
+		@Param({"garcia4711", "ok", "example"})
+		public String query;
+
+		UserSearchIndex index;
+
+		@Setup(Level.Trial)
+		public void setUp() {
+			index = new UserSearchIndex();
+			index.replaceAll(entries());
+		}
+	}
+
+	@State(Scope.Benchmark)
+	public static class Source {
+
+		List<SearchEntry> entries;
+
+		@Setup(Level.Trial)
+		public void setUp() {
+			entries = entries();
+		}
+	}
+
+	@Benchmark
+	public UserSearchResult search(Loaded state) {
+		return state.index.search(state.query, 10, 10_000);
+	}
+
+	@Benchmark
+	@BenchmarkMode(Mode.SingleShotTime)
+	@OutputTimeUnit(TimeUnit.MILLISECONDS)
+	@Warmup(iterations = 2)
+	@Measurement(iterations = 5)
+	public UserSearchIndex build(Source source) {
+		UserSearchIndex index = new UserSearchIndex();
+		index.replaceAll(source.entries);
+		return index;
+	}
+
+	public static void main(String[] args) throws RunnerException {
+		new Runner(new OptionsBuilder()
+				.include(UserSearchBenchmark.class.getSimpleName())
+				.addProfiler(GCProfiler.class)
+				.build()).run();
+	}
+}
@@ -0,0 +1,69 @@
+package com.wellness.benchmark;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.profile.GCProfiler;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+import com.wellness.data.Users;
+import com.wellness.dto.MyResponse;
+
+import tools.jackson.databind.json.JsonMapper;
+
+/**
+ * Jackson serialization of user lists, as entities and as the MyResponse projection
+ * the read endpoints return. Compare gc.alloc.rate.norm between the two.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class UserSerializationBenchmark {
+
+	@Param({"1", "1000", "100000"})
+	private int size;
+
+	private JsonMapper mapper;
+	private List<Users> users;
+	private List<MyResponse> responses;
+
+	@Setup
+	public void setUp() {
+		mapper = JsonMapper.builder().build();
+		users = BenchmarkUsers.users(size);
+		responses = BenchmarkUsers.responses(size);
+	}
+
+	@Benchmark
+	public byte[] serializeUsers() {
+		return mapper.writeValueAsBytes(users);
+	}
+
+	@Benchmark
+	public byte[] serializeResponses() {
+		return mapper.writeValueAsBytes(responses);
+	}
+
+	public static void main(String[] args) throws RunnerException {
+		new Runner(new OptionsBuilder()
+				.include(UserSerializationBenchmark.class.getSimpleName())
+				.addProfiler(GCProfiler.class)
+				.build()).run();
+	}
+}
@@ -0,0 +1,110 @@
+package com.wellness.benchmark;
+
+import java.util.List;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.AuxCounters;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+import org.springframework.boot.SpringApplication;
+import org.springframework.context.ConfigurableApplicationContext;
+
+import com.wellness.WellnessHubProjectApplication;
+import com.wellness.data.Role;
+import com.wellness.data.Status;
+import com.wellness.dto.UpdateUserAdmin;
+import com.wellness.exception.VersionConflictException;
+import com.wellness.repository.IUserRepository;
+import com.wellness.service.UserService;
+
+/**
+ * Admin updates from four threads against the H2 loadtest database, spread over hotUsers rows.
+ * Each operation reads the version like a client would, sends it with the update and retries
+ * on a 409; the conflicts counter totals those retries per iteration.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@Threads(4)
+public class UserUpdateContentionBenchmark {
+
+	private static final String[] DEPARTMENTS = {"IT", "HR", "Finance", "Operations"};
+
+	@Param({"1", "16", "1024"})
+	public int hotUsers;
+
+	private ConfigurableApplicationContext app;
+	private UserService userService;
+	private IUserRepository userRepository;
+	private List<String> emails;
+
+	@AuxCounters(AuxCounters.Type.EVENTS)
+	@State(Scope.Thread)
+	public static class Retries {
+		public long conflicts;
+
+		@Setup(Level.Iteration)
+		public void reset() {
+			conflicts = 0;
+		}
+	}
+
+	@Setup(Level.Trial)
+	public void setUp() {
+		System.setProperty("spring.devtools.restart.enabled", "false");
+		app = SpringApplication.run(WellnessHubProjectApplication.class,
+				"--spring.profiles.active=loadtest", "--spring.main.web-application-type=none");
+		userService = app.getBean(UserService.class);
+		userRepository = app.getBean(IUserRepository.class);
+		emails = LoadTestHarness.seed(app, hotUsers).stream().map(LoadTestHarness.SeededUser::email).toList();
+	}
+
+	@TearDown(Level.Trial)
+	public void tearDown() {
+		app.close();
+	}
+
+	@Benchmark
+	public boolean compareAndSet(Retries retries) {
+		ThreadLocalRandom random = ThreadLocalRandom.current();
+		UpdateUserAdmin update = new UpdateUserAdmin();
+		update.setEmail(emails.get(random.nextInt(emails.size())));
+		update.setRole(Role.EMPLOYEE);
+		update.setStatus(Status.ACTIVE);
+		update.setDepartment(DEPARTMENTS[random.nextInt(DEPARTMENTS.length)]);
+		while(true) {
+			update.setVersion(userRepository.findStateByEmail(update.getEmail()).version());
+			try {
+				return userService.updateUserAdmin(update);
+			}
+			catch(VersionConflictException e) {
+				retries.conflicts++;
+			}
+		}
+	}
+
+	public static void main(String[] args) throws RunnerException {
+		new Runner(new OptionsBuilder()
+				.include(UserUpdateContentionBenchmark.class.getSimpleName())
+				.build()).run();
+	}
+}
@@ -0,0 +1,77 @@
+package com.wellness.configurations;
+
+import com.zaxxer.hikari.HikariDataSource;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import javax.sql.DataSource;
+import java.sql.Connection;
+import java.sql.SQLTransientConnectionException;
+import java.time.Duration;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+/**
+ * Unit tests for the connection permits used in virtual-thread mode.
+ */
+class ConnectionLimiterTest {
+
+    private HikariDataSource hikari;
+    private DataSource dataSource;
+
+    @BeforeEach
+    void setUp() {
+        hikari = new HikariDataSource();
+        hikari.setJdbcUrl("jdbc:h2:mem:limiterdb");
+        hikari.setUsername("sa");
+        hikari.setMaximumPoolSize(2);
+        dataSource = (DataSource) new ConnectionLimiter(0, Duration.ofMillis(50))
+                .postProcessAfterInitialization(hikari, "dataSource");
+    }
+
+    @AfterEach
+    void tearDown() {
+        hikari.close();
+    }
+
+    @Test
+    @DisplayName("getConnection → one permit per pooled connection, the next caller is rejected after the wait")
+    void getConnection_rejectsBeyondPoolSize() throws Exception {
+        Connection first = dataSource.getConnection();
+        Connection second = dataSource.getConnection();
+
+        assertThrows(SQLTransientConnectionException.class, dataSource::getConnection);
+
+        first.close();
+        try (Connection third = dataSource.getConnection()) {
+            assertThat(third.isValid(1)).isTrue();
+        }
+        second.close();
+    }
+
+    @Test
+    @DisplayName("close → closing a connection twice returns its permit only once")
+    void close_releasesOnce() throws Exception {
+        Connection first = dataSource.getConnection();
+        first.close();
+        first.close();
+
+        Connection a = dataSource.getConnection();
+        Connection b = dataSource.getConnection();
+        assertThrows(SQLTransientConnectionException.class, dataSource::getConnection);
+        a.close();
+        b.close();
+    }
+
+    @Test
+    @DisplayName("postProcessAfterInitialization → leaves other beans untouched")
+    void postProcess_ignoresOtherBeans() {
+        Object bean = new Object();
+
+        assertThat(new ConnectionLimiter(0, Duration.ofMillis(50)).postProcessAfterInitialization(bean, "other")).isSameAs(bean);
+    }
+}
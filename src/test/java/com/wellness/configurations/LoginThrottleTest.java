@@ -0,0 +1,308 @@
+package com.wellness.configurations;
+
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.mock.web.MockFilterChain;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+
+import jakarta.servlet.ReadListener;
+import jakarta.servlet.ServletInputStream;
+
+import tools.jackson.databind.json.JsonMapper;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+/**
+ * Unit tests for the /login token buckets and the filter in front of them.
+ */
+class LoginThrottleTest {
+
+    private final AtomicLong clock = new AtomicLong(1_000_000_000L);
+
+    private TokenBucketLimiter limiter(int capacity, long refillSeconds, int maxKeys) {
+        return new TokenBucketLimiter(capacity, Duration.ofSeconds(refillSeconds), maxKeys, clock::get);
+    }
+
+    private void advanceSeconds(long seconds) {
+        clock.addAndGet(TimeUnit.SECONDS.toNanos(seconds));
+    }
+
+    @Test
+    @DisplayName("limiter → a full bucket allows a burst of capacity, then says how long to wait")
+    void limiter_burstThenReject() {
+        TokenBucketLimiter limiter = limiter(3, 10, 100);
+
+        assertThat(limiter.tryAcquire("a")).isZero();
+        assertThat(limiter.tryAcquire("a")).isZero();
+        assertThat(limiter.tryAcquire("a")).isZero();
+        assertThat(limiter.tryAcquire("a")).isEqualTo(TimeUnit.SECONDS.toNanos(10));
+        //other keys have their own bucket
+        assertThat(limiter.tryAcquire("b")).isZero();
+    }
+
+    @Test
+    @DisplayName("limiter → tokens come back one per refill interval")
+    void limiter_refills() {
+        TokenBucketLimiter limiter = limiter(2, 10, 100);
+        limiter.tryAcquire("a");
+        limiter.tryAcquire("a");
+
+        advanceSeconds(4);
+        assertThat(limiter.tryAcquire("a")).isEqualTo(TimeUnit.SECONDS.toNanos(6));
+
+        advanceSeconds(6);
+        assertThat(limiter.tryAcquire("a")).isZero();
+        assertThat(limiter.tryAcquire("a")).isPositive();
+    }
+
+    @Test
+    @DisplayName("limiter → buckets that are full again are dropped")
+    void limiter_expiresIdleBuckets() {
+        TokenBucketLimiter limiter = limiter(5, 2, 1000);
+        for (int i = 0; i < 100; i++) {
+            limiter.tryAcquire("key" + i);
+        }
+        limiter.tryAcquire("busy");
+        assertThat(limiter.size()).isEqualTo(101);
+
+        advanceSeconds(1);
+        limiter.tryAcquire("busy");
+        limiter.tryAcquire("busy");
+        //the idle keys are full 2s after their only request, busy is not
+        advanceSeconds(3);
+        limiter.tryAcquire("other");
+
+        assertThat(limiter.size()).isBetween(2, 3);
+        advanceSeconds(60);
+        limiter.tryAcquire("other");
+        assertThat(limiter.size()).isEqualTo(1);
+    }
+
+    @Test
+    @DisplayName("limiter → once maxKeys buckets exist, new keys share the overflow bucket and tracked keys stay limited")
+    void limiter_boundsMemory() {
+        TokenBucketLimiter limiter = new TokenBucketLimiter(2, Duration.ofSeconds(10), 3, 4, Duration.ofSeconds(1), clock::get);
+        limiter.tryAcquire("a");
+        limiter.tryAcquire("a");
+        limiter.tryAcquire("b");
+        limiter.tryAcquire("c");
+
+        for (int i = 0; i < 4; i++) {
+            assertThat(limiter.tryAcquire("untracked" + i)).isZero();
+        }
+        assertThat(limiter.tryAcquire("d")).isEqualTo(TimeUnit.SECONDS.toNanos(1));
+        assertThat(limiter.tryAcquire("a")).isPositive();
+        assertThat(limiter.untracked()).isEqualTo(5);
+        assertThat(limiter.size()).isEqualTo(3);
+
+        advanceSeconds(1);
+        assertThat(limiter.tryAcquire("e")).isZero();
+    }
+
+    @Test
+    @DisplayName("limiter → without an overflow bucket, new keys beyond maxKeys are left to the next limiter")
+    void limiter_withoutOverflowLetsUntrackedThrough() {
+        TokenBucketLimiter limiter = limiter(1, 10, 1);
+        limiter.tryAcquire("a");
+
+        for (int i = 0; i < 5; i++) {
+            assertThat(limiter.tryAcquire("b")).isZero();
+        }
+        assertThat(limiter.tryAcquire("a")).isPositive();
+        assertThat(limiter.untracked()).isEqualTo(5);
+    }
+
+    @Test
+    @DisplayName("limiter → rejects a capacity, refill or key limit below one")
+    void limiter_validatesArguments() {
+        assertThrows(IllegalArgumentException.class, () -> new TokenBucketLimiter(0, Duration.ofSeconds(1), 10));
+        assertThrows(IllegalArgumentException.class, () -> new TokenBucketLimiter(1, Duration.ZERO, 10));
+        assertThrows(IllegalArgumentException.class, () -> new TokenBucketLimiter(1, Duration.ofSeconds(1), 0));
+        assertThrows(IllegalArgumentException.class,
+                () -> new TokenBucketLimiter(1, Duration.ofSeconds(1), 10, -1, Duration.ofSeconds(1), clock::get));
+    }
+
+    private LoginThrottleFilter filter;
+    private SimpleMeterRegistry registry;
+
+    @BeforeEach
+    void setUp() {
+        filter = new LoginThrottleFilter(JsonMapper.builder().build(), true, limiter(3, 10, 100), limiter(2, 10, 100));
+        registry = new SimpleMeterRegistry();
+        filter.bindTo(registry);
+    }
+
+    private static MockHttpServletRequest login(String address, String body) {
+        MockHttpServletRequest request = new MockHttpServletRequest("POST", "/login");
+        request.setServletPath("/login");
+        request.setRemoteAddr(address);
+        request.setContentType("application/json");
+        request.setContent(body.getBytes(StandardCharsets.UTF_8));
+        return request;
+    }
+
+    private static String email(String email) {
+        return "{\"email\":\"" + email + "\",\"password\":\"secret\"}";
+    }
+
+    @Test
+    @DisplayName("filter → 429 with Retry-After once an email is out of tokens, before the chain runs")
+    void filter_throttlesByEmail() throws Exception {
+        filter.doFilter(login("10.0.0.1", email("a@example.com")), new MockHttpServletResponse(), new MockFilterChain());
+        //emails are compared normalized
+        filter.doFilter(login("10.0.0.2", email(" A@Example.com")), new MockHttpServletResponse(), new MockFilterChain());
+
+        MockFilterChain chain = new MockFilterChain();
+        MockHttpServletResponse response = new MockHttpServletResponse();
+        filter.doFilter(login("10.0.0.3", email("a@example.com")), response, chain);
+
+        assertThat(response.getStatus()).isEqualTo(429);
+        assertThat(response.getHeader("Retry-After")).isEqualTo("10");
+        assertThat(chain.getRequest()).isNull();
+        assertThat(registry.get("login.throttle.rejected").tag("key", "email").counter().count()).isEqualTo(1);
+        assertThat(registry.get("login.throttle.buckets").tag("key", "address").gauge().value()).isEqualTo(3);
+    }
+
+    @Test
+    @DisplayName("filter → 429 once an address is out of tokens, whatever the email")
+    void filter_throttlesByAddress() throws Exception {
+        for (int i = 0; i < 3; i++) {
+            filter.doFilter(login("10.0.0.1", email("user" + i + "@example.com")), new MockHttpServletResponse(), new MockFilterChain());
+        }
+        MockHttpServletResponse response = new MockHttpServletResponse();
+        filter.doFilter(login("10.0.0.1", email("other@example.com")), response, new MockFilterChain());
+
+        assertThat(response.getStatus()).isEqualTo(429);
+        assertThat(registry.get("login.throttle.rejected").tag("key", "address").counter().count()).isEqualTo(1);
+        //the rejected body was never read, so its email took no token
+        assertThat(registry.get("login.throttle.buckets").tag("key", "email").gauge().value()).isEqualTo(3);
+    }
+
+    @Test
+    @DisplayName("filter → the chain can still read the body it parsed")
+    void filter_passesBodyOn() throws Exception {
+        MockFilterChain chain = new MockFilterChain();
+        String body = email("a@example.com");
+
+        filter.doFilter(login("10.0.0.1", body), new MockHttpServletResponse(), chain);
+
+        assertThat(chain.getRequest()).isNotNull();
+        assertThat(chain.getRequest().getInputStream().readAllBytes()).isEqualTo(body.getBytes(StandardCharsets.UTF_8));
+        assertThat(chain.getRequest().getReader().readLine()).isEqualTo(body);
+    }
+
+    @Test
+    @DisplayName("filter → a non-blocking reader gets the whole body through its read listener")
+    void filter_notifiesReadListener() throws Exception {
+        MockFilterChain chain = new MockFilterChain();
+        String body = email("a@example.com");
+        filter.doFilter(login("10.0.0.1", body), new MockHttpServletResponse(), chain);
+
+        ServletInputStream in = chain.getRequest().getInputStream();
+        ByteArrayOutputStream read = new ByteArrayOutputStream();
+        AtomicBoolean done = new AtomicBoolean();
+        in.setReadListener(new ReadListener() {
+            @Override
+            public void onDataAvailable() throws IOException {
+                while (in.isReady() && !in.isFinished()) {
+                    read.write(in.read());
+                }
+            }
+
+            @Override
+            public void onAllDataRead() {
+                done.set(true);
+            }
+
+            @Override
+            public void onError(Throwable t) {
+                throw new AssertionError(t);
+            }
+        });
+
+        assertThat(done).isTrue();
+        assertThat(read.toByteArray()).isEqualTo(body.getBytes(StandardCharsets.UTF_8));
+    }
+
+    @Test
+    @DisplayName("filter → a full email table neither locks out an unrelated email nor lifts the limit")
+    void filter_fullTableFallsBackToOverflow() throws Exception {
+        TokenBucketLimiter byEmail = new TokenBucketLimiter(2, Duration.ofSeconds(10), 3, 10, Duration.ofSeconds(1), clock::get);
+        filter = new LoginThrottleFilter(JsonMapper.builder().build(), true, limiter(100, 1, 100), byEmail);
+        registry = new SimpleMeterRegistry();
+        filter.bindTo(registry);
+        for (int i = 0; i < 10; i++) {
+            filter.doFilter(login("10.0.0." + i, email("spray" + i + "@example.com")), new MockHttpServletResponse(), new MockFilterChain());
+        }
+
+        MockFilterChain chain = new MockFilterChain();
+        MockHttpServletResponse response = new MockHttpServletResponse();
+        filter.doFilter(login("10.0.1.1", email("staff@example.com")), response, chain);
+
+        assertThat(response.getStatus()).isEqualTo(200);
+        assertThat(chain.getRequest()).isNotNull();
+        assertThat(registry.get("login.throttle.buckets").tag("key", "email").gauge().value()).isEqualTo(3);
+        assertThat(registry.get("login.throttle.full").tag("key", "email").gauge().value()).isEqualTo(1);
+        assertThat(registry.get("login.throttle.full").tag("key", "address").gauge().value()).isZero();
+
+        //the spray has used up the shared bucket, further untracked guesses are turned away
+        for (int i = 0; i < 5; i++) {
+            filter.doFilter(login("10.0.2." + i, email("spray" + (20 + i) + "@example.com")), new MockHttpServletResponse(), new MockFilterChain());
+        }
+        assertThat(registry.get("login.throttle.untracked").tag("key", "email").functionCounter().count()).isEqualTo(13);
+        assertThat(registry.get("login.throttle.rejected").tag("key", "email").counter().count()).isEqualTo(3);
+    }
+
+    @Test
+    @DisplayName("filter → addresses beyond a full table are still held by the email limit")
+    void filter_fullAddressTableFallsBackToEmail() throws Exception {
+        filter = new LoginThrottleFilter(JsonMapper.builder().build(), true, limiter(100, 1, 2), limiter(2, 10, 100));
+        registry = new SimpleMeterRegistry();
+        filter.bindTo(registry);
+        for (int i = 0; i < 5; i++) {
+            filter.doFilter(login("10.0.0." + i, email("victim@example.com")), new MockHttpServletResponse(), new MockFilterChain());
+        }
+
+        assertThat(registry.get("login.throttle.untracked").tag("key", "address").functionCounter().count()).isEqualTo(3);
+        assertThat(registry.get("login.throttle.rejected").tag("key", "email").counter().count()).isEqualTo(3);
+    }
+
+    @Test
+    @DisplayName("filter → other paths and methods are not throttled")
+    void filter_ignoresOtherRequests() throws Exception {
+        for (int i = 0; i < 5; i++) {
+            MockHttpServletRequest request = new MockHttpServletRequest("POST", "/register");
+            request.setServletPath("/register");
+            MockFilterChain chain = new MockFilterChain();
+            filter.doFilter(request, new MockHttpServletResponse(), chain);
+            assertThat(chain.getRequest()).isNotNull();
+        }
+        assertThat(registry.get("login.throttle.buckets").tag("key", "address").gauge().value()).isZero();
+    }
+
+    @Test
+    @DisplayName("filter → bodies over the limit are refused unparsed")
+    void filter_refusesLargeBodies() throws Exception {
+        MockHttpServletResponse response = new MockHttpServletResponse();
+        MockFilterChain chain = new MockFilterChain();
+
+        filter.doFilter(login("10.0.0.1", "x".repeat(9000)), response, chain);
+
+        assertThat(response.getStatus()).isEqualTo(413);
+        assertThat(chain.getRequest()).isNull();
+    }
+}
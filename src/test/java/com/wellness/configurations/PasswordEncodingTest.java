@@ -0,0 +1,55 @@
+package com.wellness.configurations;
+
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
+import org.springframework.security.crypto.password.DelegatingPasswordEncoder;
+
+import java.time.Duration;
+import java.util.Map;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Tests for bcrypt cost calibration and the rehash decision.
+ */
+class PasswordEncodingTest {
+
+    private DelegatingPasswordEncoder encoder(int cost) {
+        DelegatingPasswordEncoder delegating = new DelegatingPasswordEncoder("bcrypt",
+                Map.of("bcrypt", new CostAwareBCryptPasswordEncoder(cost)));
+        delegating.setDefaultPasswordEncoderForMatches(new BCryptPasswordEncoder());
+        return delegating;
+    }
+
+    @Test
+    @DisplayName("calibrate → stays within the configured bounds")
+    void calibrate_withinBounds() {
+        int cost = PasswordCostCalibrator.calibrate(Duration.ofMillis(50), 4, 6);
+
+        assertThat(cost).isBetween(4, 6);
+    }
+
+    @Test
+    @DisplayName("encode → stores a {bcrypt} prefixed hash at the configured cost")
+    void encode_prefixedAtCost() {
+        String hash = encoder(5).encode("secret");
+
+        assertThat(hash).startsWith("{bcrypt}$2a$05$");
+        assertThat(encoder(5).matches("secret", hash)).isTrue();
+        assertThat(encoder(5).upgradeEncoding(hash)).isFalse();
+    }
+
+    @Test
+    @DisplayName("upgradeEncoding → true for legacy unprefixed hashes and lower costs, never downwards")
+    void upgradeEncoding_lowerCostOrLegacy() {
+        String legacy = new BCryptPasswordEncoder(4).encode("secret");
+
+        assertThat(encoder(5).matches("secret", legacy)).isTrue();
+        assertThat(encoder(5).upgradeEncoding(legacy)).isTrue();
+        assertThat(encoder(5).upgradeEncoding(encoder(4).encode("secret"))).isTrue();
+        // a node or start that calibrated lower keeps the stronger hash
+        assertThat(encoder(5).upgradeEncoding(encoder(6).encode("secret"))).isFalse();
+    }
+}
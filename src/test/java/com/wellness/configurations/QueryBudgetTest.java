@@ -0,0 +1,197 @@
+package com.wellness.configurations;
+
+import com.wellness.controller.MyController;
+import com.wellness.data.Role;
+import com.wellness.data.Status;
+import com.wellness.data.Users;
+import com.wellness.dto.MyRequest;
+import com.wellness.dto.UpdateUser;
+import com.wellness.repository.IUserRepository;
+import com.wellness.service.MyUserDetailsService;
+import com.wellness.service.UserService;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import jakarta.persistence.EntityManagerFactory;
+
+import org.hibernate.SessionFactory;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.data.jpa.test.autoconfigure.DataJpaTest;
+import org.springframework.boot.jdbc.test.autoconfigure.AutoConfigureTestDatabase;
+import org.springframework.boot.jdbc.test.autoconfigure.AutoConfigureTestDatabase.Replace;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.context.annotation.Import;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.context.TestPropertySource;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.web.context.request.WebRequest;
+import org.springframework.web.method.HandlerMethod;
+import org.springframework.web.servlet.HandlerMapping;
+
+import java.lang.reflect.Method;
+import java.time.Duration;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.mock;
+
+/**
+ * Holds the service calls behind the main endpoints to the @QueryBudget declared on MyController.
+ * Caches start cold, so these are worst-case counts; a request that needs the principal
+ * also pays for the JwtFilters user lookup.
+ */
+@DataJpaTest
+@ActiveProfiles("test")
+@AutoConfigureTestDatabase(replace = Replace.NONE)
+@Import(StatementCountingConfiguration.class)
+@Transactional(propagation = Propagation.NOT_SUPPORTED)
+@TestPropertySource(properties = "test.database=budgetdb")
+class QueryBudgetTest {
+
+    @Autowired
+    private IUserRepository repository;
+
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
+    private final BCryptPasswordEncoder encoder = new BCryptPasswordEncoder(4);
+    private UserService userService;
+    private MyUserDetailsService userDetailsService;
+    private Users saved;
+
+    @BeforeEach
+    void setUp() {
+        repository.deleteAll();
+        userService = new UserService(repository, encoder, mock(ApplicationEventPublisher.class));
+        userDetailsService = new MyUserDetailsService(repository, 100, Duration.ofMinutes(5));
+
+        Users u = new Users();
+        u.setName("Budget");
+        u.setEmail("budget@example.com");
+        u.setPassword(encoder.encode("secret"));
+        u.setDepartment("IT");
+        u.setRole(Role.EMPLOYEE);
+        u.setStatus(Status.ACTIVE);
+        saved = repository.save(u);
+
+        entityManagerFactory.unwrap(SessionFactory.class).getCache().evictAllRegions();
+    }
+
+    @Test
+    @DisplayName("/login → one statement, within its budget")
+    void login_withinBudget() throws Exception {
+        int statements = StatementCounter.count(() -> userService.authenticate("budget@example.com", "secret"));
+
+        assertThat(statements).isEqualTo(1);
+        assertThat(statements).isLessThanOrEqualTo(budget("login", MyRequest.class));
+    }
+
+    @Test
+    @DisplayName("/login → the select and the rehash update when the stored cost is stale, within its budget")
+    void login_withRehash_withinBudget() throws Exception {
+        UserService stronger = new UserService(repository, new BCryptPasswordEncoder(5), mock(ApplicationEventPublisher.class));
+
+        int statements = StatementCounter.count(() -> stronger.authenticate("budget@example.com", "secret"));
+
+        assertThat(statements).isEqualTo(2);
+        assertThat(statements).isLessThanOrEqualTo(budget("login", MyRequest.class));
+        assertThat(repository.findLoginViewByEmail("budget@example.com").getPassword()).startsWith("$2a$05$");
+    }
+
+    @Test
+    @DisplayName("/viewProfile → principal lookup, the version for the etag, then one projection query")
+    void viewProfile_withinBudget() throws Exception {
+        int statements = StatementCounter.count(() -> {
+            userDetailsService.loadUserByUsername("budget@example.com");
+            userService.getProfileEtag(saved.getUserId());
+            userService.getProfile(saved.getUserId());
+        });
+
+        assertThat(statements).isEqualTo(3);
+        assertThat(statements).isLessThanOrEqualTo(budget("viewProfile", Long.class, WebRequest.class));
+    }
+
+    @Test
+    @DisplayName("/viewAllUsers → principal lookup, the page versions for the etag, then one keyset page query")
+    void viewAllUsers_withinBudget() throws Exception {
+        int statements = StatementCounter.count(() -> {
+            userDetailsService.loadUserByUsername("budget@example.com");
+            userService.getUsersEtag(null, 50, "IT", null, null);
+            userService.getUsers(null, 50, "IT", null, null);
+        });
+
+        assertThat(statements).isLessThanOrEqualTo(budget("viewAllUsers", String.class, int.class, String.class,
+                Role.class, Status.class, WebRequest.class));
+    }
+
+    @Test
+    @DisplayName("/updateProfile → principal lookup, one conditional update and the re-read of the row it wrote")
+    void updateProfile_withinBudget() throws Exception {
+        UpdateUser update = new UpdateUser();
+        update.setEmail("budget@example.com");
+        update.setName("Renamed");
+        update.setDepartment("HR");
+        update.setPassword("secret2");
+        update.setVersion(saved.getVersion());
+
+        int statements = StatementCounter.count(() -> {
+            userDetailsService.loadUserByUsername("budget@example.com");
+            userService.updateUser(update);
+        });
+
+        assertThat(statements).isLessThanOrEqualTo(budget("updateProfile", UpdateUser.class));
+    }
+
+    @Test
+    @DisplayName("/register → a single insert")
+    void register_withinBudget() throws Exception {
+        Users u = new Users();
+        u.setName("New");
+        u.setEmail("new@example.com");
+        u.setPassword("pw");
+        u.setDepartment("IT");
+        u.setRole(Role.EMPLOYEE);
+        u.setStatus(Status.ACTIVE);
+
+        int statements = StatementCounter.count(() -> userService.registerUser(u));
+
+        assertThat(statements).isEqualTo(1);
+        assertThat(statements).isLessThanOrEqualTo(budget("register", Users.class));
+    }
+
+    @Test
+    @DisplayName("QueryBudgetFilter → counts an endpoint that goes over its budget")
+    void filter_countsOverBudget() throws Exception {
+        SimpleMeterRegistry registry = new SimpleMeterRegistry();
+        QueryBudgetFilter filter = new QueryBudgetFilter();
+        filter.bindTo(registry);
+        MockHttpServletRequest request = new MockHttpServletRequest("GET", "/viewProfile/1");
+        Method viewProfile = MyController.class.getMethod("viewProfile", Long.class, WebRequest.class);
+        request.setAttribute(HandlerMapping.BEST_MATCHING_HANDLER_ATTRIBUTE,
+                new HandlerMethod(mock(MyController.class), viewProfile));
+        StatementCounter listener = new StatementCounter();
+
+        // four statements against a budget of three
+        filter.doFilter(request, new MockHttpServletResponse(), (req, res) -> {
+            for(int i = 0; i < 4; i++) {
+                listener.afterQuery(null, List.of());
+            }
+        });
+
+        assertThat(registry.get("http.server.requests.statements").tag("endpoint", "viewProfile")
+                .summary().max()).isEqualTo(4);
+        assertThat(registry.get("http.server.requests.statements.over-budget").tag("endpoint", "viewProfile")
+                .counter().count()).isEqualTo(1);
+        assertThat(StatementCounter.current()).isZero();
+    }
+
+    private static int budget(String endpoint, Class<?>... parameterTypes) throws NoSuchMethodException {
+        return MyController.class.getMethod(endpoint, parameterTypes).getAnnotation(QueryBudget.class).value();
+    }
+}
@@ -1,7 +1,11 @@
 package com.wellness.mockitoTest;
 
-import static org.mockito.Mockito.mock;
 import static org.mockito.Mockito.when;
+import static org.mockito.Mockito.doThrow;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
 
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.delete;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
@@ -11,11 +15,14 @@ import static org.springframework.test.web.servlet.request.MockMvcRequestBuilder
 import static org.springframework.security.test.web.servlet.request.SecurityMockMvcRequestPostProcessors.csrf;
 
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.content;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.header;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
 
 import java.util.Arrays;
 import java.util.Collections;
+import java.util.List;
+import java.util.Map;
 
 import org.junit.jupiter.api.DisplayName;
 import org.junit.jupiter.api.Nested;
@@ -27,20 +34,37 @@ import org.springframework.boot.webmvc.test.autoconfigure.WebMvcTest;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Import;
 import org.springframework.http.MediaType;
-import org.springframework.security.authentication.AuthenticationManager;
 import org.springframework.security.config.annotation.web.builders.HttpSecurity;
 import org.springframework.security.config.annotation.web.configurers.AbstractHttpConfigurer;
-import org.springframework.security.core.Authentication;
-import org.springframework.security.core.userdetails.UserDetails;
 import org.springframework.security.test.context.support.WithMockUser;
 import org.springframework.security.web.SecurityFilterChain;
 import org.springframework.test.context.bean.override.mockito.MockitoBean;
 import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.transaction.CannotCreateTransactionException;
 
 import com.wellness.controller.MyController;
+import com.wellness.data.Role;
+import com.wellness.data.Status;
+import com.wellness.data.UserPrinciple;
 import com.wellness.data.Users;
+import com.wellness.dto.DirectoryStats;
+import com.wellness.dto.ImportReport;
+import com.wellness.dto.ImportRowResult;
+import com.wellness.dto.MyResponse;
+import com.wellness.dto.SpanOfControl;
+import com.wellness.dto.UserHit;
+import com.wellness.dto.UserPage;
+import com.wellness.dto.UserSearchResult;
+import com.wellness.exception.AuthenticationFailedException;
+import com.wellness.exception.UserAlreadyExistsException;
+import com.wellness.exception.UserNotFoundException;
+import com.wellness.exception.VersionConflictException;
+import com.wellness.service.DirectoryStatsService;
 import com.wellness.service.JwtService;
 import com.wellness.service.MyUserDetailsService;
+import com.wellness.service.OrgHierarchyService;
+import com.wellness.service.UserImportService;
+import com.wellness.service.UserSearchService;
 import com.wellness.service.UserService;
 
 /**
@@ -67,7 +91,16 @@ public class ControllerTest {
     private MyUserDetailsService myUserDetailsService;
 
     @MockitoBean
-    private AuthenticationManager authenticationManager;
+    private UserImportService userImportService;
+
+    @MockitoBean
+    private OrgHierarchyService orgHierarchyService;
+
+    @MockitoBean
+    private DirectoryStatsService directoryStatsService;
+
+    @MockitoBean
+    private UserSearchService userSearchService;
 
     // ---------- Test-only Security config to let the controller handle /login ----------
     @TestConfiguration
@@ -95,7 +128,6 @@ public class ControllerTest {
                 String email = "user@example.com";
                 String json = "{\"email\":\"" + email + "\",\"password\":\"pw\"}";
 
-                when(userService.exists(email)).thenReturn(false);
                 when(userService.registerUser(org.mockito.ArgumentMatchers.any(Users.class)))
                         .thenReturn(true);
 
@@ -118,7 +150,8 @@ public class ControllerTest {
                 String email = "user@example.com";
                 String json = "{\"email\":\"" + email + "\"}";
 
-                when(userService.exists(email)).thenReturn(true);
+                when(userService.registerUser(org.mockito.ArgumentMatchers.any(Users.class)))
+                        .thenThrow(new UserAlreadyExistsException("User already exists"));
 
                 mockMvc.perform(post("/register")
                                 .with(csrf())
@@ -138,7 +171,6 @@ public class ControllerTest {
                 String email = "user@example.com";
                 String json = "{\"email\":\"" + email + "\"}";
 
-                when(userService.exists(email)).thenReturn(false);
                 when(userService.registerUser(org.mockito.ArgumentMatchers.any(Users.class)))
                         .thenReturn(false);
 
@@ -165,16 +197,9 @@ public class ControllerTest {
                 String json = "{\"email\":\"" + email + "\",\"password\":\"pw\"}";
                 String token = "JWT_TOKEN";
 
-                when(userService.exists(email)).thenReturn(true);
-
-                Authentication auth = mock(Authentication.class);
-                when(auth.isAuthenticated()).thenReturn(true);
-                when(authenticationManager.authenticate(org.mockito.ArgumentMatchers.any()))
-                        .thenReturn(auth);
-
-                UserDetails userDetails = mock(UserDetails.class);
-                when(myUserDetailsService.loadUserByUsername(email)).thenReturn(userDetails);
-                when(jwtService.generateToken(userDetails)).thenReturn(token);
+                UserPrinciple principal = new UserPrinciple(new Users());
+                when(userService.authenticate(email, "pw")).thenReturn(principal);
+                when(jwtService.generateToken(principal)).thenReturn(token);
 
                 mockMvc.perform(post("/login")
                                 .with(csrf())
@@ -194,7 +219,8 @@ public class ControllerTest {
                 String email = "nouser@example.com";
                 String json = "{\"email\":\"" + email + "\",\"password\":\"x\"}";
 
-                when(userService.exists(email)).thenReturn(false);
+                when(userService.authenticate(email, "x"))
+                        .thenThrow(new UserNotFoundException("User not found!"));
 
                 mockMvc.perform(post("/login")
                                 .with(csrf())
@@ -213,15 +239,8 @@ public class ControllerTest {
                 String email = "user@example.com";
                 String json = "{\"email\":\"" + email + "\",\"password\":\"bad\"}";
 
-                when(userService.exists(email)).thenReturn(true);
-
-                Authentication auth = mock(Authentication.class);
-                when(auth.isAuthenticated()).thenReturn(false);
-                when(authenticationManager.authenticate(org.mockito.ArgumentMatchers.any()))
-                        .thenReturn(auth);
-
-                UserDetails userDetails = mock(UserDetails.class);
-                when(myUserDetailsService.loadUserByUsername(email)).thenReturn(userDetails);
+                when(userService.authenticate(email, "bad"))
+                        .thenThrow(new AuthenticationFailedException("Login failed!"));
 
                 mockMvc.perform(post("/login")
                                 .with(csrf())
@@ -243,12 +262,47 @@ public class ControllerTest {
         @DisplayName("GET /viewProfile/{id} → 200 when found")
         void viewProfile_found() {
             try {
-                Users u = new Users();
+                MyResponse u = new MyResponse(1L, "Emp", "emp@example.com", "IT", null, Role.EMPLOYEE, Status.ACTIVE, null);
                 when(userService.getProfile((long)1)).thenReturn(u);
 
                 mockMvc.perform(get("/viewProfile/{id}", 1))
                        .andExpect(status().isOk())
-                       .andExpect(content().contentTypeCompatibleWith(MediaType.APPLICATION_JSON));
+                       .andExpect(content().contentTypeCompatibleWith(MediaType.APPLICATION_JSON))
+                       .andExpect(jsonPath("$.email").value("emp@example.com"))
+                       .andExpect(jsonPath("$.password").doesNotExist());
+            } catch (Exception e) {
+                System.out.println("Exception occurred " + e);
+            }
+        }
+
+        @Test
+        @WithMockUser(roles = "EMPLOYEE")
+        @DisplayName("GET /viewProfile/{id} → 200 with the row version as a strong etag")
+        void viewProfile_etag() {
+            try {
+                MyResponse u = new MyResponse(1L, "Emp", "emp@example.com", "IT", null, Role.EMPLOYEE, Status.ACTIVE, null);
+                when(userService.getProfileEtag(1L)).thenReturn("1-4");
+                when(userService.getProfile(1L)).thenReturn(u);
+
+                mockMvc.perform(get("/viewProfile/{id}", 1))
+                       .andExpect(status().isOk())
+                       .andExpect(header().stringValues("ETag", "\"1-4\""));
+            } catch (Exception e) {
+                System.out.println("Exception occurred " + e);
+            }
+        }
+
+        @Test
+        @WithMockUser(roles = "EMPLOYEE")
+        @DisplayName("GET /viewProfile/{id} → 304 without loading the profile when If-None-Match still matches")
+        void viewProfile_notModified() {
+            try {
+                when(userService.getProfileEtag(1L)).thenReturn("1-4");
+
+                mockMvc.perform(get("/viewProfile/{id}", 1).header("If-None-Match", "\"1-4\""))
+                       .andExpect(status().isNotModified())
+                       .andExpect(content().string(""));
+                verify(userService, never()).getProfile(any());
             } catch (Exception e) {
                 System.out.println("Exception occurred " + e);
             }
@@ -268,6 +322,53 @@ public class ControllerTest {
             }
         }
 
+        @Test
+        @WithMockUser(roles = "EMPLOYEE")
+        @DisplayName("GET /viewProfile/{id} → 503 when no database connection is available")
+        void viewProfile_databaseBusy() {
+            try {
+                when(userService.getProfile((long)1)).thenThrow(new CannotCreateTransactionException("pool exhausted"));
+
+                mockMvc.perform(get("/viewProfile/{id}", 1))
+                       .andExpect(status().isServiceUnavailable())
+                       .andExpect(content().string("Database is busy, please retry"));
+            } catch (Exception e) {
+                System.out.println("Exception occurred " + e);
+            }
+        }
+
+        @Test
+        @WithMockUser(roles = "EMPLOYEE")
+        @DisplayName("GET /spanOfControl/{id} → 200 with the counts from the hierarchy")
+        void spanOfControl_ok() {
+            try {
+                when(orgHierarchyService.getSpanOfControl(1L)).thenReturn(new SpanOfControl(1L, 2, 6, 3));
+
+                mockMvc.perform(get("/spanOfControl/{id}", 1))
+                       .andExpect(status().isOk())
+                       .andExpect(jsonPath("$.directReports").value(2))
+                       .andExpect(jsonPath("$.totalReports").value(6))
+                       .andExpect(jsonPath("$.levels").value(3));
+            } catch (Exception e) {
+                System.out.println("Exception occurred " + e);
+            }
+        }
+
+        @Test
+        @WithMockUser(roles = "EMPLOYEE")
+        @DisplayName("GET /subtree/{id} → 404 for a user outside the hierarchy")
+        void subtree_notFound() {
+            try {
+                when(orgHierarchyService.getSubtree(99L, Integer.MAX_VALUE)).thenThrow(new UserNotFoundException("User not found!"));
+
+                mockMvc.perform(get("/subtree/{id}", 99))
+                       .andExpect(status().isNotFound())
+                       .andExpect(content().string("User not found!"));
+            } catch (Exception e) {
+                System.out.println("Exception occurred " + e);
+            }
+        }
+
         @Test
         @WithMockUser(roles = "EMPLOYEE")
         @DisplayName("DELETE /deleteProfile/{id} → 200 when deleted")
@@ -320,6 +421,27 @@ public class ControllerTest {
             }
         }
 
+        @Test
+        @WithMockUser(roles = "EMPLOYEE")
+        @DisplayName("PUT /updateProfile → 409 when the user changed since the client read it")
+        void updateProfile_versionConflict() {
+            try {
+                when(userService.updateUser(org.mockito.ArgumentMatchers.any()))
+                        .thenThrow(new VersionConflictException("User was changed by someone else, reload and retry"));
+
+                String json = "{\"email\":\"emp@example.com\",\"name\":\"Emp\",\"password\":\"pw\",\"version\":3}";
+
+                mockMvc.perform(put("/updateProfile")
+                                .with(csrf())
+                                .contentType(MediaType.APPLICATION_JSON)
+                                .content(json))
+                       .andExpect(status().isConflict())
+                       .andExpect(content().string("User was changed by someone else, reload and retry"));
+            } catch (Exception e) {
+                System.out.println("Exception occurred " + e);
+            }
+        }
+
         @Test
         @WithMockUser(roles = "EMPLOYEE")
         @DisplayName("PUT /updateProfile → 404 when updateUser returns false (UserNotFoundException)")
@@ -353,7 +475,6 @@ public class ControllerTest {
                 String email = "new.admin@example.com";
                 String json = "{\"email\":\"" + email + "\",\"password\":\"pw\"}";
 
-                when(userService.exists(email)).thenReturn(false);
                 when(userService.registerUser(org.mockito.ArgumentMatchers.any(Users.class)))
                         .thenReturn(true);
 
@@ -376,7 +497,8 @@ public class ControllerTest {
                 String email = "exist@example.com";
                 String json = "{\"email\":\"" + email + "\"}";
 
-                when(userService.exists(email)).thenReturn(true);
+                when(userService.registerUser(org.mockito.ArgumentMatchers.any(Users.class)))
+                        .thenThrow(new UserAlreadyExistsException("User already exists"));
 
                 mockMvc.perform(post("/addUser")
                                 .with(csrf())
@@ -396,7 +518,6 @@ public class ControllerTest {
                 String email = "fail@example.com";
                 String json = "{\"email\":\"" + email + "\"}";
 
-                when(userService.exists(email)).thenReturn(false);
                 when(userService.registerUser(org.mockito.ArgumentMatchers.any(Users.class)))
                         .thenReturn(false);
 
@@ -412,17 +533,36 @@ public class ControllerTest {
 
         @Test
         @WithMockUser(roles = "ADMIN")
-        @DisplayName("GET /viewAllUsers → 200 with list")
+        @DisplayName("GET /viewAllUsers → 200 with a page and its cursor")
         void viewAllUsers_ok() {
             try {
-                when(userService.getUsers()).thenReturn(Arrays.asList(new Users(), new Users()));
+                when(userService.getUsers(null, 2, "IT", null, null))
+                        .thenReturn(new UserPage(Arrays.asList(
+                                new MyResponse(1L, "A", "a@example.com", "IT", null, Role.EMPLOYEE, Status.ACTIVE, null),
+                                new MyResponse(2L, "B", "b@example.com", "IT", null, Role.EMPLOYEE, Status.ACTIVE, null)), "next"));
 
-                mockMvc.perform(get("/viewAllUsers"))
+                mockMvc.perform(get("/viewAllUsers").param("size", "2").param("department", "IT"))
                        .andExpect(status().isOk())
                        .andExpect(content().contentTypeCompatibleWith(MediaType.APPLICATION_JSON))
-                       .andExpect(jsonPath("$").isArray())
-                       .andExpect(jsonPath("$[0]").exists())
-                       .andExpect(jsonPath("$[1]").exists());
+                       .andExpect(jsonPath("$.users").isArray())
+                       .andExpect(jsonPath("$.users[0]").exists())
+                       .andExpect(jsonPath("$.users[1]").exists())
+                       .andExpect(jsonPath("$.nextCursor").value("next"));
+            } catch (Exception e) {
+                System.out.println("Exception occurred " + e);
+            }
+        }
+
+        @Test
+        @WithMockUser(roles = "ADMIN")
+        @DisplayName("GET /viewAllUsers → 304 without loading the page when its etag still matches")
+        void viewAllUsers_notModified() {
+            try {
+                when(userService.getUsersEtag(null, 50, null, null, null)).thenReturn("p-abc");
+
+                mockMvc.perform(get("/viewAllUsers").header("If-None-Match", "\"p-abc\""))
+                       .andExpect(status().isNotModified());
+                verify(userService, never()).getUsers(any(), anyInt(), any(), any(), any());
             } catch (Exception e) {
                 System.out.println("Exception occurred " + e);
             }
@@ -430,16 +570,43 @@ public class ControllerTest {
 
         @Test
         @WithMockUser(roles = "ADMIN")
-        @DisplayName("GET /viewAllUsers → 200 with empty list")
+        @DisplayName("GET /viewAllUsers → 200 with empty page")
         void viewAllUsers_empty() {
             try {
-                when(userService.getUsers()).thenReturn(Collections.emptyList());
+                when(userService.getUsers(null, 50, null, null, null))
+                        .thenReturn(new UserPage(Collections.emptyList(), null));
 
                 mockMvc.perform(get("/viewAllUsers"))
                        .andExpect(status().isOk())
                        .andExpect(content().contentTypeCompatibleWith(MediaType.APPLICATION_JSON))
-                       .andExpect(jsonPath("$").isArray())
-                       .andExpect(jsonPath("$.length()").value(0));
+                       .andExpect(jsonPath("$.users").isArray())
+                       .andExpect(jsonPath("$.users.length()").value(0));
+            } catch (Exception e) {
+                System.out.println("Exception occurred " + e);
+            }
+        }
+
+        @Test
+        @WithMockUser(roles = "ADMIN")
+        @DisplayName("POST /importUsers → 200 with counts and the failed rows")
+        void importUsers_ok() {
+            try {
+                ImportReport report = new ImportReport(10);
+                report.add(new ImportRowResult(2, "a@example.com", ImportRowResult.Outcome.CREATED, null));
+                report.add(new ImportRowResult(3, "a@example.com", ImportRowResult.Outcome.DUPLICATE, "Duplicate email in file"));
+                when(userImportService.importUsers(org.mockito.ArgumentMatchers.any(), org.mockito.ArgumentMatchers.any(),
+                        org.mockito.ArgumentMatchers.eq(100)))
+                        .thenReturn(report);
+
+                mockMvc.perform(post("/importUsers").param("batchSize", "100")
+                                .contentType("text/csv")
+                                .content("name,email,password,department,role,status\nA,a@example.com,pw,IT,EMPLOYEE,ACTIVE\n"))
+                       .andExpect(status().isOk())
+                       .andExpect(jsonPath("$.created").value(1))
+                       .andExpect(jsonPath("$.failed").value(1))
+                       .andExpect(jsonPath("$.failures.length()").value(1))
+                       .andExpect(jsonPath("$.failures[0].line").value(3))
+                       .andExpect(jsonPath("$.failuresTruncated").value(false));
             } catch (Exception e) {
                 System.out.println("Exception occurred " + e);
             }
@@ -502,6 +669,60 @@ public class ControllerTest {
             }
         }
 
+        @Test
+        @WithMockUser(roles = "ADMIN")
+        @DisplayName("PUT /reassignManager → 400 without writing when the new manager reports to the old one")
+        void reassignManager_cycle() {
+            try {
+                doThrow(new IllegalArgumentException("Manager 7 reports to 2, moving its reports there would create a cycle"))
+                        .when(orgHierarchyService).checkReassignment(2, 7);
+
+                mockMvc.perform(put("/reassignManager")
+                                .with(csrf())
+                                .contentType(MediaType.APPLICATION_JSON)
+                                .content("{\"fromManagerId\":2,\"toManagerId\":7}"))
+                       .andExpect(status().isBadRequest());
+                verify(userService, never()).reassignManager(org.mockito.ArgumentMatchers.any());
+            } catch (Exception e) {
+                System.out.println("Exception occurred " + e);
+            }
+        }
+
+        @Test
+        @WithMockUser(roles = "ADMIN")
+        @DisplayName("GET /directoryStats → 200 with the counters as they are")
+        void directoryStats_ok() {
+            try {
+                when(directoryStatsService.getStats()).thenReturn(new DirectoryStats(3,
+                        Map.of("IT", 3L), Map.of(Role.EMPLOYEE, 3L), Map.of(Status.ACTIVE, 3L)));
+
+                mockMvc.perform(get("/directoryStats"))
+                       .andExpect(status().isOk())
+                       .andExpect(jsonPath("$.total").value(3))
+                       .andExpect(jsonPath("$.departments.IT").value(3))
+                       .andExpect(jsonPath("$.roles.EMPLOYEE").value(3));
+            } catch (Exception e) {
+                System.out.println("Exception occurred " + e);
+            }
+        }
+
+        @Test
+        @WithMockUser(roles = "EMPLOYEE")
+        @DisplayName("GET /searchUsers → 200 with the ranked hits")
+        void searchUsers_ok() {
+            try {
+                when(userSearchService.search("ann", 5)).thenReturn(new UserSearchResult(
+                        List.of(new UserHit(3L, "Ann", "ann@example.com")), false));
+
+                mockMvc.perform(get("/searchUsers").param("q", "ann").param("limit", "5"))
+                       .andExpect(status().isOk())
+                       .andExpect(jsonPath("$.users[0].userId").value(3))
+                       .andExpect(jsonPath("$.truncated").value(false));
+            } catch (Exception e) {
+                System.out.println("Exception occurred " + e);
+            }
+        }
+
         @Test
         @WithMockUser(roles = "ADMIN")
         @DisplayName("DELETE /deleteUserAdmin/{id} → 404 when user not found (controller returns 404 body)")
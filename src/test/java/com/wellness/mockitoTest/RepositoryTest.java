@@ -1,8 +1,13 @@
 package com.wellness.mockitoTest;
 
+import com.wellness.data.BulkChange;
+import com.wellness.data.DirectoryCount;
 import com.wellness.data.Role;
+import com.wellness.data.RowVersion;
 import com.wellness.data.Status;
+import com.wellness.data.UserState;
 import com.wellness.data.Users;
+import com.wellness.dto.MyResponse;
 import com.wellness.repository.IUserRepository;
 
 import org.junit.jupiter.api.DisplayName;
@@ -16,8 +21,8 @@ import org.springframework.boot.data.jpa.test.autoconfigure.DataJpaTest;
 import org.springframework.boot.jdbc.test.autoconfigure.AutoConfigureTestDatabase;
 import org.springframework.boot.jdbc.test.autoconfigure.AutoConfigureTestDatabase.Replace;
 import org.springframework.dao.InvalidDataAccessApiUsageException;
+import org.springframework.data.domain.Limit;
 import org.springframework.test.context.ActiveProfiles;
-import org.springframework.test.context.TestPropertySource;
 
 import java.time.LocalDateTime;
 import java.util.List;
@@ -30,23 +35,6 @@ import static org.assertj.core.api.Assertions.*;
 
 // ✅ Do NOT auto-replace our DataSource with a random in-memory one
 @AutoConfigureTestDatabase(replace = Replace.NONE)
-
-// ✅ Force H2 to run in MySQL compatibility mode for this test slice
-@TestPropertySource(properties = {
-        "spring.datasource.url=jdbc:h2:mem:testdb;MODE=MySQL;DATABASE_TO_LOWER=TRUE;DEFAULT_NULL_ORDERING=HIGH;DB_CLOSE_DELAY=-1",
-        "spring.datasource.driverClassName=org.h2.Driver",
-        "spring.datasource.username=sa",
-        "spring.datasource.password=",
-
-        // Keep MySQL dialect; H2 in MySQL MODE will accept MySQL DDL.
-        "spring.jpa.properties.hibernate.dialect=org.hibernate.dialect.MySQLDialect",
-
-        // Ensure schema is created and dropped for each test run
-        "spring.jpa.hibernate.ddl-auto=create-drop",
-
-        // Avoid running data.sql during tests
-        "spring.sql.init.mode=never"
-})
 class RepositoryTest {
 
     @Autowired
@@ -141,6 +129,153 @@ class RepositoryTest {
             assertThat(repository.existsByEmail("dan@example.com")).isTrue();
             assertThat(repository.existsByEmail("ghost@example.com")).isFalse();
         }
+
+        @Test
+        @DisplayName("findPageAfter: seeks past the given id in id order and applies filters")
+        void findPageAfter_keyset() {
+            Users a = repository.save(buildUser("A", "a@example.com", "x", "IT", null, Role.EMPLOYEE, Status.ACTIVE));
+            repository.save(buildUser("B", "b@example.com", "x", "HR", null, Role.EMPLOYEE, Status.ACTIVE));
+            Users c = repository.save(buildUser("C", "c@example.com", "x", "IT", null, Role.MANAGER, Status.ACTIVE));
+            Users d = repository.save(buildUser("D", "d@example.com", "x", "IT", null, Role.EMPLOYEE, Status.INACTIVE));
+
+            List<MyResponse> firstPage = repository.findPageAfter(0L, "IT", null, null, Limit.of(2));
+            List<MyResponse> nextPage = repository.findPageAfter(firstPage.get(1).getUserId(), "IT", null, null, Limit.of(2));
+            List<MyResponse> activeEmployees = repository.findPageAfter(0L, null, Role.EMPLOYEE, Status.ACTIVE, Limit.of(10));
+
+            assertThat(firstPage).extracting(MyResponse::getUserId).containsExactly(a.getUserId(), c.getUserId());
+            assertThat(nextPage).extracting(MyResponse::getUserId).containsExactly(d.getUserId());
+            assertThat(activeEmployees).extracting(MyResponse::getEmail).containsExactly("a@example.com", "b@example.com");
+        }
+
+        @Test
+        @DisplayName("findResponseById: returns public columns only; null when not found")
+        void findResponseById_projection() {
+            Users saved = repository.save(buildUser("Fay", "fay@example.com", "secret", "QA", 3, Role.EMPLOYEE, Status.ACTIVE));
+
+            MyResponse found = repository.findResponseById(saved.getUserId());
+
+            assertThat(found.getEmail()).isEqualTo("fay@example.com");
+            assertThat(found.getManagerId()).isEqualTo(3);
+            assertThat(found.getRole()).isEqualTo(Role.EMPLOYEE);
+            assertThat(repository.findResponseById(-1L)).isNull();
+        }
+
+        @Test
+        @DisplayName("countByDepartmentRoleStatus: one row per combination with its user count")
+        void countByDepartmentRoleStatus_groups() {
+            repository.save(buildUser("G", "g@example.com", "x", "IT", null, Role.EMPLOYEE, Status.ACTIVE));
+            repository.save(buildUser("H", "h@example.com", "x", "IT", null, Role.EMPLOYEE, Status.ACTIVE));
+            repository.save(buildUser("I", "i@example.com", "x", "HR", null, Role.ADMIN, Status.INACTIVE));
+
+            List<DirectoryCount> counts = repository.countByDepartmentRoleStatus();
+
+            assertThat(counts).containsExactlyInAnyOrder(
+                    new DirectoryCount("IT", Role.EMPLOYEE, Status.ACTIVE, 2L),
+                    new DirectoryCount("HR", Role.ADMIN, Status.INACTIVE, 1L));
+        }
+    }
+
+    @Nested
+    class BulkUpdates {
+
+        @Test
+        @DisplayName("bulk updates: one statement each, counting only rows that changed")
+        void setBasedUpdates_returnAffectedRows() {
+            Users a = repository.save(buildUser("A", "a@example.com", "x", "IT", 5, Role.EMPLOYEE, Status.ACTIVE));
+            Users b = repository.save(buildUser("B", "b@example.com", "x", "IT", 5, Role.MANAGER, Status.INACTIVE));
+            Users c = repository.save(buildUser("C", "c@example.com", "x", "HR", 6, Role.EMPLOYEE, Status.ACTIVE));
+
+            assertThat(repository.updateStatusByDepartment("IT", Status.INACTIVE)).isEqualTo(1);
+            assertThat(repository.updateRoleByIds(List.of(a.getUserId(), b.getUserId()), Role.MANAGER)).isEqualTo(1);
+            assertThat(repository.reassignManager(5, 7)).isEqualTo(2);
+
+            assertThat(repository.findResponseById(a.getUserId()).getStatus()).isEqualTo(Status.INACTIVE);
+            assertThat(repository.findResponseById(a.getUserId()).getRole()).isEqualTo(Role.MANAGER);
+            assertThat(repository.findResponseById(b.getUserId()).getManagerId()).isEqualTo(7);
+            assertThat(repository.findResponseById(c.getUserId()).getStatus()).isEqualTo(Status.ACTIVE);
+            assertThat(repository.findResponseById(c.getUserId()).getManagerId()).isEqualTo(6);
+        }
+
+        @Test
+        @DisplayName("bulk changes: report the emails of the rows they changed, and only those")
+        void bulkChanges_reportChangedEmails() {
+            Users a = repository.save(buildUser("A", "a@example.com", "x", "IT", 5, Role.EMPLOYEE, Status.ACTIVE));
+            Users b = repository.save(buildUser("B", "b@example.com", "x", "IT", 5, Role.MANAGER, Status.INACTIVE));
+            repository.save(buildUser("C", "c@example.com", "x", "HR", 6, Role.EMPLOYEE, Status.ACTIVE));
+
+            assertThat(repository.changeStatusByDepartment("IT", Status.INACTIVE))
+                    .isEqualTo(new BulkChange(1, List.of("a@example.com")));
+            assertThat(repository.changeRoleByIds(List.of(a.getUserId(), b.getUserId()), Role.MANAGER))
+                    .isEqualTo(new BulkChange(1, List.of("a@example.com")));
+            assertThat(repository.changeStatusByDepartment("IT", Status.INACTIVE)).isEqualTo(new BulkChange(0, List.of()));
+            assertThat(repository.findResponseById(a.getUserId()).getStatus()).isEqualTo(Status.INACTIVE);
+        }
+
+        @Test
+        @DisplayName("versions: start at 0 and every write, bulk updates included, bumps them")
+        void versions_bumpedByEveryWrite() {
+            Users a = repository.saveAndFlush(buildUser("A", "a@example.com", "x", "IT", 5, Role.EMPLOYEE, Status.ACTIVE));
+            Users b = repository.saveAndFlush(buildUser("B", "b@example.com", "x", "HR", 5, Role.EMPLOYEE, Status.ACTIVE));
+            assertThat(repository.findVersionById(a.getUserId())).isZero();
+
+            a.setName("A2");
+            repository.saveAndFlush(a);
+            repository.updateStatusByDepartment("IT", Status.INACTIVE);
+            repository.reassignManager(5, 7);
+
+            assertThat(repository.findVersionById(a.getUserId())).isEqualTo(3);
+            assertThat(repository.findVersionById(b.getUserId())).isEqualTo(1);
+            assertThat(repository.findVersionById(-1L)).isNull();
+            assertThat(repository.findVersionsAfter(0, "IT", null, null, Limit.of(10)))
+                    .containsExactly(new RowVersion(a.getUserId(), 3L));
+        }
+
+        @Test
+        @DisplayName("rehash: swaps only the verified hash and keeps the version")
+        void updatePassword_keepsVersion() {
+            Users a = repository.saveAndFlush(buildUser("A", "a@example.com", "old", "IT", null, Role.EMPLOYEE, Status.ACTIVE));
+
+            assertThat(repository.updatePassword(a.getUserId(), "old", "rehashed")).isEqualTo(1);
+            // the password changed since the login that verified "old"
+            assertThat(repository.updatePassword(a.getUserId(), "old", "stale")).isZero();
+
+            assertThat(repository.findLoginViewByEmail("a@example.com").getPassword()).isEqualTo("rehashed");
+            assertThat(repository.findVersionById(a.getUserId())).isZero();
+        }
+
+        @Test
+        @DisplayName("conditional updates: apply once at the expected version, then miss")
+        void conditionalUpdates_compareAndSet() {
+            Users a = repository.saveAndFlush(buildUser("A", "a@example.com", "x", "IT", null, Role.EMPLOYEE, Status.ACTIVE));
+            UserState state = repository.findStateByEmail("a@example.com");
+
+            assertThat(state.version()).isZero();
+            assertThat(repository.updateProfileIfVersion("a@example.com", 0L, "A2", "HR", "y")).isEqualTo(1);
+            assertThat(repository.updateAdminIfVersion("a@example.com", 0L, "Ops", Role.ADMIN, Status.INACTIVE)).isZero();
+            assertThat(repository.updateAdminIfVersion("a@example.com", 1L, "Ops", Role.ADMIN, Status.INACTIVE)).isEqualTo(1);
+
+            MyResponse after = repository.findResponseById(a.getUserId());
+            assertThat(after.getName()).isEqualTo("A2");
+            assertThat(after.getDepartment()).isEqualTo("Ops");
+            assertThat(after.getVersion()).isEqualTo(2);
+        }
+
+        @Test
+        @DisplayName("conditional updates: without a version apply to the current row and return it")
+        void conditionalUpdates_withoutVersion() {
+            Users a = repository.saveAndFlush(buildUser("A", "a@example.com", "x", "IT", null, Role.EMPLOYEE, Status.ACTIVE));
+
+            UserState first = repository.updateAdmin("a@example.com", null, "Ops", Role.ADMIN, Status.INACTIVE);
+            UserState second = repository.updateProfile("a@example.com", null, "A2", "HR", "y");
+
+            assertThat(first.userId()).isEqualTo(a.getUserId());
+            assertThat(first.version()).isEqualTo(1);
+            assertThat(second.version()).isEqualTo(2);
+            assertThat(second.name()).isEqualTo("A2");
+            assertThat(second.role()).isEqualTo(Role.ADMIN);
+            assertThat(repository.updateProfile("a@example.com", 1L, "A3", "HR", "z")).isNull();
+            assertThat(repository.updateAdmin("missing@example.com", null, "Ops", Role.ADMIN, Status.ACTIVE)).isNull();
+        }
     }
 
     @Nested
@@ -1,12 +1,26 @@
 package com.wellness.mockitoTest;
 
+import com.wellness.data.BulkChange;
 import com.wellness.data.Role;
 import com.wellness.data.Status;
+import com.wellness.data.LoginView;
+import com.wellness.data.UserPrinciple;
+import com.wellness.data.UserState;
 import com.wellness.data.Users;
+import com.wellness.dto.BulkRoleUpdate;
+import com.wellness.dto.BulkStatusUpdate;
+import com.wellness.dto.BulkUpdateResult;
+import com.wellness.dto.ManagerReassignment;
+import com.wellness.dto.MyResponse;
 import com.wellness.dto.UpdateUser;
 import com.wellness.dto.UpdateUserAdmin;
+import com.wellness.dto.UserPage;
+import com.wellness.event.UserChangedEvent;
+import com.wellness.event.UserChangedEvent.Snapshot;
+import com.wellness.exception.AuthenticationFailedException;
 import com.wellness.exception.UserAlreadyExistsException;
 import com.wellness.exception.UserNotFoundException;
+import com.wellness.exception.VersionConflictException;
 import com.wellness.repository.IUserRepository;
 import com.wellness.service.UserService;
 
@@ -16,8 +30,12 @@ import org.junit.jupiter.api.extension.ExtendWith;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.data.domain.Limit;
 import org.springframework.security.crypto.password.PasswordEncoder;
 
+import java.sql.SQLException;
 import java.util.Arrays;
 import java.util.List;
 import java.util.Optional;
@@ -39,24 +57,43 @@ class ServiceTest {
     @Mock
     private PasswordEncoder encoder;
 
+    @Mock
+    private ApplicationEventPublisher publisher;
+
     @InjectMocks
     private UserService userService;
 
     // ---------------- registerUser ----------------
 
     @Test
-    @DisplayName("registerUser → throws UserAlreadyExistsException when email already exists")
+    @DisplayName("registerUser → throws UserAlreadyExistsException when the email unique index rejects the insert")
     void registerUser_throwsWhenExists() {
         Users toSave = new Users();
         toSave.setEmail("exists@example.com");
         toSave.setPassword("pw");
 
-        when(userRepository.existsByEmail("exists@example.com")).thenReturn(true);
+        when(encoder.encode("pw")).thenReturn("ENC(pw)");
+        when(userRepository.save(any(Users.class))).thenThrow(new DataIntegrityViolationException("insert failed",
+                new SQLException("Duplicate entry 'exists@example.com' for key 'users.ux_users_email'")));
 
         assertThrows(UserAlreadyExistsException.class, () -> userService.registerUser(toSave));
 
-        verify(userRepository, never()).save(any());
-        verify(encoder, never()).encode(anyString());
+        verify(userRepository, never()).existsByEmail(anyString());
+        verifyNoInteractions(publisher);
+    }
+
+    @Test
+    @DisplayName("registerUser → other integrity violations are not reported as duplicates")
+    void registerUser_rethrowsOtherViolations() {
+        Users toSave = new Users();
+        toSave.setEmail("new@example.com");
+        toSave.setPassword("pw");
+
+        when(encoder.encode("pw")).thenReturn("ENC(pw)");
+        when(userRepository.save(any(Users.class))).thenThrow(new DataIntegrityViolationException("insert failed",
+                new SQLException("Column 'department' cannot be null")));
+
+        assertThrows(DataIntegrityViolationException.class, () -> userService.registerUser(toSave));
     }
 
     @Test
@@ -66,7 +103,6 @@ class ServiceTest {
         toSave.setEmail("new@example.com");
         toSave.setPassword("plain");
 
-        when(userRepository.existsByEmail("new@example.com")).thenReturn(false);
         when(encoder.encode("plain")).thenReturn("ENC(plain)");
         when(userRepository.save(any(Users.class))).thenReturn(new Users());
 
@@ -85,7 +121,6 @@ class ServiceTest {
         toSave.setEmail("new@example.com");
         toSave.setPassword("pw");
 
-        when(userRepository.existsByEmail("new@example.com")).thenReturn(false);
         when(encoder.encode("pw")).thenReturn("ENC(pw)");
         when(userRepository.save(any(Users.class))).thenReturn(null);
 
@@ -96,23 +131,86 @@ class ServiceTest {
         verify(userRepository).save(any(Users.class));
     }
 
+    private MyResponse response(Long id) {
+        return new MyResponse(id, "Name", "user" + id + "@example.com", "IT", null, Role.EMPLOYEE, Status.ACTIVE, null);
+    }
+
+    // ---------------- authenticate ----------------
+
+    @Test
+    @DisplayName("authenticate → principal built from the login projection when password matches")
+    void authenticate_success() {
+        LoginView login = mock(LoginView.class);
+        when(login.getUserId()).thenReturn(5L);
+        when(login.getEmail()).thenReturn("emp@example.com");
+        when(login.getPassword()).thenReturn("ENC(pw)");
+        when(login.getRole()).thenReturn(Role.EMPLOYEE);
+        when(login.getStatus()).thenReturn(Status.ACTIVE);
+        when(userRepository.findLoginViewByEmail("emp@example.com")).thenReturn(login);
+        when(encoder.matches("pw", "ENC(pw)")).thenReturn(true);
+
+        UserPrinciple principal = userService.authenticate("emp@example.com", "pw");
+
+        assertThat(principal.getUser().getUserId()).isEqualTo(5L);
+        assertThat(principal.getUsername()).isEqualTo("emp@example.com");
+        verify(userRepository, never()).findByEmail(anyString());
+        verify(userRepository, never()).updatePassword(anyLong(), anyString(), anyString());
+    }
+
+    @Test
+    @DisplayName("authenticate → rehashes and stores the password when the stored hash needs an upgrade")
+    void authenticate_rehashesOutdatedHash() {
+        LoginView login = mock(LoginView.class);
+        when(login.getUserId()).thenReturn(5L);
+        when(login.getPassword()).thenReturn("$2a$10$old");
+        when(userRepository.findLoginViewByEmail("emp@example.com")).thenReturn(login);
+        when(encoder.matches("pw", "$2a$10$old")).thenReturn(true);
+        when(encoder.upgradeEncoding("$2a$10$old")).thenReturn(true);
+        when(encoder.encode("pw")).thenReturn("{bcrypt}$2a$12$new");
+
+        userService.authenticate("emp@example.com", "pw");
+
+        verify(userRepository).updatePassword(5L, "$2a$10$old", "{bcrypt}$2a$12$new");
+    }
+
+    @Test
+    @DisplayName("authenticate → throws UserNotFoundException when email not found")
+    void authenticate_notFound() {
+        when(userRepository.findLoginViewByEmail("missing@example.com")).thenReturn(null);
+
+        assertThrows(UserNotFoundException.class, () -> userService.authenticate("missing@example.com", "pw"));
+    }
+
+    @Test
+    @DisplayName("authenticate → throws AuthenticationFailedException when password does not match")
+    void authenticate_badPassword() {
+        LoginView login = mock(LoginView.class);
+        when(login.getPassword()).thenReturn("ENC(pw)");
+        when(userRepository.findLoginViewByEmail("emp@example.com")).thenReturn(login);
+        when(encoder.matches("bad", "ENC(pw)")).thenReturn(false);
+
+        assertThrows(AuthenticationFailedException.class, () -> userService.authenticate("emp@example.com", "bad"));
+    }
+
     // ---------------- getProfile ----------------
 
     @Test
-    @DisplayName("getProfile → returns entity when found")
+    @DisplayName("getProfile → returns the projection from a single query when found")
     void getProfile_found() {
-        Users entity = new Users();
-        when(userRepository.findById((long) 1)).thenReturn(Optional.of(entity));
+        MyResponse profile = response(1L);
+        when(userRepository.findResponseById((long) 1)).thenReturn(profile);
 
-        Users result = userService.getProfile((long)1);
+        MyResponse result = userService.getProfile((long)1);
 
-        assertThat(result).isSameAs(entity);
+        assertThat(result).isSameAs(profile);
+        verify(userRepository, times(1)).findResponseById((long) 1);
+        verify(userRepository, never()).findById(anyLong());
     }
 
     @Test
     @DisplayName("getProfile → throws UserNotFoundException when not found")
     void getProfile_notFound() {
-        when(userRepository.findById((long) 999)).thenReturn(Optional.empty());
+        when(userRepository.findResponseById((long) 999)).thenReturn(null);
 
         assertThrows(UserNotFoundException.class, () -> userService.getProfile((long) 999));
     }
@@ -120,14 +218,46 @@ class ServiceTest {
     // ---------------- getUsers ----------------
 
     @Test
-    @DisplayName("getUsers → returns repository.findAll result")
-    void getUsers_returnsList() {
-        List<Users> list = Arrays.asList(new Users(), new Users(), new Users());
-        when(userRepository.findAll()).thenReturn(list);
+    @DisplayName("getUsers → returns the page and no cursor when fewer rows than the page size")
+    void getUsers_lastPage() {
+        List<MyResponse> list = Arrays.asList(response(1L), response(2L), response(3L));
+        when(userRepository.findPageAfter(eq(0L), isNull(), isNull(), isNull(), eq(Limit.of(51)))).thenReturn(list);
 
-        List<Users> result = userService.getUsers();
+        UserPage result = userService.getUsers(null, 50, null, null, null);
 
-        assertThat(result).hasSize(3).containsExactlyElementsOf(list);
+        assertThat(result.getUsers()).hasSize(3).containsExactlyElementsOf(list);
+        assertThat(result.getNextCursor()).isNull();
+        verify(userRepository, never()).findAll();
+    }
+
+    @Test
+    @DisplayName("getUsers → trims the probe row and returns a cursor that resumes after the last id")
+    void getUsers_nextCursorRoundTrip() {
+        MyResponse a = response(10L);
+        MyResponse b = response(11L);
+        MyResponse probe = response(12L);
+        when(userRepository.findPageAfter(eq(0L), eq("IT"), isNull(), eq(Status.ACTIVE), eq(Limit.of(3))))
+                .thenReturn(Arrays.asList(a, b, probe));
+
+        UserPage first = userService.getUsers(null, 2, "IT", null, Status.ACTIVE);
+
+        assertThat(first.getUsers()).containsExactly(a, b);
+        assertThat(first.getNextCursor()).isNotBlank();
+
+        when(userRepository.findPageAfter(eq(11L), eq("IT"), isNull(), eq(Status.ACTIVE), eq(Limit.of(3))))
+                .thenReturn(List.of(probe));
+        UserPage second = userService.getUsers(first.getNextCursor(), 2, "IT", null, Status.ACTIVE);
+
+        assertThat(second.getUsers()).containsExactly(probe);
+        assertThat(second.getNextCursor()).isNull();
+    }
+
+    @Test
+    @DisplayName("getUsers → rejects tampered cursors and oversized pages with IllegalArgumentException")
+    void getUsers_rejectsBadInput() {
+        assertThrows(IllegalArgumentException.class, () -> userService.getUsers("not-a-cursor", 50, null, null, null));
+        assertThrows(IllegalArgumentException.class, () -> userService.getUsers(null, 100_000, null, null, null));
+        verifyNoInteractions(userRepository);
     }
 
     // ---------------- deleteUser ----------------
@@ -153,6 +283,52 @@ class ServiceTest {
 
         assertThat(result).isEqualTo("Profile deleted successfully!");
         verify(userRepository).deleteById((long) 10);
+        verify(publisher).publishEvent(any(UserChangedEvent.class));
+    }
+
+    // ---------------- bulk updates ----------------
+
+    @Test
+    @DisplayName("updateStatusByDepartment → one set-based update, affected count and a bulk event")
+    void updateStatusByDepartment_publishesBulkEvent() {
+        when(userRepository.changeStatusByDepartment("IT", Status.INACTIVE))
+                .thenReturn(new BulkChange(2, List.of("a@example.com", "b@example.com")));
+        BulkStatusUpdate req = new BulkStatusUpdate();
+        req.setDepartment("IT");
+        req.setStatus(Status.INACTIVE);
+
+        BulkUpdateResult result = userService.updateStatusByDepartment(req);
+
+        assertThat(result.getAffected()).isEqualTo(2);
+        verify(publisher).publishEvent(UserChangedEvent.bulkUpdated(List.of("a@example.com", "b@example.com")));
+        verify(userRepository, never()).save(any());
+    }
+
+    @Test
+    @DisplayName("updateRoleByIds → no event when no row changed; rejects a missing role")
+    void updateRoleByIds_noChange() {
+        when(userRepository.changeRoleByIds(List.of(1L, 2L), Role.MANAGER)).thenReturn(new BulkChange(0, List.of()));
+        BulkRoleUpdate req = new BulkRoleUpdate();
+        req.setUserIds(List.of(1L, 2L));
+        req.setRole(Role.MANAGER);
+
+        assertThat(userService.updateRoleByIds(req).getAffected()).isZero();
+        verifyNoInteractions(publisher);
+
+        req.setRole(null);
+        assertThrows(IllegalArgumentException.class, () -> userService.updateRoleByIds(req));
+    }
+
+    @Test
+    @DisplayName("reassignManager → moves every direct report and publishes a reassignment event")
+    void reassignManager_publishesEvent() {
+        when(userRepository.reassignManager(5, 9)).thenReturn(3);
+        ManagerReassignment req = new ManagerReassignment();
+        req.setFromManagerId(5);
+        req.setToManagerId(9);
+
+        assertThat(userService.reassignManager(req).getAffected()).isEqualTo(3);
+        verify(publisher).publishEvent(UserChangedEvent.managerReassigned(5, 9));
     }
 
     // ---------------- exists ----------------
@@ -170,40 +346,55 @@ class ServiceTest {
 
     // ---------------- updateUser ----------------
 
+    private static UserState state(long version) {
+        return new UserState(7L, version, "New Name", "NewDept", Role.EMPLOYEE, Status.INACTIVE, null);
+    }
+
     @Test
-    @DisplayName("updateUser → encodes password and saves when email found")
+    @DisplayName("updateUser → encodes password and runs one conditional update, nothing is loaded first")
     void updateUser_success() {
-        // existing user from DB
-        Users existing = new Users();
-        existing.setName("Old");
-        existing.setDepartment("OldDept");
-        existing.setPassword("OLD");
-
-        when(userRepository.findByEmail("emp@example.com")).thenReturn(existing);
         when(encoder.encode("newpw")).thenReturn("ENC(newpw)");
-        when(userRepository.save(existing)).thenReturn(existing);
+        when(userRepository.updateProfile("emp@example.com", 3L, "New Name", "NewDept", "ENC(newpw)")).thenReturn(state(4));
 
         // request DTO
         UpdateUser req = new UpdateUser();
-        req.setEmail("emp@example.com");
+        req.setEmail("Emp@Example.com");
         req.setName("New Name");
         req.setDepartment("NewDept");
         req.setPassword("newpw");
+        req.setVersion(3L);
 
         boolean result = userService.updateUser(req);
 
         assertThat(result).isTrue();
-        assertThat(existing.getName()).isEqualTo("New Name");
-        assertThat(existing.getDepartment()).isEqualTo("NewDept");
-        assertThat(existing.getPassword()).isEqualTo("ENC(newpw)");
         verify(encoder).encode("newpw");
-        verify(userRepository).save(existing);
+        verify(userRepository, never()).save(any());
+        verify(userRepository, never()).findStateByEmail(any());
+        verify(publisher).publishEvent(UserChangedEvent.updated(7L, "emp@example.com", null,
+                new Snapshot("New Name", "NewDept", Role.EMPLOYEE, Status.INACTIVE, null)));
+    }
+
+    @Test
+    @DisplayName("updateUser → a stale version matches no row and is a conflict")
+    void updateUser_staleVersion_throwsConflict() {
+        when(encoder.encode("newpw")).thenReturn("ENC(newpw)");
+        when(userRepository.updateProfile(eq("emp@example.com"), eq(3L), any(), any(), any())).thenReturn(null);
+        when(userRepository.existsByEmail("emp@example.com")).thenReturn(true);
+
+        UpdateUser req = new UpdateUser();
+        req.setEmail("emp@example.com");
+        req.setPassword("newpw");
+        req.setVersion(3L);
+
+        assertThrows(VersionConflictException.class, () -> userService.updateUser(req));
+        verify(publisher, never()).publishEvent(any());
     }
 
     @Test
     @DisplayName("updateUser → throws UserNotFoundException when email not found")
     void updateUser_emailNotFound_throwsUserNotFound() {
-        when(userRepository.findByEmail("missing@example.com")).thenReturn(null);
+        when(userRepository.updateProfile(eq("missing@example.com"), isNull(), any(), any(), any())).thenReturn(null);
+        when(userRepository.existsByEmail("missing@example.com")).thenReturn(false);
 
         UpdateUser req = new UpdateUser();
         req.setEmail("missing@example.com");
@@ -213,21 +404,15 @@ class ServiceTest {
 
         assertThrows(UserNotFoundException.class, () -> userService.updateUser(req));
         verify(userRepository, never()).save(any());
-        verify(encoder, never()).encode(anyString());
+        verify(publisher, never()).publishEvent(any());
     }
 
     // ---------------- updateUserAdmin ----------------
 
     @Test
-    @DisplayName("updateUserAdmin → updates fields and saves when email found")
+    @DisplayName("updateUserAdmin → without a version, updates whatever is current")
     void updateUserAdmin_success() {
-        Users existing = new Users();
-        existing.setStatus(Status.INACTIVE);
-        existing.setDepartment("OldDept");
-        existing.setRole(Role.EMPLOYEE);
-
-        when(userRepository.findByEmail("adminupd@example.com")).thenReturn(existing);
-        when(userRepository.save(existing)).thenReturn(existing);
+        when(userRepository.updateAdmin("adminupd@example.com", null, "NewDept", Role.ADMIN, Status.ACTIVE)).thenReturn(state(6));
 
         UpdateUserAdmin req = new UpdateUserAdmin();
         req.setEmail("adminupd@example.com");
@@ -238,16 +423,33 @@ class ServiceTest {
         boolean result = userService.updateUserAdmin(req);
 
         assertThat(result).isTrue();
-        assertThat(existing.getStatus()).isEqualTo(Status.ACTIVE);
-        assertThat(existing.getDepartment()).isEqualTo("NewDept");
-        assertThat(existing.getRole()).isEqualTo(Role.ADMIN);
-        verify(userRepository).save(existing);
+        verify(userRepository).updateAdmin("adminupd@example.com", null, "NewDept", Role.ADMIN, Status.ACTIVE);
+        verify(userRepository, never()).findStateByEmail(any());
+        verify(userRepository, never()).save(any());
+    }
+
+    @Test
+    @DisplayName("updateUserAdmin → a write since the client's read is a conflict")
+    void updateUserAdmin_lostRace_throwsConflict() {
+        when(userRepository.updateAdmin("adminupd@example.com", 5L, "NewDept", Role.ADMIN, Status.ACTIVE)).thenReturn(null);
+        when(userRepository.existsByEmail("adminupd@example.com")).thenReturn(true);
+
+        UpdateUserAdmin req = new UpdateUserAdmin();
+        req.setEmail("adminupd@example.com");
+        req.setStatus(Status.ACTIVE);
+        req.setDepartment("NewDept");
+        req.setRole(Role.ADMIN);
+        req.setVersion(5L);
+
+        assertThrows(VersionConflictException.class, () -> userService.updateUserAdmin(req));
+        verify(publisher, never()).publishEvent(any());
     }
 
     @Test
     @DisplayName("updateUserAdmin → throws UserNotFoundException when email not found")
     void updateUserAdmin_emailNotFound_throwsUserNotFound() {
-        when(userRepository.findByEmail("missing@example.com")).thenReturn(null);
+        when(userRepository.updateAdmin("missing@example.com", null, "Dept", Role.ADMIN, Status.ACTIVE)).thenReturn(null);
+        when(userRepository.existsByEmail("missing@example.com")).thenReturn(false);
 
         UpdateUserAdmin req = new UpdateUserAdmin();
         req.setEmail("missing@example.com");
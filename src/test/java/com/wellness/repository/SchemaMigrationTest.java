@@ -0,0 +1,108 @@
+package com.wellness.repository;
+
+import com.wellness.configurations.EmailCollisionCheck;
+import com.wellness.data.Role;
+import com.wellness.data.Status;
+import com.wellness.data.Users;
+
+import org.flywaydb.core.Flyway;
+import org.flywaydb.core.api.FlywayException;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.data.jpa.test.autoconfigure.DataJpaTest;
+import org.springframework.boot.jdbc.test.autoconfigure.AutoConfigureTestDatabase;
+import org.springframework.boot.jdbc.test.autoconfigure.AutoConfigureTestDatabase.Replace;
+import org.springframework.context.annotation.Import;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.DriverManagerDataSource;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.context.TestPropertySource;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+/**
+ * Runs the Flyway scripts on H2 and checks that lookups use the new indexes.
+ */
+@DataJpaTest
+@ActiveProfiles("test")
+@AutoConfigureTestDatabase(replace = Replace.NONE)
+@Import(EmailCollisionCheck.class)
+@TestPropertySource(properties = {
+        // separate database so the schema comes only from db/migration
+        "test.database=migrationdb",
+        "spring.jpa.hibernate.ddl-auto=none"
+})
+class SchemaMigrationTest {
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private IUserRepository repository;
+
+    private String plan(String sql) {
+        return jdbcTemplate.queryForObject("EXPLAIN " + sql, String.class).toLowerCase();
+    }
+
+    private Users user(String email) {
+        Users u = new Users();
+        u.setName("Migrated");
+        u.setEmail(email);
+        u.setPassword("x");
+        u.setDepartment("IT");
+        u.setRole(Role.EMPLOYEE);
+        u.setStatus(Status.ACTIVE);
+        return u;
+    }
+
+    @Test
+    @DisplayName("email lookups use the unique email index")
+    void emailLookup_usesUniqueIndex() {
+        assertThat(plan("SELECT user_id FROM users WHERE email = 'a@example.com'")).contains("ux_users_email");
+    }
+
+    @Test
+    @DisplayName("department, manager_id and status filters use their secondary indexes")
+    void filters_useSecondaryIndexes() {
+        assertThat(plan("SELECT user_id FROM users WHERE department = 'IT'")).contains("ix_users_department");
+        assertThat(plan("SELECT user_id FROM users WHERE manager_id = 2")).contains("ix_users_manager_id");
+        assertThat(plan("SELECT user_id FROM users WHERE status = 'ACTIVE'")).contains("ix_users_status");
+    }
+
+    @Test
+    @DisplayName("emails differing only by case collide on the unique index")
+    void email_uniqueIgnoringCase() {
+        repository.saveAndFlush(user("Case@Example.com"));
+
+        assertThat(repository.findByEmail("case@example.com")).isNotNull();
+        assertThatThrownBy(() -> repository.saveAndFlush(user("CASE@example.COM")))
+                .isInstanceOf(DataIntegrityViolationException.class);
+    }
+
+    @Test
+    @DisplayName("an existing table with emails differing only by case stops before V2 and lists the rows")
+    void emailIndex_refusesCaseDuplicates() {
+        DriverManagerDataSource dataSource = new DriverManagerDataSource(
+                "jdbc:h2:mem:duplicatesdb;MODE=MySQL;DATABASE_TO_LOWER=TRUE;DB_CLOSE_DELAY=-1", "sa", "");
+        Flyway.configure().dataSource(dataSource).target("1").load().migrate();
+        JdbcTemplate jdbc = new JdbcTemplate(dataSource);
+        String insert = "INSERT INTO users (name, email, password, department, role, status) VALUES (?, ?, 'x', 'IT', 'EMPLOYEE', 'ACTIVE')";
+        jdbc.update(insert, "Foo", "Foo@x.com");
+        jdbc.update(insert, "foo", " foo@x.com");
+        jdbc.update(insert, "Bar", "bar@x.com");
+
+        Flyway flyway = Flyway.configure().dataSource(dataSource).callbacks(new EmailCollisionCheck()).load();
+
+        assertThatThrownBy(flyway::migrate)
+                .isInstanceOf(FlywayException.class)
+                .hasMessageContaining("1 Foo@x.com, 2  foo@x.com")
+                .hasMessageNotContaining("bar@x.com");
+        //nothing of V2 ran, the emails are as they were
+        assertThat(jdbc.queryForList("SELECT email FROM users ORDER BY user_id", String.class))
+                .containsExactly("Foo@x.com", " foo@x.com", "bar@x.com");
+        assertThat(flyway.info().current().getVersion().getVersion()).isEqualTo("1");
+    }
+}
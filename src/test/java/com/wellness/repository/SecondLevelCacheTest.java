@@ -0,0 +1,101 @@
+package com.wellness.repository;
+
+import com.wellness.data.Role;
+import com.wellness.data.Status;
+import com.wellness.data.Users;
+
+import jakarta.persistence.EntityManagerFactory;
+
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.data.jpa.test.autoconfigure.DataJpaTest;
+import org.springframework.boot.jdbc.test.autoconfigure.AutoConfigureTestDatabase;
+import org.springframework.boot.jdbc.test.autoconfigure.AutoConfigureTestDatabase.Replace;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.context.TestPropertySource;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Repeated reads are served by the second-level and query caches, and writes invalidate them.
+ * Not transactional, so each repository call runs in its own session like a request does.
+ */
+@DataJpaTest
+@ActiveProfiles("test")
+@AutoConfigureTestDatabase(replace = Replace.NONE)
+@Transactional(propagation = Propagation.NOT_SUPPORTED)
+@TestPropertySource(properties = "test.database=cachedb")
+class SecondLevelCacheTest {
+
+    @Autowired
+    private IUserRepository repository;
+
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
+    private Statistics stats;
+    private Users saved;
+
+    @BeforeEach
+    void setUp() {
+        SessionFactory sessionFactory = entityManagerFactory.unwrap(SessionFactory.class);
+        sessionFactory.getCache().evictAllRegions();
+        repository.deleteAll();
+
+        Users u = new Users();
+        u.setName("Cached");
+        u.setEmail("cached@example.com");
+        u.setPassword("x");
+        u.setDepartment("IT");
+        u.setRole(Role.EMPLOYEE);
+        u.setStatus(Status.ACTIVE);
+        saved = repository.save(u);
+
+        stats = sessionFactory.getStatistics();
+        stats.clear();
+    }
+
+    @Test
+    @DisplayName("findResponseById → second read comes from the query cache")
+    void profileRead_servedFromQueryCache() {
+        repository.findResponseById(saved.getUserId());
+        repository.findResponseById(saved.getUserId());
+
+        assertThat(stats.getPrepareStatementCount()).isEqualTo(1);
+        assertThat(stats.getQueryCacheHitCount()).isEqualTo(1);
+    }
+
+    @Test
+    @DisplayName("findById and findByEmail → repeated reads do not touch the database")
+    void entityReads_servedFromSecondLevelCache() {
+        repository.findById(saved.getUserId());
+        repository.findById(saved.getUserId());
+        repository.findByEmail("cached@example.com");
+        repository.findByEmail("cached@example.com");
+
+        // one load by id and one email query, the repeats are cache hits
+        assertThat(stats.getPrepareStatementCount()).isEqualTo(2);
+        assertThat(stats.getSecondLevelCacheHitCount()).isPositive();
+    }
+
+    @Test
+    @DisplayName("save and bulk update → cached profile and email lookups are invalidated")
+    void writes_invalidateCachedResults() {
+        repository.findResponseById(saved.getUserId());
+
+        Users user = repository.findByEmail("cached@example.com");
+        user.setDepartment("HR");
+        repository.save(user);
+        assertThat(repository.findResponseById(saved.getUserId()).getDepartment()).isEqualTo("HR");
+
+        repository.updateStatusByDepartment("HR", Status.INACTIVE);
+        assertThat(repository.findResponseById(saved.getUserId()).getStatus()).isEqualTo(Status.INACTIVE);
+        assertThat(repository.findById(saved.getUserId()).orElseThrow().getStatus()).isEqualTo(Status.INACTIVE);
+    }
+}
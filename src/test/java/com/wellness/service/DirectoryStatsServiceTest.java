@@ -0,0 +1,120 @@
+package com.wellness.service;
+
+import com.wellness.data.DirectoryCount;
+import com.wellness.data.Role;
+import com.wellness.data.Status;
+import com.wellness.dto.DirectoryStats;
+import com.wellness.event.UserChangedEvent;
+import com.wellness.event.UserChangedEvent.Snapshot;
+import com.wellness.repository.IUserRepository;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+/**
+ * Unit tests for the in-memory headcount counters.
+ */
+class DirectoryStatsServiceTest {
+
+    private IUserRepository repository;
+    private DirectoryStatsService service;
+    private SimpleMeterRegistry registry;
+
+    @BeforeEach
+    void setUp() {
+        repository = mock(IUserRepository.class);
+        when(repository.countByDepartmentRoleStatus()).thenReturn(List.of(
+                new DirectoryCount("IT", Role.EMPLOYEE, Status.ACTIVE, 5L),
+                new DirectoryCount("IT", Role.ADMIN, Status.ACTIVE, 1L),
+                new DirectoryCount("HR", Role.EMPLOYEE, Status.INACTIVE, 2L)));
+        service = new DirectoryStatsService(repository);
+        registry = new SimpleMeterRegistry();
+        service.bindTo(registry);
+        service.resync();
+    }
+
+    private static Snapshot user(String department, Role role, Status status) {
+        return new Snapshot("Someone", department, role, status, null);
+    }
+
+    @Test
+    @DisplayName("resync → totals by department, role and status from the grouped counts")
+    void resync_loadsTotals() {
+        DirectoryStats stats = service.getStats();
+
+        assertThat(stats.getTotal()).isEqualTo(8);
+        assertThat(stats.getDepartments()).containsEntry("IT", 6L).containsEntry("HR", 2L);
+        assertThat(stats.getRoles()).containsEntry(Role.EMPLOYEE, 7L).containsEntry(Role.ADMIN, 1L);
+        assertThat(stats.getStatuses()).containsEntry(Status.ACTIVE, 6L).containsEntry(Status.INACTIVE, 2L);
+    }
+
+    @Test
+    @DisplayName("onUserChanged → created, updated and deleted users move the counters without a query")
+    void onUserChanged_movesCounters() {
+        service.onUserChanged(UserChangedEvent.created(9L, "new@example.com", user("QA", Role.EMPLOYEE, Status.ACTIVE)));
+        service.onUserChanged(UserChangedEvent.updated(1L, "it@example.com",
+                user("IT", Role.EMPLOYEE, Status.ACTIVE), user("HR", Role.EMPLOYEE, Status.INACTIVE)));
+        service.onUserChanged(UserChangedEvent.deleted(2L, "admin@example.com", user("IT", Role.ADMIN, Status.ACTIVE)));
+
+        DirectoryStats stats = service.getStats();
+        assertThat(stats.getTotal()).isEqualTo(8);
+        assertThat(stats.getDepartments()).containsEntry("IT", 4L).containsEntry("HR", 3L).containsEntry("QA", 1L);
+        assertThat(stats.getRoles()).containsEntry(Role.ADMIN, 0L);
+        assertThat(stats.getStatuses()).containsEntry(Status.INACTIVE, 3L);
+        verify(repository, times(1)).countByDepartmentRoleStatus();
+    }
+
+    @Test
+    @DisplayName("resync → counters that drifted from the database are replaced and counted")
+    void resync_reportsDrift() {
+        when(repository.countByDepartmentRoleStatus()).thenReturn(List.of(
+                new DirectoryCount("IT", Role.EMPLOYEE, Status.ACTIVE, 7L)));
+
+        service.resync();
+
+        assertThat(service.getStats().getTotal()).isEqualTo(7);
+        assertThat(service.getStats().getDepartments()).containsOnlyKeys("IT");
+        assertThat(registry.get("directory.stats.drift").counter().count()).isEqualTo(1);
+    }
+
+    @Test
+    @DisplayName("onUserChanged → a bulk update recounts without reporting drift")
+    void onUserChanged_bulkRecounts() {
+        when(repository.countByDepartmentRoleStatus()).thenReturn(List.of(
+                new DirectoryCount("IT", Role.EMPLOYEE, Status.INACTIVE, 6L)));
+
+        service.onUserChanged(UserChangedEvent.bulkUpdated(List.of("a@example.com")));
+
+        assertThat(service.getStats().getStatuses()).containsEntry(Status.ACTIVE, 0L).containsEntry(Status.INACTIVE, 6L);
+        assertThat(registry.get("directory.stats.drift").counter().count()).isZero();
+    }
+
+    @Test
+    @DisplayName("onUserChanged → an update without the old row recounts on the next refresh, once for many")
+    void onUserChanged_updateWithoutBeforeRefreshesLater() {
+        when(repository.countByDepartmentRoleStatus()).thenReturn(List.of(
+                new DirectoryCount("HR", Role.EMPLOYEE, Status.ACTIVE, 8L)));
+
+        service.onUserChanged(UserChangedEvent.updated(1L, "it@example.com", null, user("HR", Role.EMPLOYEE, Status.ACTIVE)));
+        service.onUserChanged(UserChangedEvent.updated(2L, "admin@example.com", null, user("HR", Role.EMPLOYEE, Status.ACTIVE)));
+        //nothing is queried on the caller's thread
+        verify(repository, times(1)).countByDepartmentRoleStatus();
+
+        service.refreshIfStale();
+        service.refreshIfStale();
+
+        assertThat(service.getStats().getDepartments()).containsOnlyKeys("HR");
+        verify(repository, times(2)).countByDepartmentRoleStatus();
+    }
+}
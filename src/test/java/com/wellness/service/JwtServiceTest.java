@@ -0,0 +1,180 @@
+package com.wellness.service;
+
+import com.wellness.data.Role;
+import com.wellness.data.Status;
+import com.wellness.data.UserPrinciple;
+import com.wellness.data.Users;
+import com.wellness.event.UserChangedEvent;
+import com.wellness.exception.AuthenticationFailedException;
+
+import io.jsonwebtoken.Claims;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+/**
+ * Unit tests for JwtService token generation and the verified-token cache.
+ */
+class JwtServiceTest {
+
+    private static final String SECRET = "123456789012345678901234567890123456";
+
+    private final AtomicLong clock = new AtomicLong(System.currentTimeMillis());
+    private VerifiedTokenCache tokenCache;
+    private JwtCodec codec;
+    private TokenVersionRegistry versions;
+    private JwtService jwtService;
+    private UserPrinciple principal;
+
+    @BeforeEach
+    void setUp() {
+        tokenCache = new VerifiedTokenCache(100);
+        codec = new JwtCodec(SECRET, 2, Duration.ofHours(1), clock::get);
+        versions = new TokenVersionRegistry();
+        jwtService = new JwtService(codec, tokenCache, versions);
+
+        Users user = new Users();
+        user.setUserId(7L);
+        user.setEmail("emp@example.com");
+        user.setPassword("ENC(pw)");
+        user.setRole(Role.EMPLOYEE);
+        user.setStatus(Status.ACTIVE);
+        principal = new UserPrinciple(user);
+    }
+
+    @Test
+    @DisplayName("verify → parses once and serves repeated calls from the cache")
+    void verify_cachesClaims() {
+        String token = jwtService.generateToken(principal);
+
+        Claims first = jwtService.verify(token);
+        Claims second = jwtService.verify(token);
+
+        assertThat(second).isSameAs(first);
+        assertThat(tokenCache.size()).isEqualTo(1);
+        assertThat(jwtService.extractUserName(token)).isEqualTo("emp@example.com");
+        assertThat(jwtService.validateToken(token, principal)).isTrue();
+    }
+
+    @Test
+    @DisplayName("verify → throws AuthenticationFailedException for a tampered token and caches nothing")
+    void verify_rejectsTamperedToken() {
+        String token = jwtService.generateToken(principal);
+        String tampered = token.substring(0, token.length() - 2) + "xx";
+
+        assertThrows(AuthenticationFailedException.class, () -> jwtService.verify(tampered));
+        assertThat(tokenCache.size()).isZero();
+    }
+
+    @Test
+    @DisplayName("rotation → new tokens use the next period's kid, tokens from the previous key stay valid")
+    void rotate_keepsPreviousKeyInRing() {
+        String before = jwtService.generateToken(principal);
+        String kid = codec.activeKid();
+
+        clock.addAndGet(Duration.ofHours(1).toMillis());
+        String after = jwtService.generateToken(principal);
+
+        assertThat(codec.activeKid()).isNotEqualTo(kid).isNotEqualTo(JwtCodec.PRIMARY_KID);
+        assertThat(codec.decode(before).getSubject()).isEqualTo("emp@example.com");
+        assertThat(codec.decode(after).getSubject()).isEqualTo("emp@example.com");
+    }
+
+    @Test
+    @DisplayName("rotation → tokens signed by a key dropped from the ring are rejected")
+    void rotate_dropsOldestKey() {
+        String before = jwtService.generateToken(principal);
+
+        clock.addAndGet(Duration.ofHours(2).toMillis());
+
+        assertThrows(AuthenticationFailedException.class, () -> jwtService.verify(before));
+    }
+
+    @Test
+    @DisplayName("rotation → a cached token stops authenticating once its key leaves the ring")
+    void rotate_evictsCachedTokensOfDroppedKeys() {
+        String before = jwtService.generateToken(principal);
+        jwtService.verify(before);
+        assertThat(tokenCache.size()).isEqualTo(1);
+
+        clock.addAndGet(Duration.ofHours(2).toMillis());
+
+        assertThrows(AuthenticationFailedException.class, () -> jwtService.verify(before));
+        assertThat(tokenCache.size()).isZero();
+    }
+
+    @Test
+    @DisplayName("rotation → another instance, or this one after a restart, accepts the rotated keys")
+    void rotate_keysSharedAcrossInstances() {
+        clock.addAndGet(Duration.ofHours(5).toMillis());
+        String rotated = jwtService.generateToken(principal);
+        String unrotated = new JwtService(new JwtCodec(SECRET, 2), tokenCache, versions).generateToken(principal);
+
+        JwtCodec other = new JwtCodec(SECRET, 2, Duration.ofHours(1), clock::get);
+        //a neighbour whose clock is slightly behind still knows the next period's key
+        JwtCodec behind = new JwtCodec(SECRET, 2, Duration.ofHours(1), () -> clock.get() - Duration.ofHours(1).toMillis());
+
+        assertThat(other.activeKid()).isEqualTo(codec.activeKid());
+        assertThat(other.decode(rotated).getSubject()).isEqualTo("emp@example.com");
+        assertThat(behind.decode(rotated).getSubject()).isEqualTo("emp@example.com");
+        //the configured key is never dropped from the ring
+        assertThat(other.decode(unrotated).getSubject()).isEqualTo("emp@example.com");
+        assertThrows(Exception.class, () -> new JwtCodec("another-secret-another-secret-another", 2, Duration.ofHours(1), clock::get)
+                .decode(rotated));
+    }
+
+    @Test
+    @DisplayName("toPrincipal → rebuilds id, email, role and status from the token claims")
+    void toPrincipal_fromClaims() {
+        Claims claims = jwtService.verify(jwtService.generateToken(principal));
+
+        UserPrinciple fromToken = jwtService.toPrincipal(claims);
+
+        assertThat(fromToken.getUser().getUserId()).isEqualTo(7L);
+        assertThat(fromToken.getUsername()).isEqualTo("emp@example.com");
+        assertThat(fromToken.getUser().getRole()).isEqualTo(Role.EMPLOYEE);
+        assertThat(fromToken.getUser().getStatus()).isEqualTo(Status.ACTIVE);
+        assertThat(fromToken.getAuthorities()).isEqualTo(principal.getAuthorities());
+    }
+
+    @Test
+    @DisplayName("isRevoked → true once the user's token version is bumped by a change event")
+    void isRevoked_afterUserChanged() {
+        Claims claims = jwtService.verify(jwtService.generateToken(principal));
+        assertThat(jwtService.isRevoked(claims)).isFalse();
+
+        versions.onUserChanged(UserChangedEvent.updated(7L, "emp@example.com"));
+
+        assertThat(jwtService.isRevoked(claims)).isTrue();
+        Claims fresh = jwtService.verify(jwtService.generateToken(principal));
+        assertThat(jwtService.isRevoked(fresh)).isFalse();
+    }
+
+    @Test
+    @DisplayName("isRevoked → a bulk update revokes the tokens of the users it changed, and no others")
+    void isRevoked_afterBulkUpdate() {
+        Users other = new Users();
+        other.setUserId(8L);
+        other.setEmail("other@example.com");
+        other.setPassword("ENC(pw)");
+        other.setRole(Role.EMPLOYEE);
+        other.setStatus(Status.ACTIVE);
+        Claims changed = jwtService.verify(jwtService.generateToken(principal));
+        Claims untouched = jwtService.verify(jwtService.generateToken(new UserPrinciple(other)));
+
+        versions.onUserChanged(UserChangedEvent.bulkUpdated(List.of("emp@example.com")));
+
+        assertThat(jwtService.isRevoked(changed)).isTrue();
+        assertThat(jwtService.isRevoked(untouched)).isFalse();
+        Claims fresh = jwtService.verify(jwtService.generateToken(principal));
+        assertThat(jwtService.isRevoked(fresh)).isFalse();
+    }
+}
@@ -0,0 +1,97 @@
+package com.wellness.service;
+
+import com.wellness.data.Role;
+import com.wellness.data.Status;
+import com.wellness.data.UserPrinciple;
+import com.wellness.data.Users;
+import com.wellness.repository.IUserRepository;
+
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.EntityManagerFactory;
+
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.data.jpa.test.autoconfigure.DataJpaTest;
+import org.springframework.boot.jdbc.test.autoconfigure.AutoConfigureTestDatabase;
+import org.springframework.boot.jdbc.test.autoconfigure.AutoConfigureTestDatabase.Replace;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.context.TestPropertySource;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.mock;
+
+/**
+ * Proves that a login costs exactly one SQL statement, and one more when it upgrades the hash.
+ */
+@DataJpaTest
+@ActiveProfiles("test")
+@AutoConfigureTestDatabase(replace = Replace.NONE)
+@TestPropertySource(properties = {
+        // statement counters for the assertions below
+        "spring.jpa.properties.hibernate.generate_statistics=true"
+})
+class LoginQueryCountTest {
+
+    @Autowired
+    private IUserRepository repository;
+
+    @Autowired
+    private EntityManager entityManager;
+
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
+    private final BCryptPasswordEncoder encoder = new BCryptPasswordEncoder(4);
+
+    private UserService userService;
+
+    @BeforeEach
+    void setUp() {
+        userService = new UserService(repository, encoder, mock(ApplicationEventPublisher.class));
+
+        Users u = new Users();
+        u.setName("Login User");
+        u.setEmail("login@example.com");
+        u.setPassword(encoder.encode("secret"));
+        u.setDepartment("IT");
+        u.setRole(Role.EMPLOYEE);
+        u.setStatus(Status.ACTIVE);
+        repository.saveAndFlush(u);
+        entityManager.clear();
+    }
+
+    @Test
+    @DisplayName("authenticate → one select feeds password check and token principal")
+    void authenticate_issuesSingleQuery() {
+        Statistics stats = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+        stats.clear();
+
+        UserPrinciple principal = userService.authenticate("login@example.com", "secret");
+
+        assertThat(principal.getUsername()).isEqualTo("login@example.com");
+        assertThat(principal.getUser().getUserId()).isNotNull();
+        assertThat(principal.getAuthorities()).extracting(Object::toString).containsExactly("ROLE_EMPLOYEE");
+        assertThat(stats.getPrepareStatementCount()).isEqualTo(1);
+    }
+
+    @Test
+    @DisplayName("authenticate → a hash below the current cost costs one extra update and is upgraded")
+    void authenticate_rehashAddsOneUpdate() {
+        UserService stronger = new UserService(repository, new BCryptPasswordEncoder(5), mock(ApplicationEventPublisher.class));
+        Statistics stats = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+        stats.clear();
+
+        stronger.authenticate("login@example.com", "secret");
+
+        assertThat(stats.getPrepareStatementCount()).isEqualTo(2);
+        String hash = repository.findLoginViewByEmail("login@example.com").getPassword();
+        assertThat(hash).startsWith("$2a$05$");
+        assertThat(encoder.matches("secret", hash)).isTrue();
+    }
+}
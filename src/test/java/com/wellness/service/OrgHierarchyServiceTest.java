@@ -0,0 +1,181 @@
+package com.wellness.service;
+
+import com.wellness.data.ManagerLink;
+import com.wellness.data.Role;
+import com.wellness.data.Status;
+import com.wellness.dto.MyResponse;
+import com.wellness.dto.OrgNode;
+import com.wellness.dto.SpanOfControl;
+import com.wellness.event.UserChangedEvent;
+import com.wellness.event.UserChangedEvent.Snapshot;
+import com.wellness.exception.UserNotFoundException;
+import com.wellness.repository.IUserRepository;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.mockito.ArgumentMatchers.anyCollection;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+/**
+ * Unit tests for the in-memory reporting tree.
+ */
+class OrgHierarchyServiceTest {
+
+    private IUserRepository repository;
+    private OrgHierarchyService hierarchy;
+
+    //     1
+    //   2   3
+    //  4 5   6
+    //  7
+    @BeforeEach
+    void setUp() {
+        repository = mock(IUserRepository.class);
+        when(repository.findManagerLinks()).thenReturn(List.of(
+                new ManagerLink(1L, null), new ManagerLink(2L, 1), new ManagerLink(3L, 1),
+                new ManagerLink(4L, 2), new ManagerLink(5L, 2), new ManagerLink(6L, 3), new ManagerLink(7L, 4)));
+        hierarchy = new OrgHierarchyService(repository);
+        hierarchy.reload();
+    }
+
+    private static MyResponse response(long id) {
+        return new MyResponse(id, "User " + id, "u" + id + "@example.com", "IT", null, null, null, null);
+    }
+
+    @Test
+    @DisplayName("getSubtree → every user below, breadth first, limited by maxDepth")
+    void getSubtree_walksLevels() {
+        List<OrgNode> all = hierarchy.getSubtree(1L, Integer.MAX_VALUE);
+        List<OrgNode> twoLevels = hierarchy.getSubtree(1L, 2);
+
+        assertThat(all).extracting(OrgNode::getUserId).containsExactly(2L, 3L, 4L, 5L, 6L, 7L);
+        assertThat(all).extracting(OrgNode::getDepth).containsExactly(1, 1, 2, 2, 2, 3);
+        assertThat(twoLevels).extracting(OrgNode::getUserId).containsExactly(2L, 3L, 4L, 5L, 6L);
+        assertThat(hierarchy.getSubtree(7L, 5)).isEmpty();
+    }
+
+    @Test
+    @DisplayName("getSpanOfControl → direct and total reports and the number of levels below")
+    void getSpanOfControl_counts() {
+        SpanOfControl root = hierarchy.getSpanOfControl(1L);
+        SpanOfControl leaf = hierarchy.getSpanOfControl(6L);
+
+        assertThat(root.getDirectReports()).isEqualTo(2);
+        assertThat(root.getTotalReports()).isEqualTo(6);
+        assertThat(root.getLevels()).isEqualTo(3);
+        assertThat(leaf.getTotalReports()).isZero();
+        assertThat(leaf.getLevels()).isZero();
+    }
+
+    @Test
+    @DisplayName("getReportingChain → managers from the direct one up to the root, loaded in one query")
+    void getReportingChain_ordersUpwards() {
+        when(repository.findResponsesByIds(anyCollection())).thenReturn(List.of(response(1L), response(2L), response(4L)));
+
+        List<MyResponse> chain = hierarchy.getReportingChain(7L);
+
+        assertThat(chain).extracting(MyResponse::getUserId).containsExactly(4L, 2L, 1L);
+        assertThat(hierarchy.getReportingChain(1L)).isEmpty();
+        verify(repository, times(1)).findResponsesByIds(anyCollection());
+    }
+
+    @Test
+    @DisplayName("onUserChanged → created and deleted users update the tree without a reload")
+    void onUserChanged_incremental() {
+        hierarchy.onUserChanged(UserChangedEvent.created(8L, "u8@example.com", new Snapshot("User 8", "IT", Role.EMPLOYEE, Status.ACTIVE, 6)));
+        hierarchy.onUserChanged(UserChangedEvent.deleted(5L, "u5@example.com"));
+
+        assertThat(hierarchy.getSubtree(3L, Integer.MAX_VALUE)).extracting(OrgNode::getUserId).containsExactly(6L, 8L);
+        assertThat(hierarchy.getSubtree(2L, 1)).extracting(OrgNode::getUserId).containsExactly(4L);
+        assertThrows(UserNotFoundException.class, () -> hierarchy.getSubtree(5L, 1));
+        verify(repository, times(1)).findManagerLinks();
+    }
+
+    @Test
+    @DisplayName("onUserChanged → a manager reassignment moves the reports without a query")
+    void onUserChanged_reassignmentMovesReports() {
+        hierarchy.onUserChanged(UserChangedEvent.managerReassigned(2, 3));
+
+        assertThat(hierarchy.getSpanOfControl(3L).getDirectReports()).isEqualTo(3);
+        assertThat(hierarchy.getSubtree(3L, Integer.MAX_VALUE)).extracting(OrgNode::getUserId).containsExactly(6L, 4L, 5L, 7L);
+        assertThat(hierarchy.getSubtree(2L, 1)).isEmpty();
+
+        hierarchy.onUserChanged(UserChangedEvent.managerReassigned(3, null));
+
+        assertThat(hierarchy.getSubtree(3L, 1)).isEmpty();
+        assertThat(hierarchy.getSubtree(4L, 1)).extracting(OrgNode::getUserId).containsExactly(7L);
+        verify(repository, times(1)).findManagerLinks();
+    }
+
+    @Test
+    @DisplayName("checkReassignment → refuses to move a manager's reports under one of them")
+    void checkReassignment_refusesCycles() {
+        assertThrows(IllegalArgumentException.class, () -> hierarchy.checkReassignment(2, 7));
+        assertThrows(IllegalArgumentException.class, () -> hierarchy.checkReassignment(1, 4));
+
+        hierarchy.checkReassignment(2, 3);
+        hierarchy.checkReassignment(4, 1);
+        hierarchy.checkReassignment(2, null);
+    }
+
+    @Test
+    @DisplayName("onUserChanged → imports rebuild the tree on the next refresh, once for many")
+    void onUserChanged_importRefreshesLater() {
+        when(repository.findManagerLinks()).thenReturn(List.of(
+                new ManagerLink(1L, null), new ManagerLink(2L, 1), new ManagerLink(3L, 1),
+                new ManagerLink(4L, 2), new ManagerLink(5L, 2), new ManagerLink(6L, 3), new ManagerLink(7L, 4),
+                new ManagerLink(8L, 6)));
+
+        hierarchy.onUserChanged(UserChangedEvent.imported());
+        hierarchy.onUserChanged(UserChangedEvent.imported());
+        //nothing is queried on the caller's thread
+        verify(repository, times(1)).findManagerLinks();
+
+        hierarchy.refreshIfStale();
+        hierarchy.refreshIfStale();
+
+        assertThat(hierarchy.getSubtree(6L, 1)).extracting(OrgNode::getUserId).containsExactly(8L);
+        verify(repository, times(2)).findManagerLinks();
+    }
+
+    @Test
+    @DisplayName("getReportingChain → a cycle in the data ends the chain instead of looping")
+    void getReportingChain_stopsOnCycle() {
+        when(repository.findManagerLinks()).thenReturn(List.of(new ManagerLink(1L, 2), new ManagerLink(2L, 1)));
+        when(repository.findResponsesByIds(anyCollection())).thenReturn(List.of(response(2L)));
+        hierarchy.reload();
+
+        assertThat(hierarchy.getReportingChain(1L)).extracting(MyResponse::getUserId).containsExactly(2L);
+        assertThat(hierarchy.getSubtree(1L, Integer.MAX_VALUE)).extracting(OrgNode::getUserId).containsExactly(2L);
+    }
+
+    @Test
+    @DisplayName("getSubtree → a 100k-user tree is walked in well under a second")
+    void getSubtree_largeTree() {
+        //ten reports per manager
+        List<ManagerLink> links = new ArrayList<>();
+        links.add(new ManagerLink(1L, null));
+        for (int id = 2; id <= 100_000; id++) {
+            links.add(new ManagerLink((long) id, (id - 2) / 10 + 1));
+        }
+        when(repository.findManagerLinks()).thenReturn(links);
+        hierarchy.reload();
+
+        long start = System.nanoTime();
+        List<OrgNode> subtree = hierarchy.getSubtree(1L, Integer.MAX_VALUE);
+        long millis = (System.nanoTime() - start) / 1_000_000;
+
+        assertThat(subtree).hasSize(99_999);
+        assertThat(millis).isLessThan(1000);
+    }
+}
@@ -0,0 +1,157 @@
+package com.wellness.service;
+
+import com.wellness.data.Role;
+import com.wellness.data.Status;
+import com.wellness.data.Users;
+import com.wellness.exception.UserAlreadyExistsException;
+import com.wellness.repository.IUserRepository;
+
+import jakarta.persistence.EntityManagerFactory;
+
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.data.jpa.test.autoconfigure.DataJpaTest;
+import org.springframework.boot.jdbc.test.autoconfigure.AutoConfigureTestDatabase;
+import org.springframework.boot.jdbc.test.autoconfigure.AutoConfigureTestDatabase.Replace;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.security.crypto.password.PasswordEncoder;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.context.TestPropertySource;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.mockito.Mockito.mock;
+
+/**
+ * Concurrent registrations racing on the same emails against H2: the unique index
+ * lets exactly one win per email and the rest get UserAlreadyExistsException.
+ */
+@DataJpaTest
+@ActiveProfiles("test")
+@AutoConfigureTestDatabase(replace = Replace.NONE)
+@Transactional(propagation = Propagation.NOT_SUPPORTED)
+@TestPropertySource(properties = {
+        "test.database=registerdb",
+        "spring.datasource.hikari.maximum-pool-size=16",
+        "spring.jpa.properties.hibernate.generate_statistics=true"
+})
+class RegistrationConcurrencyTest {
+
+    private static final int THREADS = 8;
+    private static final int EMAILS = 200;
+    private static final int ATTEMPTS_PER_EMAIL = 4;
+
+    @Autowired
+    private IUserRepository repository;
+
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
+    private UserService userService;
+
+    @BeforeEach
+    void setUp() {
+        repository.deleteAll();
+        userService = new UserService(repository, new PlainPasswordEncoder(), mock(ApplicationEventPublisher.class));
+    }
+
+    @Test
+    @DisplayName("registerUser → one statement per registration")
+    void registerUser_singleStatement() {
+        Statistics stats = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+        stats.clear();
+
+        userService.registerUser(user("one@example.com"));
+
+        assertThat(stats.getPrepareStatementCount()).isEqualTo(1);
+
+        stats.clear();
+        assertThrows(UserAlreadyExistsException.class, () -> userService.registerUser(user("ONE@example.com")));
+        assertThat(stats.getPrepareStatementCount()).isEqualTo(1);
+    }
+
+    @Test
+    @DisplayName("registerUser under contention → exactly one user per email, every loser sees a conflict")
+    void registerUser_concurrent_noDuplicates() throws Exception {
+        ExecutorService pool = Executors.newFixedThreadPool(THREADS);
+        CountDownLatch start = new CountDownLatch(1);
+        Map<String, AtomicInteger> created = new ConcurrentHashMap<>();
+        AtomicInteger conflicts = new AtomicInteger();
+        List<Future<?>> futures = new ArrayList<>();
+        try {
+            for(int attempt = 0; attempt < ATTEMPTS_PER_EMAIL; attempt++) {
+                for(int i = 0; i < EMAILS; i++) {
+                    String email = "user" + i + "@example.com";
+                    futures.add(pool.submit(() -> {
+                        start.await();
+                        try {
+                            if(userService.registerUser(user(email))) {
+                                created.computeIfAbsent(email, e -> new AtomicInteger()).incrementAndGet();
+                            }
+                        }
+                        catch(UserAlreadyExistsException e) {
+                            conflicts.incrementAndGet();
+                        }
+                        return null;
+                    }));
+                }
+            }
+            start.countDown();
+            for(Future<?> f : futures) {
+                f.get();
+            }
+        }
+        finally {
+            pool.shutdownNow();
+        }
+
+        assertThat(created).hasSize(EMAILS);
+        assertThat(created.values()).allSatisfy(wins -> assertThat(wins.get()).isEqualTo(1));
+        assertThat(conflicts.get()).isEqualTo(EMAILS * (ATTEMPTS_PER_EMAIL - 1));
+        assertThat(repository.count()).isEqualTo(EMAILS);
+        for(int i = 0; i < EMAILS; i++) {
+            assertThat(repository.existsByEmail("user" + i + "@example.com")).isTrue();
+        }
+    }
+
+    // hashing cost is not what this test is about
+    private static final class PlainPasswordEncoder implements PasswordEncoder {
+
+        @Override
+        public String encode(CharSequence rawPassword) {
+            return rawPassword.toString();
+        }
+
+        @Override
+        public boolean matches(CharSequence rawPassword, String encodedPassword) {
+            return rawPassword.toString().equals(encodedPassword);
+        }
+    }
+
+    private static Users user(String email) {
+        Users u = new Users();
+        u.setName("Racer");
+        u.setEmail(email);
+        u.setPassword("pw");
+        u.setDepartment("IT");
+        u.setRole(Role.EMPLOYEE);
+        u.setStatus(Status.ACTIVE);
+        return u;
+    }
+}
@@ -0,0 +1,116 @@
+package com.wellness.service;
+
+import com.wellness.data.Role;
+import com.wellness.data.Status;
+import com.wellness.data.Users;
+import com.wellness.event.UserChangedEvent;
+import com.wellness.exception.UserNotFoundException;
+import com.wellness.repository.IUserRepository;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.mockito.Mockito.*;
+
+/**
+ * Unit tests for the user-details cache in MyUserDetailsService.
+ */
+@ExtendWith(MockitoExtension.class)
+class UserDetailsServiceTest {
+
+    @Mock
+    private IUserRepository userRepository;
+
+    private MyUserDetailsService service;
+
+    @BeforeEach
+    void setUp() {
+        service = new MyUserDetailsService(userRepository, 100, Duration.ofMinutes(5));
+    }
+
+    private Users user(String email) {
+        Users u = new Users();
+        u.setEmail(email);
+        u.setPassword("ENC(pw)");
+        u.setRole(Role.EMPLOYEE);
+        u.setStatus(Status.ACTIVE);
+        return u;
+    }
+
+    @Test
+    @DisplayName("loadUserByUsername → repeated loads hit the repository once")
+    void load_isCached() {
+        when(userRepository.findByEmail("emp@example.com")).thenReturn(user("emp@example.com"));
+
+        service.loadUserByUsername("emp@example.com");
+        service.loadUserByUsername("emp@example.com");
+
+        verify(userRepository, times(1)).findByEmail("emp@example.com");
+    }
+
+    @Test
+    @DisplayName("loadUserByUsername → missing users throw and are not cached")
+    void load_missingNotCached() {
+        when(userRepository.findByEmail("ghost@example.com")).thenReturn(null);
+
+        assertThrows(UserNotFoundException.class, () -> service.loadUserByUsername("ghost@example.com"));
+        assertThrows(UserNotFoundException.class, () -> service.loadUserByUsername("ghost@example.com"));
+
+        verify(userRepository, times(2)).findByEmail("ghost@example.com");
+    }
+
+    @Test
+    @DisplayName("onUserChanged → evicts the entry so the next load reads the new row")
+    void userChanged_invalidates() {
+        when(userRepository.findByEmail("emp@example.com")).thenReturn(user("emp@example.com"));
+
+        service.loadUserByUsername("emp@example.com");
+        service.onUserChanged(UserChangedEvent.updated(1L, "emp@example.com"));
+        service.loadUserByUsername("emp@example.com");
+
+        verify(userRepository, times(2)).findByEmail("emp@example.com");
+    }
+
+    @Test
+    @DisplayName("loadUserByUsername → concurrent misses for one email share a single query")
+    void load_concurrentMissesShareOneQuery() throws Exception {
+        CountDownLatch start = new CountDownLatch(1);
+        when(userRepository.findByEmail("emp@example.com")).thenAnswer(inv -> {
+            Thread.sleep(200);
+            return user("emp@example.com");
+        });
+
+        ExecutorService pool = Executors.newFixedThreadPool(8);
+        try {
+            List<Future<?>> futures = new ArrayList<>();
+            for (int i = 0; i < 8; i++) {
+                futures.add(pool.submit(() -> {
+                    start.await();
+                    return service.loadUserByUsername("emp@example.com");
+                }));
+            }
+            start.countDown();
+            for (Future<?> f : futures) {
+                assertThat(f.get()).isNotNull();
+            }
+        } finally {
+            pool.shutdownNow();
+        }
+
+        verify(userRepository, times(1)).findByEmail("emp@example.com");
+    }
+}
@@ -0,0 +1,170 @@
+package com.wellness.service;
+
+import com.wellness.configurations.BoundedPasswordEncoder;
+import com.wellness.configurations.PasswordHashingExecutor;
+import com.wellness.data.Role;
+import com.wellness.data.Status;
+import com.wellness.data.Users;
+import com.wellness.dto.ImportReport;
+import com.wellness.dto.ImportRowResult;
+import com.wellness.dto.ImportRowResult.Outcome;
+import com.wellness.event.UserChangedEvent;
+import com.wellness.repository.IUserRepository;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.data.jpa.test.autoconfigure.DataJpaTest;
+import org.springframework.boot.jdbc.test.autoconfigure.AutoConfigureTestDatabase;
+import org.springframework.boot.jdbc.test.autoconfigure.AutoConfigureTestDatabase.Replace;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.context.TestPropertySource;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.io.ByteArrayInputStream;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+
+import tools.jackson.databind.json.JsonMapper;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+
+/**
+ * Runs the bulk import against H2: batching, per-row outcomes and hashing.
+ * Not transactional, so the import commits its own batches like it does in production.
+ */
+@DataJpaTest
+@ActiveProfiles("test")
+@AutoConfigureTestDatabase(replace = Replace.NONE)
+@Transactional(propagation = Propagation.NOT_SUPPORTED)
+@TestPropertySource(properties = "test.database=importdb")
+class UserImportServiceTest {
+
+    @Autowired
+    private IUserRepository repository;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    private final BCryptPasswordEncoder bcrypt = new BCryptPasswordEncoder(4);
+    private PasswordHashingExecutor executor;
+    private ApplicationEventPublisher publisher;
+    private UserImportService importService;
+
+    @BeforeEach
+    void setUp() {
+        repository.deleteAll();
+        executor = new PasswordHashingExecutor(2, 2);
+        publisher = mock(ApplicationEventPublisher.class);
+        importService = new UserImportService(repository, new BoundedPasswordEncoder(bcrypt, executor), jdbcTemplate,
+                new TransactionTemplate(transactionManager), new JsonMapper(), publisher);
+    }
+
+    @AfterEach
+    void tearDown() {
+        executor.destroy();
+    }
+
+    @Test
+    @DisplayName("CSV import → creates valid rows in batches and reports invalid and duplicate ones")
+    void importCsv_reportsEachRow() {
+        Users existing = new Users();
+        existing.setName("Existing");
+        existing.setEmail("taken@example.com");
+        existing.setPassword("x");
+        existing.setDepartment("IT");
+        existing.setRole(Role.EMPLOYEE);
+        existing.setStatus(Status.ACTIVE);
+        repository.save(existing);
+
+        String csv = """
+                name,email,password,department,managerId,role,status
+                "Doe, Jane",Jane@Example.com,pw1,IT,,EMPLOYEE,ACTIVE
+                Bob,bob@example.com,pw2,HR,1,MANAGER,ACTIVE
+                Dup,jane@example.com,pw3,IT,,EMPLOYEE,ACTIVE
+                Taken,taken@example.com,pw4,IT,,EMPLOYEE,ACTIVE
+                NoRole,norole@example.com,pw5,IT,,,ACTIVE
+                BadStatus,bad@example.com,pw6,IT,,EMPLOYEE,SLEEPING
+                Carl,carl@example.com,pw7,QA,,ADMIN,INACTIVE
+                """;
+
+        ImportReport report = importService.importUsers(body(csv), UserImportService.TEXT_CSV, 2);
+
+        assertThat(report.getTotal()).isEqualTo(7);
+        assertThat(report.getCreated()).isEqualTo(3);
+        assertThat(report.getFailed()).isEqualTo(4);
+        //only failed rows are listed, in line order
+        assertThat(report.getFailures()).extracting(r -> r.getOutcome()).containsExactly(
+                Outcome.DUPLICATE, Outcome.DUPLICATE, Outcome.INVALID, Outcome.INVALID);
+        assertThat(report.getFailures()).extracting(r -> r.getLine()).containsExactly(4, 5, 6, 7);
+        assertThat(report.isFailuresTruncated()).isFalse();
+
+        Users jane = repository.findByEmail("jane@example.com");
+        assertThat(jane.getName()).isEqualTo("Doe, Jane");
+        assertThat(jane.getCreatedAt()).isNotNull();
+        assertThat(bcrypt.matches("pw1", jane.getPassword())).isTrue();
+        assertThat(repository.findByEmail("bob@example.com").getManagerId()).isEqualTo(1);
+        assertThat(repository.count()).isEqualTo(4);
+        verify(publisher).publishEvent(UserChangedEvent.imported());
+    }
+
+    @Test
+    @DisplayName("NDJSON import → a malformed line is reported and the rest still import")
+    void importNdjson_skipsMalformedLine() {
+        String ndjson = """
+                {"name":"A","email":"a@example.com","password":"pw","department":"IT","role":"EMPLOYEE","status":"ACTIVE"}
+                {"name":"B","email":
+                {"name":"C","email":"c@example.com","password":"pw","department":"IT","role":"EMPLOYEE","status":"ACTIVE"}
+                """;
+
+        ImportReport report = importService.importUsers(body(ndjson), UserImportService.NDJSON, null);
+
+        assertThat(report.getCreated()).isEqualTo(2);
+        assertThat(report.getFailures()).extracting(r -> r.getOutcome()).containsExactly(Outcome.INVALID);
+        assertThat(report.getFailures().get(0).getLine()).isEqualTo(2);
+        assertThat(repository.existsByEmail("c@example.com")).isTrue();
+    }
+
+    @Test
+    @DisplayName("import with nothing created → no change event")
+    void importNothing_noEvent() {
+        ImportReport report = importService.importUsers(body("name,email\n"), UserImportService.TEXT_CSV, null);
+
+        assertThat(report.getTotal()).isZero();
+        verify(publisher, never()).publishEvent(org.mockito.ArgumentMatchers.any(Object.class));
+    }
+
+    @Test
+    @DisplayName("report → counts every row but lists at most the configured number of failures")
+    void report_capsFailures() {
+        ImportReport report = new ImportReport(2);
+        report.add(new ImportRowResult(1, "a@example.com", Outcome.CREATED, null));
+        for (int line = 2; line <= 5; line++) {
+            report.add(new ImportRowResult(line, "b@example.com", Outcome.DUPLICATE, "Duplicate email in file"));
+        }
+
+        assertThat(report.getTotal()).isEqualTo(5);
+        assertThat(report.getCreated()).isEqualTo(1);
+        assertThat(report.getFailed()).isEqualTo(4);
+        assertThat(report.getFailures()).extracting(r -> r.getLine()).containsExactly(2, 3);
+        assertThat(report.isFailuresTruncated()).isTrue();
+    }
+
+    private static InputStream body(String text) {
+        return new ByteArrayInputStream(text.getBytes(StandardCharsets.UTF_8));
+    }
+}
@@ -0,0 +1,166 @@
+package com.wellness.service;
+
+import com.wellness.data.Role;
+import com.wellness.data.SearchEntry;
+import com.wellness.data.Status;
+import com.wellness.dto.UserHit;
+import com.wellness.dto.UserSearchResult;
+import com.wellness.event.UserChangedEvent;
+import com.wellness.event.UserChangedEvent.Snapshot;
+import com.wellness.repository.IUserRepository;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+/**
+ * Unit tests for the in-memory user search.
+ */
+class UserSearchServiceTest {
+
+    private IUserRepository repository;
+    private UserSearchService search;
+
+    @BeforeEach
+    void setUp() {
+        repository = mock(IUserRepository.class);
+        when(repository.findSearchEntries()).thenReturn(List.of(
+                new SearchEntry(1L, "Anna Smith", "anna.smith@example.com"),
+                new SearchEntry(2L, "Hannah Anderson", "hannah@example.com"),
+                new SearchEntry(3L, "Ann", "ann@example.com"),
+                new SearchEntry(4L, "Joe Bloggs", "jbloggs@example.com"),
+                new SearchEntry(5L, "Annabel Lee", "lee@example.com")));
+        search = new UserSearchService(repository);
+        search.reload();
+    }
+
+    private static List<Long> ids(UserSearchResult result) {
+        return result.getUsers().stream().map(UserHit::getUserId).toList();
+    }
+
+    @Test
+    @DisplayName("search → exact, then prefix, then word prefix, then substring matches")
+    void search_ranksMatches() {
+        UserSearchResult result = search.search("ann", 10);
+
+        //exact, prefixes by shorter name, word prefix of "anderson" is not "ann", substring of "hannah"
+        assertThat(ids(result)).containsExactly(3L, 1L, 5L, 2L);
+        assertThat(result.isTruncated()).isFalse();
+        assertThat(ids(search.search("smi", 10))).containsExactly(1L);
+        assertThat(ids(search.search("BLOGGS", 10))).containsExactly(4L);
+    }
+
+    @Test
+    @DisplayName("search → one and two characters match the start of a word only")
+    void search_shortQueriesMatchWordStarts() {
+        assertThat(ids(search.search("le", 10))).containsExactly(5L);
+        assertThat(ids(search.search("j", 10))).containsExactly(4L);
+        assertThat(search.search("nn", 10).getUsers()).isEmpty();
+    }
+
+    @Test
+    @DisplayName("search → limit keeps the best hits, invalid queries and limits are rejected")
+    void search_limits() {
+        assertThat(ids(search.search("example", 2))).hasSize(2);
+        assertThrows(IllegalArgumentException.class, () -> search.search(" ", 10));
+        assertThrows(IllegalArgumentException.class, () -> search.search("ann", 0));
+        assertThrows(IllegalArgumentException.class, () -> search.search("ann", 51));
+    }
+
+    @Test
+    @DisplayName("onUserChanged → registrations, renames and deletions are searchable without a reload")
+    void onUserChanged_incremental() {
+        search.onUserChanged(UserChangedEvent.created(6L, "zoe@example.com", snapshot("Zoe Quinn")));
+        search.onUserChanged(UserChangedEvent.updated(4L, "jbloggs@example.com", snapshot("Joe Bloggs"), snapshot("Joseph Bloggs")));
+        search.onUserChanged(UserChangedEvent.deleted(3L, "ann@example.com"));
+
+        assertThat(ids(search.search("quinn", 10))).containsExactly(6L);
+        assertThat(ids(search.search("joseph", 10))).containsExactly(4L);
+        assertThat(ids(search.search("ann", 10))).doesNotContain(3L);
+        assertThat(search.size()).isEqualTo(5);
+        verify(repository, times(1)).findSearchEntries();
+    }
+
+    @Test
+    @DisplayName("index → repeated updates compact the index and keep one document per user")
+    void index_compacts() {
+        UserSearchIndex index = new UserSearchIndex();
+        for (int round = 0; round < 5; round++) {
+            for (long id = 1; id <= 1000; id++) {
+                index.add(id, "User " + id + " round " + round, "u" + id + "@example.com");
+            }
+        }
+
+        assertThat(index.size()).isEqualTo(1000);
+        assertThat(index.search("round 4", 50, 10_000).getUsers()).hasSize(50);
+        assertThat(index.search("round 3", 50, 10_000).getUsers()).isEmpty();
+    }
+
+    @Test
+    @DisplayName("index → a non-selective query stops at maxMatches and reports truncation")
+    void index_truncates() {
+        List<SearchEntry> entries = new ArrayList<>();
+        for (long id = 1; id <= 100_000; id++) {
+            entries.add(new SearchEntry(id, "User " + id, "user" + id + "@example.com"));
+        }
+        UserSearchIndex index = new UserSearchIndex();
+        index.replaceAll(entries);
+
+        long start = System.nanoTime();
+        UserSearchResult result = index.search("example", 10, 10_000);
+        UserSearchResult selective = index.search("user4242@", 10, 10_000);
+        long millis = (System.nanoTime() - start) / 1_000_000;
+
+        assertThat(result.getUsers()).hasSize(10);
+        assertThat(result.isTruncated()).isTrue();
+        assertThat(ids(selective)).containsExactly(4242L);
+        assertThat(millis).isLessThan(500);
+    }
+
+    @Test
+    @DisplayName("index → word-start matches are ranked before the cap is spent on substrings of older users")
+    void index_capKeepsBestMatches() {
+        List<SearchEntry> entries = new ArrayList<>();
+        for (long id = 1; id <= 20; id++) {
+            entries.add(new SearchEntry(id, "Joanne " + id, "j" + id + "@example.com"));
+        }
+        entries.add(new SearchEntry(21L, "Ann", "ann@example.com"));
+        entries.add(new SearchEntry(22L, "Annabel Lee", "lee@example.com"));
+        UserSearchIndex index = new UserSearchIndex();
+        index.replaceAll(entries);
+
+        UserSearchResult full = index.search("ann", 2, 5);
+        UserSearchResult filled = index.search("ann", 4, 5);
+
+        //both word-start hits fill the list, no substring is ranked
+        assertThat(ids(full)).containsExactly(21L, 22L);
+        assertThat(full.isTruncated()).isFalse();
+        //the cap cuts off the substrings, behind the word-start hits
+        assertThat(ids(filled)).containsExactly(21L, 22L, 1L, 2L);
+        assertThat(filled.isTruncated()).isTrue();
+    }
+
+    @Test
+    @DisplayName("index → a query starting with a separator is matched through its trigrams")
+    void index_separatorQuery() {
+        UserSearchIndex index = new UserSearchIndex();
+        index.add(1L, "Anna", "anna@example.com");
+        index.add(2L, "Ben", "ben@sample.org");
+
+        assertThat(ids(index.search("@example", 10, 10_000))).containsExactly(1L);
+    }
+
+    private static Snapshot snapshot(String name) {
+        return new Snapshot(name, "IT", Role.EMPLOYEE, Status.ACTIVE, null);
+    }
+}